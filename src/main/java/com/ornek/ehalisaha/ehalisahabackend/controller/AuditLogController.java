@@ -0,0 +1,76 @@
+package com.ornek.ehalisaha.ehalisahabackend.controller;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto;
+import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
+import com.ornek.ehalisaha.ehalisahabackend.service.AuditQueryService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Audit kayıtları: yeniden eskiye, keyset sayfalı.
+ * Cevap dizi; devamı varsa X-Next-Before-At + X-Next-Before-Id header'ları (sonraki istekte beforeAt / beforeId).
+ */
+@RestController
+public class AuditLogController {
+
+    static final String NEXT_AT_HEADER = "X-Next-Before-At";
+    static final String NEXT_ID_HEADER = "X-Next-Before-Id";
+
+    private final AuditQueryService service;
+
+    public AuditLogController(AuditQueryService service) {
+        this.service = service;
+    }
+
+    // ✅ Owner: sadece kendi yaptıkları
+    // örnek: /api/owner/audit-logs?entityType=Reservation&entityId=42
+    @GetMapping("/api/owner/audit-logs")
+    @PreAuthorize("hasRole('OWNER')")
+    public List<AuditLogDto> ownerLogs(
+            @AuthenticationPrincipal AppUserPrincipal me,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant beforeAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response
+    ) {
+        var q = new AuditQueryService.Query(null, entityType, entityId, from, to, beforeAt, beforeId, limit);
+        return write(service.searchForOwner(me.getId(), q), response);
+    }
+
+    // ✅ Admin: actor / entity / zaman aralığı
+    // örnek: /api/admin/audit-logs?actorUserId=7&from=2026-10-01T00:00:00Z&limit=100
+    @GetMapping("/api/admin/audit-logs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<AuditLogDto> adminLogs(
+            @RequestParam(required = false) Long actorUserId,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) Long entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant beforeAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response
+    ) {
+        var q = new AuditQueryService.Query(actorUserId, entityType, entityId, from, to, beforeAt, beforeId, limit);
+        return write(service.search(q), response);
+    }
+
+    private static List<AuditLogDto> write(AuditQueryService.Page page, HttpServletResponse response) {
+        if (page.nextBeforeId() != null) {
+            response.setHeader(NEXT_AT_HEADER, page.nextBeforeAt().toString());
+            response.setHeader(NEXT_ID_HEADER, String.valueOf(page.nextBeforeId()));
+        }
+        return page.items();
+    }
+}
@@ -0,0 +1,23 @@
+package com.ornek.ehalisaha.ehalisahabackend.controller;
+
+import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
+import com.ornek.ehalisaha.ehalisahabackend.service.AuthService;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    // geçerli token ile yeni token (UI süre dolmadan çağırır)
+    @PostMapping("/refresh")
+    public AuthService.LoginResult refresh(@AuthenticationPrincipal AppUserPrincipal me) {
+        return authService.refresh(me);
+    }
+}
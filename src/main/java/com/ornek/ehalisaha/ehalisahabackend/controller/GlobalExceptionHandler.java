@@ -1,7 +1,9 @@
 package com.ornek.ehalisaha.ehalisahabackend.controller;
 
+import com.ornek.ehalisaha.ehalisahabackend.service.ReservationConflictException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.ErrorResponseException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -32,12 +34,25 @@ public class GlobalExceptionHandler {
                 .body(base(HttpStatus.BAD_REQUEST, ex.getMessage()));
     }
 
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<?> unauthorized(AuthenticationException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(base(HttpStatus.UNAUTHORIZED, ex.getMessage()));
+    }
+
     @ExceptionHandler(SecurityException.class)
     public ResponseEntity<?> forbidden(SecurityException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body(base(HttpStatus.FORBIDDEN, ex.getMessage()));
     }
 
+    @ExceptionHandler(ReservationConflictException.class)
+    public ResponseEntity<?> reservationConflict(ReservationConflictException ex) {
+        Map<String, Object> body = base(HttpStatus.CONFLICT, ex.getMessage());
+        body.put("conflictsWith", ex.getConflictingReservationIds());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
     @ExceptionHandler(IllegalStateException.class)
     public ResponseEntity<?> conflict(IllegalStateException ex) {
         // sen overlaps için IllegalStateException fırlatıyorsun
@@ -2,9 +2,12 @@ package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
 import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationCreateRequest;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationSeriesRequest;
 import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
 import com.ornek.ehalisaha.ehalisahabackend.service.ReservationService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -25,4 +28,14 @@ public class MemberReservationController {
                               @Valid @RequestBody ReservationCreateRequest req) {
         return service.create(me.getId(), req);
     }
+
+    // ✅ Haftalık seri: tüm haftalar tek transaction'da; çakışma raporu hafta bazında döner.
+    // Çakışma var ve skipConflicts=false ise hiçbir şey yazılmaz → 409 + rapor.
+    @PostMapping("/reservations/series")
+    public ResponseEntity<ReservationService.SeriesResult> createSeries(@AuthenticationPrincipal AppUserPrincipal me,
+                                                                       @Valid @RequestBody ReservationSeriesRequest req) {
+        ReservationService.SeriesResult res = service.createSeries(me.getId(), req);
+        HttpStatus status = res.created() == 0 ? HttpStatus.CONFLICT : HttpStatus.OK;
+        return ResponseEntity.status(status).body(res);
+    }
 }
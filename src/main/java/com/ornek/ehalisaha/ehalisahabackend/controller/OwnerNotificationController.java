@@ -0,0 +1,27 @@
+package com.ornek.ehalisaha.ehalisahabackend.controller;
+
+import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
+import com.ornek.ehalisaha.ehalisahabackend.service.OwnerNotificationHub;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/owner/notifications")
+@PreAuthorize("hasRole('OWNER')")
+public class OwnerNotificationController {
+
+    private final OwnerNotificationHub hub;
+
+    public OwnerNotificationController(OwnerNotificationHub hub) {
+        this.hub = hub;
+    }
+
+    // ✅ Polling yerine push: event "reservation" (create / cash-paid / cancel commit sonrası)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal AppUserPrincipal me) {
+        return hub.subscribe(me.getId());
+    }
+}
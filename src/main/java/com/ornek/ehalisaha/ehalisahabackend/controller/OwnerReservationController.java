@@ -1,6 +1,7 @@
 package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
+import com.ornek.ehalisaha.ehalisahabackend.dto.OwnerReservationDto;
 import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
 import com.ornek.ehalisaha.ehalisahabackend.service.OwnerReservationService;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -24,7 +25,7 @@ public class OwnerReservationController {
 
     // ✅ Owner rezervasyon listesini görsün
     @GetMapping("/reservations")
-    public List<OwnerReservationService.OwnerReservationDto> list(
+    public List<OwnerReservationDto> list(
             @AuthenticationPrincipal AppUserPrincipal me,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) Long facilityId,
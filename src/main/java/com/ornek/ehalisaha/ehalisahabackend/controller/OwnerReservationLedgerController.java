@@ -2,11 +2,16 @@ package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
 import com.ornek.ehalisaha.ehalisahabackend.service.OwnerReservationLedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -14,13 +19,15 @@ import java.util.List;
 @PreAuthorize("hasRole('OWNER')")
 public class OwnerReservationLedgerController {
 
+    private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
+
     private final OwnerReservationLedgerService svc;
 
     public OwnerReservationLedgerController(OwnerReservationLedgerService svc) {
         this.svc = svc;
     }
 
-    @GetMapping
+    @GetMapping(params = "date")
     public List<OwnerReservationLedgerService.LedgerRowDto> list(
             @AuthenticationPrincipal AppUserPrincipal me,
             @RequestParam Long facilityId,
@@ -30,6 +37,38 @@ public class OwnerReservationLedgerController {
         return svc.listForDay(me.getId(), facilityId, pitchId, date);
     }
 
+    // ✅ Çok günlük aralık (from..to dahil): satırlar cursor'dan okundukça yazılır, liste tutulmaz
+    // örnek: /api/owner/reservation-ledger?facilityId=3&from=2026-10-19&to=2026-10-25
+    @GetMapping(params = {"from", "to"})
+    public ResponseEntity<StreamingResponseBody> range(
+            @AuthenticationPrincipal AppUserPrincipal me,
+            @RequestParam Long facilityId,
+            @RequestParam(required = false) Long pitchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        // stream başladıktan sonra status değişemez: kontroller önce
+        svc.checkRange(me.getId(), facilityId, from, to);
+        Long ownerId = me.getId();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> svc.writeRange(ownerId, facilityId, pitchId, from, to, out));
+    }
+
+    // ✅ Bildirim rozeti: gün gün ledger taramak yerine tek özet
+    // örnek: /api/owner/reservation-ledger/digest?facilityId=3&afterId=120
+    @GetMapping("/digest")
+    public OwnerReservationLedgerService.LedgerDigestDto digest(
+            @AuthenticationPrincipal AppUserPrincipal me,
+            @RequestParam Long facilityId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "14") int days
+    ) {
+        LocalDate start = (from != null) ? from : LocalDate.now(FACILITY_TZ);
+        return svc.digest(me.getId(), facilityId, afterId, start, days);
+    }
+
     public record PlayerPaidPatch(boolean paid) {}
 
     @PatchMapping("/{reservationId}/players/{playerId}")
@@ -1,7 +1,9 @@
 package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.AppUser;
+import com.ornek.ehalisaha.ehalisahabackend.dto.LoginRequest;
 import com.ornek.ehalisaha.ehalisahabackend.dto.RegisterRequest;
+import com.ornek.ehalisaha.ehalisahabackend.service.AuthService;
 import com.ornek.ehalisaha.ehalisahabackend.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
@@ -11,9 +13,11 @@ import org.springframework.web.bind.annotation.*;
 public class PublicAuthController {
 
     private final UserService userService;
+    private final AuthService authService;
 
-    public PublicAuthController(UserService userService) {
+    public PublicAuthController(UserService userService, AuthService authService) {
         this.userService = userService;
+        this.authService = authService;
     }
 
     @PostMapping("/register")
@@ -26,4 +30,10 @@ public class PublicAuthController {
         return userService.registerOwner(req);
     }
 
+    // ✅ Tek bcrypt kontrolü -> kısa ömürlü Bearer token (sonraki istekler DB'ye gitmez)
+    @PostMapping("/login")
+    public AuthService.LoginResult login(@Valid @RequestBody LoginRequest req) {
+        return authService.login(req);
+    }
+
 }
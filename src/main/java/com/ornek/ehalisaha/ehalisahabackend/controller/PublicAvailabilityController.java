@@ -3,22 +3,25 @@ package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
-import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
-import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
-import com.ornek.ehalisaha.ehalisahabackend.repository.PitchRepository;
-import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import com.ornek.ehalisaha.ehalisahabackend.service.CatalogCache;
+import com.ornek.ehalisaha.ehalisahabackend.service.ChangeVersions;
+import com.ornek.ehalisaha.ehalisahabackend.service.FreeSlotSearchService;
+import com.ornek.ehalisaha.ehalisahabackend.service.OccupancyIndex;
 import com.ornek.ehalisaha.ehalisahabackend.service.SlotService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/public")
 public class PublicAvailabilityController {
 
-    private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
-
     public record SlotAvailabilityDto(
             int startMinute,
             int durationMinutes,
@@ -28,41 +31,70 @@ public class PublicAvailabilityController {
     ) {
     }
 
-    private final PitchRepository pitchRepo;
-    private final FacilityRepository facilityRepo;
-    private final ReservationRepository reservationRepo;
+    private static final int MAX_RANGE_DAYS = 31;
+
+    public record SlotHeaderDto(int startMinute, int durationMinutes, String label) {}
+
+    /** occupied: slots sırasıyla '1' = dolu, '0' = boş (ör. "0011000...") */
+    public record DayStatesDto(LocalDate date, String occupied) {}
+
+    public record AvailabilityRangeDto(
+            Long pitchId,
+            LocalDate from,
+            LocalDate to,
+            List<SlotHeaderDto> slots,
+            List<DayStatesDto> days
+    ) {}
+
+    /** occupied: slots sırasıyla '1' = dolu, '0' = boş */
+    public record PitchStatesDto(Long pitchId, String pitchName, String occupied) {}
+
+    public record FacilityGridDto(
+            Long facilityId,
+            LocalDate date,
+            List<SlotHeaderDto> slots,
+            List<PitchStatesDto> pitches
+    ) {}
+
+    private final CatalogCache catalog;
+    private final OccupancyIndex occupancy;
     private final SlotService slotService;
+    private final FreeSlotSearchService freeSlotSearch;
+    private final ChangeVersions versions;
 
     public PublicAvailabilityController(
-            PitchRepository pitchRepo,
-            FacilityRepository facilityRepo,
-            ReservationRepository reservationRepo,
-            SlotService slotService
+            CatalogCache catalog,
+            OccupancyIndex occupancy,
+            SlotService slotService,
+            FreeSlotSearchService freeSlotSearch,
+            ChangeVersions versions
     ) {
-        this.pitchRepo = pitchRepo;
-        this.facilityRepo = facilityRepo;
-        this.reservationRepo = reservationRepo;
+        this.catalog = catalog;
+        this.occupancy = occupancy;
         this.slotService = slotService;
+        this.freeSlotSearch = freeSlotSearch;
+        this.versions = versions;
     }
 
     @GetMapping("/pitches/{pitchId}/availability")
     public List<SlotAvailabilityDto> availability(
             @PathVariable Long pitchId,
-            @RequestParam String date // "2026-01-04"
+            @RequestParam String date, // "2026-01-04"
+            WebRequest request
     ) {
-        Pitch pitch = pitchRepo.findById(pitchId)
+        Pitch pitch = catalog.pitch(pitchId)
                 .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + pitchId));
 
-        Facility fac = facilityRepo.findById(pitch.getFacilityId())
+        // ✅ ETag: slot / saha / rezervasyon değişmediyse 304 (index + JSON yok)
+        if (request.checkNotModified(pitchEtag(pitch))) return null;
+
+        Facility fac = catalog.facility(pitch.getFacilityId())
                 .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + pitch.getFacilityId()));
 
         LocalDate d = LocalDate.parse(date);
 
-        Instant dayStart = d.atStartOfDay(FACILITY_TZ).toInstant();
-        Instant dayEnd = d.plusDays(1).atStartOfDay(FACILITY_TZ).toInstant();
-
-        List<Reservation> reservations = reservationRepo
-                .findByPitchIdAndStartTimeLessThanAndEndTimeGreaterThan(pitchId, dayEnd, dayStart);
+        // ✅ doluluk bellekteki index'ten (rezervasyon sorgusu yok, CANCELLED hariç)
+        OccupancyIndex.DayBitmap occ = occupancy.day(pitchId, d);
 
         // Facility slotları (aktif/pasif dahil)
         List<SlotService.SlotDto> slots = slotService.publicSlots(fac.getId());
@@ -71,17 +103,103 @@ public class PublicAvailabilityController {
             int sm = s.startMinute();
             int dm = s.durationMinutes();
 
-            // Slotun o günkü Instant aralığı
-            Instant slotStart = d.atStartOfDay(FACILITY_TZ).plusMinutes(sm).toInstant();
-            Instant slotEnd = d.atStartOfDay(FACILITY_TZ).plusMinutes(sm + dm).toInstant();
-
-            boolean occupied = reservations.stream().anyMatch(r ->
-                    r.getStartTime().isBefore(slotEnd) && r.getEndTime().isAfter(slotStart)
-            );
+            boolean occupied = occ.anyBusy(sm, sm + dm);
 
             return new SlotAvailabilityDto(
                     sm, dm, s.active(), occupied, s.label()
             );
         }).toList();
     }
+
+    // ✅ Haftalık/aylık görünüm: tek istek, tek overlap sorgusu, slotlar bir kez
+    // örnek: /api/public/pitches/5/availability-range?from=2026-01-05&to=2026-01-11
+    @GetMapping("/pitches/{pitchId}/availability-range")
+    public AvailabilityRangeDto availabilityRange(
+            @PathVariable Long pitchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request
+    ) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("to must be >= from");
+        long dayCount = ChronoUnit.DAYS.between(from, to) + 1;
+        if (dayCount > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range too large (max " + MAX_RANGE_DAYS + " days)");
+        }
+
+        Pitch pitch = catalog.pitch(pitchId)
+                .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + pitchId));
+
+        if (request.checkNotModified(pitchEtag(pitch))) return null;
+
+        List<SlotService.SlotDto> slots = slotService.publicSlots(pitch.getFacilityId());
+        Map<LocalDate, OccupancyIndex.DayBitmap> occ = occupancy.range(pitchId, from, to);
+
+        List<DayStatesDto> days = new ArrayList<>((int) dayCount);
+        for (var e : occ.entrySet()) {
+            days.add(new DayStatesDto(e.getKey(), encode(slots, e.getValue())));
+        }
+
+        return new AvailabilityRangeDto(pitchId, from, to, header(slots), days);
+    }
+
+    // ✅ Tesis geneli: tüm aktif sahalar × slotlar tek istekte (tek overlap sorgusu)
+    // örnek: /api/public/facilities/3/grid?date=2026-01-05
+    @GetMapping("/facilities/{facilityId}/grid")
+    public FacilityGridDto facilityGrid(
+            @PathVariable Long facilityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request
+    ) {
+        Facility fac = catalog.facility(facilityId)
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + facilityId));
+
+        if (request.checkNotModified(versions.etag("fg",
+                versions.facility(facilityId), versions.facilityOccupancy(facilityId)))) {
+            return null;
+        }
+
+        List<Pitch> pitches = catalog.activePitches(fac.getId());
+        List<SlotService.SlotDto> slots = slotService.publicSlots(fac.getId());
+
+        List<Long> pitchIds = pitches.stream().map(Pitch::getId).toList();
+        Map<Long, Map<LocalDate, OccupancyIndex.DayBitmap>> occ = occupancy.grid(pitchIds, date, date);
+
+        List<PitchStatesDto> rows = pitches.stream()
+                .map(p -> new PitchStatesDto(p.getId(), p.getName(), encode(slots, occ.get(p.getId()).get(date))))
+                .toList();
+
+        return new FacilityGridDto(fac.getId(), date, header(slots), rows);
+    }
+
+    // ✅ Çoklu tesis boş slot araması (facilityIds boşsa tüm aktif tesisler)
+    // örnek: /api/public/free-slots?from=2026-01-05T17:00:00Z&to=2026-01-05T20:00:00Z&durationMinutes=60&facilityIds=1,2
+    @GetMapping("/free-slots")
+    public List<FreeSlotSearchService.FreeSlotDto> freeSlots(
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam int durationMinutes,
+            @RequestParam(required = false) List<Long> facilityIds,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return freeSlotSearch.search(from, to, durationMinutes, facilityIds, limit);
+    }
+
+    // aynı URL için: tesis kataloğu (slot / saha / fiyat) + sahanın rezervasyonları
+    private String pitchEtag(Pitch pitch) {
+        return versions.etag("pa", versions.facility(pitch.getFacilityId()), versions.pitch(pitch.getId()));
+    }
+
+    private static List<SlotHeaderDto> header(List<SlotService.SlotDto> slots) {
+        return slots.stream()
+                .map(s -> new SlotHeaderDto(s.startMinute(), s.durationMinutes(), s.label()))
+                .toList();
+    }
+
+    private static String encode(List<SlotService.SlotDto> slots, OccupancyIndex.DayBitmap occ) {
+        StringBuilder sb = new StringBuilder(slots.size());
+        for (SlotService.SlotDto s : slots) {
+            sb.append(occ.anyBusy(s.startMinute(), s.startMinute() + s.durationMinutes()) ? '1' : '0');
+        }
+        return sb.toString();
+    }
 }
@@ -1,40 +1,100 @@
 package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.DurationOption;
-import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
+import com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto;
 import com.ornek.ehalisaha.ehalisahabackend.repository.DurationOptionRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
-import com.ornek.ehalisaha.ehalisahabackend.repository.PitchRepository;
+import com.ornek.ehalisaha.ehalisahabackend.service.CatalogCache;
+import com.ornek.ehalisaha.ehalisahabackend.service.ChangeVersions;
+import com.ornek.ehalisaha.ehalisahabackend.service.FacilitySearchIndex;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/public")
 public class PublicCatalogController {
 
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 500;
+
+    /** Sonraki sayfa için afterId (yoksa header gönderilmez). */
+    static final String NEXT_HEADER = "X-Next-After-Id";
+
     private final FacilityRepository facilityRepo;
-    private final PitchRepository pitchRepo;
+    private final CatalogCache catalog;
     private final DurationOptionRepository durationRepo;
+    private final ChangeVersions versions;
+    private final FacilitySearchIndex searchIndex;
 
     public PublicCatalogController(FacilityRepository facilityRepo,
-                                   PitchRepository pitchRepo,
-                                   DurationOptionRepository durationRepo) {
+                                   CatalogCache catalog,
+                                   DurationOptionRepository durationRepo,
+                                   ChangeVersions versions,
+                                   FacilitySearchIndex searchIndex) {
         this.facilityRepo = facilityRepo;
-        this.pitchRepo = pitchRepo;
+        this.catalog = catalog;
         this.durationRepo = durationRepo;
+        this.versions = versions;
+        this.searchIndex = searchIndex;
     }
 
+    // ✅ Keyset sayfalama (id > afterId) + hafif DTO, değişmediyse 304 (ETag).
+    // Cevap hâlâ dizi; devamı varsa X-Next-After-Id header'ı.
+    // örnek: /api/public/facilities?active=true&q=are&limit=50&afterId=120
     @GetMapping("/facilities")
-    public List<Facility> facilities() {
-        return facilityRepo.findAll();
+    public List<FacilitySummaryDto> facilities(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String q,
+            WebRequest request,
+            HttpServletResponse response
+    ) {
+        if (request.checkNotModified(versions.etag("fl", versions.catalog()))) return null;
+
+        int lim = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        // bir fazlası: sonraki sayfa var mı?
+        List<FacilitySummaryDto> rows = facilityRepo.findSummaries(
+                Math.max(afterId, 0), active, namePrefix(q), Limit.of(lim + 1));
+
+        if (rows.size() > lim) {
+            rows = rows.subList(0, lim);
+            response.setHeader(NEXT_HEADER, String.valueOf(rows.get(lim - 1).id()));
+        }
+        return rows;
+    }
+
+    // ✅ İsim / adres araması (önek + yazım hatası toleransı), bellekteki index'ten
+    // örnek: /api/public/facilities/search?q=kadikoy are&limit=10
+    @GetMapping("/facilities/search")
+    public List<FacilitySearchIndex.Hit> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(versions.etag("fs", versions.catalog()))) return null;
+        return searchIndex.search(q, limit);
     }
 
     @GetMapping("/facilities/{facilityId}/pitches")
-    public List<Pitch> pitches(@PathVariable Long facilityId) {
+    public List<Pitch> pitches(@PathVariable Long facilityId, WebRequest request) {
+        if (request.checkNotModified(versions.etag("fp", versions.facility(facilityId)))) return null;
         // Member tarafında sadece aktif pitch'ler gösterilsin
-        return pitchRepo.findByFacilityIdAndActiveTrueOrderByIdAsc(facilityId);
+        return catalog.activePitches(facilityId);
+    }
+
+    // Facility.nameKey ile aynı normalize + LIKE özel karakterleri escape
+    static String namePrefix(String q) {
+        if (q == null || q.isBlank()) return null;
+        String key = q.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return key.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
     }
 
     @GetMapping("/durations")
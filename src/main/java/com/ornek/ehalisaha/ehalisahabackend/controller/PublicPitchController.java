@@ -1,10 +1,12 @@
 package com.ornek.ehalisaha.ehalisahabackend.controller;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.*;
-import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
-import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import com.ornek.ehalisaha.ehalisahabackend.service.CatalogCache;
+import com.ornek.ehalisaha.ehalisahabackend.service.ChangeVersions;
+import com.ornek.ehalisaha.ehalisahabackend.service.OccupancyIndex;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.*;
 import java.util.*;
@@ -13,92 +15,67 @@ import java.util.*;
 @RequestMapping("/api/public/pitches")
 public class PublicPitchController {
 
-    private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
-
-    private final ReservationRepository reservationRepo;
-    private final PitchRepository pitchRepo;
-    private final FacilitySlotRepository slotRepo;
-    private final DurationOptionRepository durationRepo;
-    private final PricingRuleRepository pricingRepo;
-
-    public PublicPitchController(ReservationRepository reservationRepo,
-                                 PitchRepository pitchRepo,
-                                 FacilitySlotRepository slotRepo,
-                                 DurationOptionRepository durationRepo,
-                                 PricingRuleRepository pricingRepo) {
-        this.reservationRepo = reservationRepo;
-        this.pitchRepo = pitchRepo;
-        this.slotRepo = slotRepo;
-        this.durationRepo = durationRepo;
-        this.pricingRepo = pricingRepo;
+    private final OccupancyIndex occupancy;
+    private final CatalogCache catalog;
+    private final ChangeVersions versions;
+
+    public PublicPitchController(OccupancyIndex occupancy, CatalogCache catalog, ChangeVersions versions) {
+        this.occupancy = occupancy;
+        this.catalog = catalog;
+        this.versions = versions;
     }
 
     // ✅ Member grid “dolu/boş”
     @GetMapping("/{pitchId}/occupancy")
     public List<Integer> occupancy(@PathVariable Long pitchId,
-                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                   WebRequest request) {
 
-        Pitch p = pitchRepo.findById(pitchId)
+        Pitch p = catalog.pitch(pitchId)
                 .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + pitchId));
 
-        // gün başlangıcı/bitişi: Istanbul
-        Instant start = date.atStartOfDay(FACILITY_TZ).toInstant();
-        Instant end = date.plusDays(1).atStartOfDay(FACILITY_TZ).toInstant();
+        // ✅ ETag: değişmediyse 304
+        if (request.checkNotModified(versions.etag("po",
+                versions.facility(p.getFacilityId()), versions.pitch(pitchId)))) {
+            return null;
+        }
 
         // base slot dakikası: DB slotlarından (yoksa 60)
-        int baseSlot = slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(p.getFacilityId())
+        int baseSlot = catalog.activeSlots(p.getFacilityId())
                 .stream()
                 .map(FacilitySlot::getDurationMinutes)
                 .filter(Objects::nonNull)
                 .min(Integer::compareTo)
                 .orElse(60);
 
-        List<Reservation> rs = reservationRepo.findOverlappingForPitch(
-                pitchId, start, end, ReservationStatus.CANCELLED
-        );
-
-        // rezervasyonları baseSlot parçalarına bölüp “minuteOfDay” listesi çıkar
-        Set<Integer> occ = new TreeSet<>();
-        for (Reservation r : rs) {
-            ZonedDateTime zs = r.getStartTime().atZone(FACILITY_TZ);
-            ZonedDateTime ze = r.getEndTime().atZone(FACILITY_TZ);
-
-            int sMin = zs.getHour() * 60 + zs.getMinute();
-            int eMin = ze.getHour() * 60 + ze.getMinute();
-
-            // aynı gün dışına taşarsa kırp
-            sMin = Math.max(0, sMin);
-            eMin = Math.min(24 * 60, eMin);
-
-            for (int m = sMin; m < eMin; m += baseSlot) {
-                occ.add(m);
-            }
-        }
-
-        return new ArrayList<>(occ);
+        // dolu aralıkları baseSlot parçalarına bölüp “minuteOfDay” listesi çıkar (index'ten, DB'siz)
+        return occupancy.day(pitchId, date).busyStarts(baseSlot);
     }
 
     public record PricingBaseDto(int minutes, String currency, String price) {}
 
     // ✅ Member fiyat görsün (tek tarife: 1 saatlik fiyat)
     @GetMapping("/{pitchId}/pricing-base")
-    public PricingBaseDto pricingBase(@PathVariable Long pitchId) {
+    public PricingBaseDto pricingBase(@PathVariable Long pitchId, WebRequest request) {
 
-        Pitch p = pitchRepo.findById(pitchId)
+        Pitch p = catalog.pitch(pitchId)
                 .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + pitchId));
 
+        // fiyat / slot değişimi tesis sayacını artırır
+        if (request.checkNotModified(versions.etag("pb", versions.facility(p.getFacilityId())))) return null;
+
         // base duration: facility slotlarından (yoksa 60)
-        int baseSlot = slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(p.getFacilityId())
+        int baseSlot = catalog.activeSlots(p.getFacilityId())
                 .stream()
                 .map(FacilitySlot::getDurationMinutes)
                 .filter(Objects::nonNull)
                 .min(Integer::compareTo)
                 .orElse(60);
 
-        DurationOption baseOpt = durationRepo.findByMinutes(baseSlot)
+        DurationOption baseOpt = catalog.duration(baseSlot)
                 .orElseThrow(() -> new IllegalStateException("DurationOption missing for " + baseSlot));
 
-        PricingRule pr = pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(pitchId, baseOpt.getId())
+        PricingRule pr = catalog.activePrice(pitchId, baseOpt.getId())
                 .orElseThrow(() -> new IllegalStateException("Pricing not set for this pitch (base=" + baseSlot + ")"));
 
         return new PricingBaseDto(baseSlot, pr.getCurrency(), pr.getPrice().toPlainString());
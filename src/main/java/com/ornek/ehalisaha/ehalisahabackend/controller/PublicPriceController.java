@@ -4,9 +4,7 @@ package com.ornek.ehalisaha.ehalisahabackend.controller;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.PricingRule;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.DurationOption;
-import com.ornek.ehalisaha.ehalisahabackend.repository.DurationOptionRepository;
-import com.ornek.ehalisaha.ehalisahabackend.repository.PitchRepository;
-import com.ornek.ehalisaha.ehalisahabackend.repository.PricingRuleRepository;
+import com.ornek.ehalisaha.ehalisahabackend.service.CatalogCache;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -24,16 +22,10 @@ public class PublicPriceController {
             BigDecimal totalPrice
     ) {}
 
-    private final PitchRepository pitchRepo;
-    private final DurationOptionRepository durationRepo;
-    private final PricingRuleRepository pricingRepo;
+    private final CatalogCache catalog;
 
-    public PublicPriceController(PitchRepository pitchRepo,
-                                 DurationOptionRepository durationRepo,
-                                 PricingRuleRepository pricingRepo) {
-        this.pitchRepo = pitchRepo;
-        this.durationRepo = durationRepo;
-        this.pricingRepo = pricingRepo;
+    public PublicPriceController(CatalogCache catalog) {
+        this.catalog = catalog;
     }
 
     @GetMapping("/pitches/{pitchId}/price")
@@ -42,13 +34,13 @@ public class PublicPriceController {
                                @RequestParam(required = false) Integer totalMinutes) {
 
         // pitch var mı?
-        Pitch pitch = pitchRepo.findById(pitchId)
+        Pitch pitch = catalog.pitch(pitchId)
                 .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + pitchId));
 
-        DurationOption baseOpt = durationRepo.findByMinutes(baseMinutes)
+        DurationOption baseOpt = catalog.duration(baseMinutes)
                 .orElseThrow(() -> new IllegalArgumentException("DurationOption not found: " + baseMinutes));
 
-        PricingRule pr = pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(pitch.getId(), baseOpt.getId())
+        PricingRule pr = catalog.activePrice(pitch.getId(), baseOpt.getId())
                 .orElseThrow(() -> new IllegalStateException("Pricing not set for baseMinutes=" + baseMinutes));
 
         int tm = (totalMinutes == null || totalMinutes <= 0) ? baseMinutes : totalMinutes;
@@ -8,12 +8,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.Instant;
 
 @Entity
-@Table(
-        name = "app_users",
-        indexes = {
-                @Index(name = "ix_app_users_username", columnList = "username")
-        }
-)
+// username unique (app_users_username_key) aramalar için yeterli; ayrı index yok
+@Table(name = "app_users")
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class AppUser {
@@ -8,9 +8,20 @@ import java.time.Instant;
 
 @Getter @Setter
 @Entity
-@Table(name="audit_logs")
+@Table(
+        name = "audit_logs",
+        indexes = {
+                // V6: keyset (created_at, id) sayfalama
+                @Index(name = "ix_audit_created", columnList = "created_at, id"),
+                @Index(name = "ix_audit_actor_created", columnList = "actor_user_id, created_at, id"),
+                @Index(name = "ix_audit_entity_created", columnList = "entity_type, entity_id, created_at, id")
+        }
+)
 public class AuditLog {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // sequence (50'lik blok): save() anında insert atmaz, flush'ta batch'e girer
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_seq")
+    @SequenceGenerator(name = "audit_logs_seq", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="actor_user_id")
@@ -13,8 +13,10 @@ import java.util.Locale;
                 // ✅ aynı owner altında aynı isim (case-insensitive) tekrar eklenemez
                 @UniqueConstraint(name = "uk_facilities_owner_name_key", columnNames = {"owner_user_id", "name_key"})
         },
+        // owner_user_id aramaları unique index'in ilk kolonunu kullanır
         indexes = {
-                @Index(name = "ix_facilities_owner", columnList = "owner_user_id")
+                // ✅ public listede isim öneki araması (name_key like 'abc%')
+                @Index(name = "ix_facilities_name_key", columnList = "name_key")
         }
 )
 @Getter @Setter
@@ -32,7 +34,8 @@ public class Facility {
     private String name;
 
     // ✅ normalize edilmiş anahtar: trim + lower + çoklu boşluğu tek boşluk
-    @Column(name = "name_key", nullable = false, length = 120)
+    // C collation: btree index LIKE 'önek%' için kullanılabilsin (değer zaten lower-case)
+    @Column(name = "name_key", nullable = false, length = 120, columnDefinition = "varchar(120) collate \"C\"")
     private String nameKey;
 
     @Column(length = 255)
@@ -6,14 +6,11 @@ import lombok.*;
 @Entity
 @Table(
         name = "facility_slots",
+        // facility_id aramaları unique index'in ilk kolonunu kullanır
         uniqueConstraints = @UniqueConstraint(
                 name = "uk_facility_slot",
                 columnNames = {"facility_id", "start_minute", "duration_minutes"}
-        ),
-        indexes = {
-                @Index(name = "ix_slots_facility", columnList = "facility_id"),
-                @Index(name = "ix_slots_active", columnList = "active")
-        }
+        )
 )
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor @Builder
@@ -14,7 +14,6 @@ import java.time.Instant;
                 columnNames = {"facility_id", "user_id"}
         ),
         indexes = {
-                @Index(name = "ix_membership_facility", columnList = "facility_id"),
                 @Index(name = "ix_membership_user", columnList = "user_id"),
                 @Index(name = "ix_membership_status", columnList = "status")
         }
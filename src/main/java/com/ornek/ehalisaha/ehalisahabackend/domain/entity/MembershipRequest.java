@@ -14,9 +14,9 @@ import java.time.Instant;
                 columnNames = {"facility_id", "user_id"}
         ),
         indexes = {
-                @Index(name = "ix_mreq_facility", columnList = "facility_id"),
-                @Index(name = "ix_mreq_user", columnList = "user_id"),
-                @Index(name = "ix_mreq_status", columnList = "status")
+                // V1__init.sql: owner'ın bekleyen istekleri (facility + status)
+                @Index(name = "idx_mr_fac_status", columnList = "facility_id, status"),
+                @Index(name = "ix_mreq_user", columnList = "user_id")
         }
 )
 @Getter @Setter
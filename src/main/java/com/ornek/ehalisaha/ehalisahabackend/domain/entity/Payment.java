@@ -20,8 +20,10 @@ import java.time.Instant;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class Payment {
 
+    // sequence (50'lik blok): booking'deki diğer insert'lerle aynı flush / batch'te gider
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="reservation_id", nullable = false)
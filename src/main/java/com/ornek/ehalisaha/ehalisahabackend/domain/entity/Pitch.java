@@ -11,10 +11,8 @@ import java.util.Locale;
         name = "pitches",
         uniqueConstraints = {
                 // ✅ aynı facility içinde aynı isim (case-insensitive) tekrar eklenemez
+                // facility_id aramaları da bu index'i kullanır
                 @UniqueConstraint(name = "uk_pitches_facility_name_key", columnNames = {"facility_id", "name_key"})
-        },
-        indexes = {
-                @Index(name = "ix_pitches_facility", columnList = "facility_id")
         }
 )
 @Getter @Setter
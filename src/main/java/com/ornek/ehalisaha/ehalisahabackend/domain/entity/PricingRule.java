@@ -13,7 +13,6 @@ import java.math.BigDecimal;
                 columnNames = {"pitch_id", "duration_option_id"}
         ),
         indexes = {
-                @Index(name = "ix_pricing_pitch", columnList = "pitch_id"),
                 @Index(name = "ix_pricing_duration", columnList = "duration_option_id")
         }
 )
@@ -7,14 +7,19 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 
+// V5: tablo start_time'a göre aylık partition'lı; DB'deki PK (id, start_time), id sequence'ten tekil
 @Entity
 @Table(
         name = "reservations",
         indexes = {
-                @Index(name = "ix_res_pitch", columnList = "pitch_id"),
                 @Index(name = "ix_res_membership", columnList = "membership_id"),
                 @Index(name = "ix_res_start", columnList = "start_time"),
-                @Index(name = "ix_res_end", columnList = "end_time")
+                // V1__init.sql ile aynı isim: saha + başlangıç aralığı (ledgerForDay)
+                @Index(name = "idx_res_pitch_time", columnList = "pitch_id, start_time"),
+                // V4: INCLUDE / WHERE kısımları migration'da (JPA ifade edemiyor)
+                @Index(name = "ix_res_pitch_end", columnList = "pitch_id, end_time"),
+                @Index(name = "ix_res_pitch_id", columnList = "pitch_id, id"),
+                @Index(name = "ix_res_confirmed_end", columnList = "end_time, id")
         }
 )
 @Getter @Setter
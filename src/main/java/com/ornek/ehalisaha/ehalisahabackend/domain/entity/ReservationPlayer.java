@@ -14,8 +14,10 @@ import lombok.*;
 @NoArgsConstructor @AllArgsConstructor @Builder
 public class ReservationPlayer {
 
+    // sequence (50'lik blok): insert'ler flush'ta JDBC batch olarak gider (IDENTITY batch'lenemez)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_players_seq")
+    @SequenceGenerator(name = "reservation_players_seq", sequenceName = "reservation_players_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="reservation_id", nullable = false)
@@ -0,0 +1,30 @@
+package com.ornek.ehalisaha.ehalisahabackend.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Cluster genelinde job başına son çalışma kaydı (JobCoordinator).
+ * Satır sadece JobCoordinator tarafından native SQL ile güncellenir.
+ */
+@Entity
+@Table(name = "scheduled_job_runs")
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor @Builder
+public class ScheduledJobRun {
+
+    @Id
+    @Column(name = "job_name", length = 80)
+    private String jobName;
+
+    @Column(name = "last_started_at", nullable = false)
+    private Instant lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private Instant lastFinishedAt;
+
+    @Column(name = "last_node", length = 80)
+    private String lastNode;
+}
@@ -0,0 +1,16 @@
+package com.ornek.ehalisaha.ehalisahabackend.dto;
+
+import java.time.Instant;
+
+/**
+ * Audit sorgu API'si satırı (entity yerine).
+ */
+public record AuditLogDto(
+        Long id,
+        Long actorUserId,
+        String action,
+        String entityType,
+        Long entityId,
+        String detail,
+        Instant createdAt
+) {}
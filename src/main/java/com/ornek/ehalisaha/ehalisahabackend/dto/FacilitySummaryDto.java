@@ -0,0 +1,11 @@
+package com.ornek.ehalisaha.ehalisahabackend.dto;
+
+/**
+ * Public tesis listesi satırı (entity yerine; owner id / createdAt dışarı verilmez).
+ */
+public record FacilitySummaryDto(
+        Long id,
+        String name,
+        String address,
+        Boolean active
+) {}
@@ -0,0 +1,11 @@
+package com.ornek.ehalisaha.ehalisahabackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record LoginRequest(
+        @NotBlank(message = "username is required")
+        String username,
+
+        @NotBlank(message = "password is required")
+        String password
+) {}
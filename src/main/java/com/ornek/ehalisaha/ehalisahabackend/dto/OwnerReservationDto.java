@@ -0,0 +1,31 @@
+package com.ornek.ehalisaha.ehalisahabackend.dto;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Owner rezervasyon listesi satırı (ReservationRepository.findOwnerList projeksiyonu).
+ */
+public record OwnerReservationDto(
+        Long id,
+        Long facilityId,
+        Long pitchId,
+        String pitchName,
+        Instant startTime,
+        Instant endTime,
+        ReservationStatus status,
+        String totalPrice,
+        PaymentStatus paymentStatus
+) {
+    // JPQL "select new": ödeme yoksa (left join) INIT, fiyat düz metin
+    public OwnerReservationDto(Long id, Long facilityId, Long pitchId, String pitchName, Instant startTime,
+                               Instant endTime, ReservationStatus status, BigDecimal totalPrice,
+                               PaymentStatus paymentStatus) {
+        this(id, facilityId, pitchId, pitchName, startTime, endTime, status,
+                totalPrice != null ? totalPrice.toPlainString() : "0",
+                paymentStatus != null ? paymentStatus : PaymentStatus.INIT);
+    }
+}
@@ -0,0 +1,27 @@
+package com.ornek.ehalisaha.ehalisahabackend.dto;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Haftalık tekrar eden rezervasyon: firstStartTime ve sonraki (weeks - 1) hafta aynı saat (tesis saatiyle).
+ */
+public record ReservationSeriesRequest(
+        @NotNull Long pitchId,
+        @NotNull Instant firstStartTime,
+        @NotNull @Min(value = 2, message = "weeks must be >= 2")
+        @Max(value = 52, message = "weeks must be <= 52")
+        Integer weeks,
+        Integer durationMinutes,              // null => slot duration (default)
+        @NotNull PaymentMethod paymentMethod,
+        @Valid @Size(min = 1) List<ReservationPlayerAddRequest> players,
+        Boolean shuttle,
+        Boolean skipConflicts                 // true => dolu haftalar atlanır, diğerleri oluşturulur
+) {}
@@ -0,0 +1,10 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+/**
+ * Katalog verisi (tesis, saha, slot, fiyat) değişti; cache'ler ilgili kayıtları atar.
+ * facilityId / pitchId null olabilir (sadece dolu olan tarafı etkiler).
+ */
+public record CatalogChangedEvent(
+        Long facilityId,
+        Long pitchId
+) implements ClusterEvent {}
@@ -0,0 +1,10 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+/**
+ * İşaret arayüzü: bu event'ler local listener'lara ek olarak commit sonrası
+ * PostgreSQL NOTIFY ile diğer node'lara da taşınır (bkz. PgNotifyEventBus).
+ *
+ * Uygulayan tipler JSON'a çevrilebilir, küçük record'lar olmalı (NOTIFY payload sınırı ~8 KB).
+ */
+public interface ClusterEvent {
+}
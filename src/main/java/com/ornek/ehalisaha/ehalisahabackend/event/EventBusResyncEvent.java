@@ -0,0 +1,8 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+/**
+ * LISTEN bağlantısı koptu ve yeniden kuruldu (ya da başka node NOTIFY'a sığmayan bir event için resync istedi):
+ * aradaki değişiklikler kaçmış olabilir. Sadece local yayınlanır; bellekteki türetilmiş veriyi tutanlar
+ * (occupancy index vb.) kendini temizlemeli. nodeId: resync'i tetikleyen node.
+ */
+public record EventBusResyncEvent(String nodeId) {}
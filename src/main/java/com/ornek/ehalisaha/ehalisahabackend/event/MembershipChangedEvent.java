@@ -0,0 +1,13 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.MembershipStatus;
+
+/**
+ * Üyelik oluşturuldu / durumu değişti (ör. owner onayı). Commit sonrası yayınlanır.
+ */
+public record MembershipChangedEvent(
+        Long membershipId,
+        Long facilityId,
+        Long userId,
+        MembershipStatus status
+) implements ClusterEvent {}
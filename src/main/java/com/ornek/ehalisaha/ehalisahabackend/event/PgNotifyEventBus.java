@@ -0,0 +1,281 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Node'lar arası event taşıma: PostgreSQL LISTEN/NOTIFY (ek broker yok).
+ *
+ * - Giden: {@link ClusterEvent}'ler transaction boyunca toplanır, commit'ten hemen önce aynı transaction'da
+ *   tek statement ile pg_notify edilir (20 haftalık seri = 20 event, 1 statement).
+ *   Postgres NOTIFY'ı sadece commit olursa teslim eder; rollback olan iş hiçbir node'a gitmez.
+ * - Gelen: her node'da ayrı bir thread, pool dışı tek bağlantıyla LISTEN yapar.
+ *   Başka node'dan gelen event local olarak yeniden yayınlanır. Aynı listener'lar
+ *   (occupancy index, SSE hub, cache'ler) transaction dışında hemen çalışır.
+ * - Kendi node'unun mesajları atlanır (local listener'lar zaten çalıştı).
+ * - Bağlantı koparsa (ya da dinleme döngüsünde beklenmedik bir hata olursa) yeniden bağlanır ve
+ *   {@link EventBusResyncEvent} yayınlar (arada kaçan mesaj olabilir). Local bir listener'ın hatası
+ *   loglanır, thread'i durdurmaz.
+ * - 8000 byte'ı aşan event gönderilemez: yerine küçük bir "resync" zarfı gider, diğer node'lar
+ *   türetilmiş verilerini temizler (bayat kalmasınlar). Loglanır ve sayılır.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.events.pg-notify", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PgNotifyEventBus implements SmartLifecycle {
+
+    static final String CHANNEL = "eh_events";
+
+    // NOTIFY payload sınırı 8000 byte
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    /** Büyük event yerine giden zarf tipi: alan node local {@link EventBusResyncEvent} yayınlar. */
+    static final String RESYNC_TYPE = "Resync";
+
+    private static final Logger log = LoggerFactory.getLogger(PgNotifyEventBus.class);
+
+    /** Gelen mesajda kabul edilen tipler (payload'dan keyfi sınıf yüklenmesin). */
+    static final Map<String, Class<? extends ClusterEvent>> TYPES = List.of(
+            ReservationChangedEvent.class,
+            MembershipChangedEvent.class,
+            PricingChangedEvent.class,
+            CatalogChangedEvent.class
+    ).stream().collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    record Envelope(String node, String type, JsonNode payload) {}
+
+    // uzaktan gelen event'i yeniden yayınlarken tekrar NOTIFY etme (ping-pong olmasın)
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper json;
+    private final ApplicationEventPublisher publisher;
+    private final Counter oversizedCounter;
+    private final Counter listenerErrorCounter;
+
+    private final String nodeId;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PgNotifyEventBus(
+            JdbcTemplate jdbc,
+            ObjectMapper json,
+            ApplicationEventPublisher publisher,
+            MeterRegistry meters,
+            @Value("${app.node-id:}") String nodeId,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username:}") String username,
+            @Value("${spring.datasource.password:}") String password,
+            @Value("${app.events.pg-notify.poll-timeout-ms:5000}") int pollTimeoutMs,
+            @Value("${app.events.pg-notify.reconnect-delay-ms:3000}") long reconnectDelayMs
+    ) {
+        this.jdbc = jdbc;
+        this.json = json;
+        this.publisher = publisher;
+        this.oversizedCounter = Counter.builder("ehalisaha.events.oversized")
+                .description("NOTIFY sınırını aşıp resync zarfıyla gönderilen event'ler").register(meters);
+        this.listenerErrorCounter = Counter.builder("ehalisaha.events.listener_errors")
+                .description("Uzaktan gelen event'i işlerken hata veren local listener'lar").register(meters);
+        this.nodeId = (nodeId == null || nodeId.isBlank()) ? UUID.randomUUID().toString() : nodeId;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // ---------- giden ----------
+
+    @EventListener
+    public void publish(ClusterEvent e) {
+        if (REPLAYING.get()) return;
+
+        String payload = json.writeValueAsString(
+                new Envelope(nodeId, e.getClass().getSimpleName(), json.valueToTree(e)));
+
+        // çok büyükse olduğu gibi gönderme (NOTIFY hatası asıl transaction'ı düşürmesin):
+        // diğer node'lar en azından türetilmiş verilerini temizlesin
+        int bytes = payload.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > MAX_PAYLOAD_BYTES) {
+            oversizedCounter.increment();
+            log.warn("{} payload is {} bytes (limit {}); sending resync envelope instead",
+                    e.getClass().getSimpleName(), bytes, MAX_PAYLOAD_BYTES);
+            payload = json.writeValueAsString(new Envelope(nodeId, RESYNC_TYPE, null));
+        }
+
+        // transaction yoksa (ya da bu transaction'ın NOTIFY'ı zaten gittiyse) hemen gönder
+        Pending pending = pending();
+        if (pending == null) {
+            send(List.of(payload));
+        } else {
+            pending.payloads.add(payload);
+        }
+    }
+
+    /** Transaction'a bağlı kuyruk; ilk event'te kaydolur, beforeCommit'te tek statement ile boşalır. */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        Pending p = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (p == null) {
+            p = new Pending();
+            TransactionSynchronizationManager.bindResource(this, p);
+            TransactionSynchronizationManager.registerSynchronization(p);
+        }
+        return p.flushed ? null : p;
+    }
+
+    private final class Pending implements TransactionSynchronization {
+        final List<String> payloads = new ArrayList<>();
+        boolean flushed;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flushed = true;
+            send(payloads);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PgNotifyEventBus.this);
+        }
+    }
+
+    private void send(List<String> payloads) {
+        if (payloads.isEmpty()) return;
+        if (payloads.size() == 1) {
+            jdbc.query("select pg_notify(?, ?)", rs -> null, CHANNEL, payloads.get(0));
+        } else {
+            jdbc.query("select pg_notify(?, p) from unnest(cast(? as text[])) p",
+                    rs -> null, CHANNEL, payloads.toArray(new String[0]));
+        }
+    }
+
+    // ---------- gelen ----------
+
+    void dispatch(String raw) {
+        Envelope env;
+        ClusterEvent event;
+        try {
+            env = json.readValue(raw, Envelope.class);
+            if (env == null || nodeId.equals(env.node())) return;
+
+            if (RESYNC_TYPE.equals(env.type())) {
+                replay(new EventBusResyncEvent(env.node()));
+                return;
+            }
+            Class<? extends ClusterEvent> type = TYPES.get(env.type());
+            if (type == null) return; // yeni sürüm node'undan bilinmeyen tip: yok say
+            event = json.treeToValue(env.payload(), type);
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed cluster event: {}", ex.toString());
+            return; // bozuk mesaj listener thread'ini öldürmesin
+        }
+
+        replay(event);
+    }
+
+    private void replay(Object event) {
+        REPLAYING.set(true);
+        try {
+            publisher.publishEvent(event);
+        } catch (RuntimeException ex) {
+            // tek listener'ın hatası diğer node'lardan gelen sonraki event'leri kesmesin
+            listenerErrorCounter.increment();
+            log.error("Local listener failed for remote {}", event.getClass().getSimpleName(), ex);
+        } finally {
+            REPLAYING.remove();
+        }
+    }
+
+    private void listenLoop() {
+        boolean first = true;
+        while (running) {
+            try (Connection c = DriverManager.getConnection(url, username, password)) {
+                try (Statement st = c.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                if (!first) replay(new EventBusResyncEvent(nodeId));
+                first = false;
+
+                PGConnection pg = c.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] ns = pg.getNotifications(pollTimeoutMs);
+                    if (ns == null) continue;
+                    for (PGNotification n : ns) {
+                        dispatch(n.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) return;
+                log.warn("pg-listen connection lost, reconnecting in {} ms", reconnectDelayMs, ex);
+                first = false; // bağlantı düştü: sonraki bağlantıda resync
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // ---------- lifecycle ----------
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        listener = Thread.ofPlatform().name("pg-listen").daemon(true).start(this::listenLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) listener.interrupt();
+        listener = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
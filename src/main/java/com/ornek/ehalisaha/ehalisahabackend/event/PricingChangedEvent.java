@@ -0,0 +1,10 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+/**
+ * Bir pitch'in fiyat kuralı eklendi / güncellendi. Commit sonrası yayınlanır.
+ */
+public record PricingChangedEvent(
+        Long pricingRuleId,
+        Long facilityId,
+        Long pitchId
+) implements ClusterEvent {}
@@ -0,0 +1,32 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+
+import java.time.Instant;
+
+/**
+ * Bir rezervasyon oluşturulduğunda / durumu değiştiğinde yayınlanır.
+ * Dinleyiciler (occupancy index, owner bildirimleri vb.) commit sonrası çalışır.
+ *
+ * action: audit ile aynı isimler (RESERVATION_CREATE, CASH_PAID, RESERVATION_CANCEL).
+ * facilityId / ownerUserId: bildirim fan-out'u DB'ye gitmeden yapılabilsin diye event'te taşınır.
+ * Ödeme değişiklikleri de (CASH_PAID) bu event ile taşınır.
+ */
+public record ReservationChangedEvent(
+        Long reservationId,
+        Long facilityId,
+        Long ownerUserId,
+        Long pitchId,
+        Instant startTime,
+        Instant endTime,
+        ReservationStatus status,
+        String action
+) implements ClusterEvent {
+    public static ReservationChangedEvent of(Reservation r, Long facilityId, Long ownerUserId, String action) {
+        return new ReservationChangedEvent(
+                r.getId(), facilityId, ownerUserId, r.getPitchId(),
+                r.getStartTime(), r.getEndTime(), r.getStatus(), action
+        );
+    }
+}
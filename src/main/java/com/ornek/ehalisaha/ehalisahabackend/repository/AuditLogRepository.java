@@ -1,6 +1,68 @@
 package com.ornek.ehalisaha.ehalisahabackend.repository;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.AuditLog;
+import com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {}
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Audit sorguları: yeniden eskiye keyset, (created_at, id) < (:beforeAt, :beforeId).
+ * Her erişim yolu ayrı sorgu: "(:x is null or ...)" generic plan'da index'i eşleştiremez (V6).
+ * Aralık: from <= created_at, üst sınır cursor (ilk sayfada (to, 0) → created_at < to).
+ */
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    /** ix_audit_created */
+    @Query("""
+            select new com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto(
+                a.id, a.actorUserId, a.action, a.entityType, a.entityId, a.detail, a.createdAt)
+            from AuditLog a
+            where a.createdAt >= :from
+              and (a.createdAt, a.id) < (:beforeAt, :beforeId)
+            order by a.createdAt desc, a.id desc
+            """)
+    List<AuditLogDto> findPage(@Param("from") Instant from,
+                               @Param("beforeAt") Instant beforeAt,
+                               @Param("beforeId") long beforeId,
+                               Limit limit);
+
+    /** ix_audit_actor_created */
+    @Query("""
+            select new com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto(
+                a.id, a.actorUserId, a.action, a.entityType, a.entityId, a.detail, a.createdAt)
+            from AuditLog a
+            where a.actorUserId = :actorUserId
+              and a.createdAt >= :from
+              and (a.createdAt, a.id) < (:beforeAt, :beforeId)
+            order by a.createdAt desc, a.id desc
+            """)
+    List<AuditLogDto> findPageByActor(@Param("actorUserId") Long actorUserId,
+                                      @Param("from") Instant from,
+                                      @Param("beforeAt") Instant beforeAt,
+                                      @Param("beforeId") long beforeId,
+                                      Limit limit);
+
+    /** ix_audit_entity_created; tek kaydın geçmişi küçük: actor (varsa) sadece filtre. */
+    @Query("""
+            select new com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto(
+                a.id, a.actorUserId, a.action, a.entityType, a.entityId, a.detail, a.createdAt)
+            from AuditLog a
+            where a.entityType = :entityType and a.entityId = :entityId
+              and (:actorUserId is null or a.actorUserId = :actorUserId)
+              and a.createdAt >= :from
+              and (a.createdAt, a.id) < (:beforeAt, :beforeId)
+            order by a.createdAt desc, a.id desc
+            """)
+    List<AuditLogDto> findPageByEntity(@Param("entityType") String entityType,
+                                       @Param("entityId") Long entityId,
+                                       @Param("actorUserId") Long actorUserId,
+                                       @Param("from") Instant from,
+                                       @Param("beforeAt") Instant beforeAt,
+                                       @Param("beforeId") long beforeId,
+                                       Limit limit);
+}
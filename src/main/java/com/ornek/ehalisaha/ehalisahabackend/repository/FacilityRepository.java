@@ -1,6 +1,8 @@
 package com.ornek.ehalisaha.ehalisahabackend.repository;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
+import com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -17,4 +19,20 @@ public interface FacilityRepository extends JpaRepository<Facility, Long> {
 
     boolean existsByOwnerUserIdAndNameKey(Long ownerUserId, String nameKey);
 
+    /**
+     * Public liste: keyset (id > afterId), entity yerine DTO.
+     * namePrefix: normalize edilmiş + LIKE için escape edilmiş önek ("arena%"), null = filtre yok.
+     */
+    @Query("""
+            select new com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto(f.id, f.name, f.address, f.active)
+            from Facility f
+            where f.id > :afterId
+              and (:active is null or f.active = :active)
+              and (:namePrefix is null or f.nameKey like :namePrefix escape '\\')
+            order by f.id
+            """)
+    List<FacilitySummaryDto> findSummaries(@Param("afterId") long afterId,
+                                           @Param("active") Boolean active,
+                                           @Param("namePrefix") String namePrefix,
+                                           Limit limit);
 }
@@ -2,7 +2,11 @@ package com.ornek.ehalisaha.ehalisahabackend.repository;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.MatchVideo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +14,17 @@ import java.util.Optional;
 public interface MatchVideoRepository extends JpaRepository<MatchVideo, Long> {
     Optional<MatchVideo> findByReservationId(Long reservationId);
     List<MatchVideo> findByReservationIdIn(Collection<Long> reservationIds);
+
+    /** Verilen rezervasyonlar için PUBLISHED video kaydı; zaten olanlar atlanır (uk_video_reservation). */
+    @Modifying
+    @Query(value = """
+        insert into match_videos (reservation_id, status, storage_url, published_at, created_at)
+        select r.id, 'PUBLISHED', concat(:urlPrefix, r.id, '.mp4'), :now, :now
+        from reservations r
+        where r.id in (:reservationIds)
+        on conflict (reservation_id) do nothing
+    """, nativeQuery = true)
+    int insertPublishedIfMissing(@Param("reservationIds") Collection<Long> reservationIds,
+                                 @Param("urlPrefix") String urlPrefix,
+                                 @Param("now") Instant now);
 }
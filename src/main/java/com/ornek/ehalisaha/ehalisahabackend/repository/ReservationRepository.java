@@ -2,27 +2,73 @@ package com.ornek.ehalisaha.ehalisahabackend.repository;
 
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.dto.OwnerReservationDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
-    List<Reservation> findByPitchIdInAndStartTimeBetween(List<Long> pitchIds, Instant from, Instant to);
+    /** ledgerDigest satırı: gün başına yeni (id > afterId) sayısı ve o günün max id'si */
+    interface LedgerDigestRow {
+        LocalDate getDay();
+        long getNewCount();
+        Long getMaxId();
+    }
+
+    /**
+     * ledgerForDay / streamLedger satırı (native projection). Tesis varsa en az bir satır döner:
+     * aralıkta rezervasyon yoksa id null (sadece ownerUserId dolu). players: json_agg dizisi (metin).
+     */
+    interface LedgerRow {
+        Long getOwnerUserId();
+        Long getId();
+        Long getPitchId();
+        String getPitchName();
+        Long getMembershipId();
+        Long getMemberUserId();
+        String getMemberUsername();
+        Instant getStartTime();
+        Instant getEndTime();
+        String getStatus();
+        String getPlayers();
+    }
+
+    /** findFreeSlots satırı (native projection) */
+    interface FreeSlotRow {
+        Long getFacilityId();
+        String getFacilityName();
+        Long getPitchId();
+        String getPitchName();
+        Instant getStartTime();
+        Instant getEndTime();
+        BigDecimal getPrice();
+    }
 
     List<Reservation> findByPitchIdAndStartTimeLessThanAndEndTimeGreaterThan(
             Long pitchId, Instant end, Instant start
     );
 
+    /**
+     * Overlap sorguları: startTime > :start - 1 day alt sınırı sonucu değiştirmez (süre en fazla 1 gün,
+     * ck_res_max_duration) ama aylık partition'larda sadece pencerenin ayları okunur (partition pruning).
+     */
     @Query("""
         select r from Reservation r
         where r.pitchId = :pitchId
           and r.status <> :excludedStatus
           and r.startTime < :end
           and r.endTime > :start
+          and r.startTime > cast(:start as Instant) - 1 day
     """)
     List<Reservation> findOverlappingForPitch(
             @Param("pitchId") Long pitchId,
@@ -37,6 +83,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
           and r.status <> :excludedStatus
           and r.startTime < :end
           and r.endTime > :start
+          and r.startTime > cast(:start as Instant) - 1 day
     """)
     List<Reservation> findOverlappingForPitches(
             @Param("pitchIds") List<Long> pitchIds,
@@ -45,8 +92,125 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("excludedStatus") ReservationStatus excludedStatus
     );
 
+    /**
+     * Owner rezervasyon listesi: rezervasyon + saha + ödeme durumu tek sorguda, entity yüklenmez.
+     * Satır sayısı kaç olursa olsun tek statement (OwnerReservationListQueryCountIT).
+     * facilityId / pitchId null = filtre yok; seçicilik owner + gün penceresinden gelir.
+     */
+    @Query("""
+        select new com.ornek.ehalisaha.ehalisahabackend.dto.OwnerReservationDto(
+            r.id, p.facilityId, r.pitchId, p.name, r.startTime, r.endTime, r.status, r.totalPrice, pay.status)
+        from Reservation r
+        join Pitch p on p.id = r.pitchId
+        join Facility f on f.id = p.facilityId
+        left join Payment pay on pay.reservationId = r.id
+        where f.ownerUserId = :ownerId
+          and (:facilityId is null or f.id = :facilityId)
+          and (:pitchId is null or p.id = :pitchId)
+          and r.status <> :excludedStatus
+          and r.startTime < :end
+          and r.endTime > :start
+          and r.startTime > cast(:start as Instant) - 1 day
+        order by r.startTime, r.id
+    """)
+    List<OwnerReservationDto> findOwnerList(
+            @Param("ownerId") Long ownerId,
+            @Param("facilityId") Long facilityId,
+            @Param("pitchId") Long pitchId,
+            @Param("start") Instant start,
+            @Param("end") Instant end,
+            @Param("excludedStatus") ReservationStatus excludedStatus
+    );
+
     List<Reservation> findByStatusAndEndTimeBefore(ReservationStatus status, Instant t);
 
+    /**
+     * Bitmiş CONFIRMED rezervasyonlardan en fazla :limit tanesini tek statement ile COMPLETED yapar.
+     * skip locked: aynı anda çalışan başka node / kullanıcı işlemi kilitli satırı tutuyorsa beklemeden geçer.
+     * order by end_time, id: partial ix_res_confirmed_end sırasıyla okunur (sort yok, ilk :limit satırda durur).
+     * start_time < :now gelecek ayların partition'larını eler; (id, start_time) ile PK'den tek partition'a gidilir.
+     * (RETURNING satır döndürdüğü için @Modifying değil; çağıran transaction açmalı)
+     */
+    @Query(value = """
+        update reservations r
+        set status = 'COMPLETED'
+        where (r.id, r.start_time) in (
+            select x.id, x.start_time
+            from reservations x
+            where x.status = 'CONFIRMED'
+              and x.end_time < :now
+              and x.start_time < :now
+            order by x.end_time, x.id
+            limit :limit
+            for update skip locked
+        )
+        returning r.id
+    """, nativeQuery = true)
+    List<Long> completeEndedBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * :cutoff'tan önce başlamış, durumu :statuses içindeki rezervasyonlardan en fazla :limit tanesini
+     * oyuncu ve ödeme satırlarıyla birlikte *_archive tablolarına taşır (tek statement, skip locked).
+     * match_videos yerinde kalır (id'ler arşivde de tekil). Çağıran transaction açmalı.
+     */
+    @Query(value = """
+        with picked as (
+            select x.id, x.start_time
+            from reservations x
+            where x.start_time < :cutoff
+              and x.status in (:statuses)
+            order by x.start_time, x.id
+            limit :limit
+            for update skip locked
+        ),
+        moved as (
+            delete from reservations r
+            using picked
+            where r.id = picked.id and r.start_time = picked.start_time
+            returning r.*
+        ),
+        moved_reservations as (
+            insert into reservations_archive select * from moved
+        ),
+        players as (
+            delete from reservation_players p
+            using moved m
+            where p.reservation_id = m.id
+            returning p.*
+        ),
+        moved_players as (
+            insert into reservation_players_archive select * from players
+        ),
+        pays as (
+            delete from payments p
+            using moved m
+            where p.reservation_id = m.id
+            returning p.*
+        ),
+        moved_payments as (
+            insert into payments_archive select * from pays
+        )
+        select m.id from moved m
+    """, nativeQuery = true)
+    List<Long> archiveEndedBatch(@Param("cutoff") Instant cutoff,
+                                 @Param("statuses") List<String> statuses,
+                                 @Param("limit") int limit);
+
+    /** [from, to] aralığındaki ayların partition'larını açar (V5: reservations_ensure_partitions). */
+    @Query(value = "select reservations_ensure_partitions(:from, :to)", nativeQuery = true)
+    int ensurePartitions(@Param("from") Instant from, @Param("to") Instant to);
+
+    /** Arşive gidecek en eski satırdan :cutoff'a kadar yıllık arşiv partition'ları. */
+    @Query(value = """
+        select reservations_archive_ensure_partitions(
+                   coalesce((select min(start_time) from reservations), :cutoff), :cutoff)
+    """, nativeQuery = true)
+    int ensureArchivePartitions(@Param("cutoff") Instant cutoff);
+
+    /** :before'dan önce biten ve boşalmış aylık partition'ları düşürür. */
+    @Query(value = "select reservations_drop_empty_partitions(:before)", nativeQuery = true)
+    int dropEmptyPartitions(@Param("before") Instant before);
+
     @Query("""
         select r.id
         from Reservation r
@@ -79,6 +243,29 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                        @Param("afterId") Long afterId,
                                        @Param("excludedStatus") ReservationStatus excludedStatus);
 
+    /**
+     * Çakışma kontrolünü no_overlap_reservations (GiST exclusion) yapar: ön sorgu yok.
+     * Çakışırsa satır eklenmez ve boş liste döner (on conflict do nothing: hata / abort edilmiş transaction yok).
+     * Eşzamanlı çakışan insert varsa Postgres onun sonucunu bekler; sonra karar verir.
+     */
+    @Query(value = """
+        insert into reservations
+            (pitch_id, membership_id, start_time, end_time, status, total_price, shuttle_requested, created_at)
+        values (:pitchId, :membershipId, :start, :end, :status, :totalPrice, :shuttle, :createdAt)
+        on conflict do nothing
+        returning id
+    """, nativeQuery = true)
+    List<Long> insertIfFree(
+            @Param("pitchId") Long pitchId,
+            @Param("membershipId") Long membershipId,
+            @Param("start") Instant start,
+            @Param("end") Instant end,
+            @Param("status") String status,
+            @Param("totalPrice") BigDecimal totalPrice,
+            @Param("shuttle") boolean shuttle,
+            @Param("createdAt") Instant createdAt
+    );
+
     @Query("""
     select (count(r) > 0)
     from Reservation r
@@ -86,6 +273,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
       and r.status <> :excludedStatus
       and r.startTime < :end
       and r.endTime > :start
+      and r.startTime > cast(:start as Instant) - 1 day
 """)
     boolean existsOverlappingForPitch(
             @Param("pitchId") Long pitchId,
@@ -100,6 +288,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
       and r.status in :activeStatuses
       and r.startTime < :end
       and r.endTime > :start
+      and r.startTime > cast(:start as Instant) - 1 day
 """)
     boolean existsOverlappingForPitchWithStatuses(
             @Param("pitchId") Long pitchId,
@@ -115,6 +304,7 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
       and r.status <> :excludedStatus
       and r.startTime < :end
       and r.endTime > :start
+      and r.startTime > cast(:start as Instant) - 1 day
 """)
     long countOverlappingForPitch(
             @Param("pitchId") Long pitchId,
@@ -123,4 +313,176 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("excludedStatus") ReservationStatus excludedStatus
     );
 
+    /**
+     * Çoklu tesis "boş slot" araması, tek set-based sorgu:
+     * aday (pitch, başlangıç) = aktif pitch × tesis slotları (slot yoksa 00:00-23:00 saatlik) × pencere günleri.
+     * Penceredeki dolu rezervasyonlar bir kez okunur (idx_res_pitch_time), adaylar NOT EXISTS ile elenir.
+     * Sadece fiyatı tanımlı (base slot süresi için) pitch'ler döner; rezervasyon akışıyla aynı kural.
+     */
+    @Query(value = """
+        with fac as (
+            select f.id, f.name
+            from facilities f
+            where f.active = true
+              and (:allFacilities = true or f.id in (:facilityIds))
+        ),
+        pit as (
+            select p.id, p.name, p.facility_id
+            from pitches p
+            join fac on fac.id = p.facility_id
+            where p.active = true
+        ),
+        slots as (
+            select fs.facility_id, fs.start_minute, fs.duration_minutes
+            from facility_slots fs
+            join fac on fac.id = fs.facility_id
+            where fs.active = true
+            union all
+            select fac.id, h * 60, 60
+            from fac cross join generate_series(0, 23) h
+            where not exists (
+                select 1 from facility_slots fs where fs.facility_id = fac.id and fs.active = true
+            )
+        ),
+        days as (
+            select cast(d as date) as day
+            from generate_series(
+                cast(cast(:from as timestamptz) at time zone :tz as date),
+                cast(cast(:to as timestamptz) at time zone :tz as date),
+                interval '1 day'
+            ) d
+        ),
+        busy as materialized (
+            select r.pitch_id, r.start_time, r.end_time
+            from reservations r
+            where r.pitch_id in (select id from pit)
+              and r.status <> 'CANCELLED'
+              and r.start_time < :to
+              and r.end_time > :from
+              and r.start_time > cast(:from as timestamptz) - interval '1 day'
+        ),
+        cand as (
+            select pit.facility_id, pit.id as pitch_id, pit.name as pitch_name,
+                   s.duration_minutes as base_minutes,
+                   (days.day + make_interval(mins => s.start_minute)) at time zone :tz as start_time
+            from pit
+            join slots s on s.facility_id = pit.facility_id
+            cross join days
+            where mod(:minutes, s.duration_minutes) = 0
+        )
+        select c.facility_id as "facilityId",
+               fac.name as "facilityName",
+               c.pitch_id as "pitchId",
+               c.pitch_name as "pitchName",
+               c.start_time as "startTime",
+               c.start_time + make_interval(mins => :minutes) as "endTime",
+               pr.price * (:minutes / c.base_minutes) as "price"
+        from cand c
+        join fac on fac.id = c.facility_id
+        join duration_options d on d.minutes = c.base_minutes
+        join pricing_rules pr on pr.pitch_id = c.pitch_id
+                              and pr.duration_option_id = d.id
+                              and pr.active = true
+        where c.start_time >= :from
+          and c.start_time + make_interval(mins => :minutes) <= :to
+          and not exists (
+              select 1 from busy b
+              where b.pitch_id = c.pitch_id
+                and b.start_time < c.start_time + make_interval(mins => :minutes)
+                and b.end_time > c.start_time
+          )
+        order by c.start_time, pr.price * (:minutes / c.base_minutes), c.pitch_id
+        limit :limit
+    """, nativeQuery = true)
+    List<FreeSlotRow> findFreeSlots(
+            @Param("allFacilities") boolean allFacilities,
+            @Param("facilityIds") List<Long> facilityIds,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("minutes") int minutes,
+            @Param("tz") String tz,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Owner bildirimi için tek aggregate sorgu: tesisin [from, to) aralığında başlayan
+     * rezervasyonları (ledger ile aynı küme) tesis saat dilimindeki güne göre gruplar.
+     */
+    @Query(value = """
+        select cast(r.start_time at time zone :tz as date) as "day",
+               count(*) filter (where r.id > :afterId) as "newCount",
+               max(r.id) as "maxId"
+        from reservations r
+        join pitches p on p.id = r.pitch_id
+        where p.facility_id = :facilityId
+          and r.start_time >= :from
+          and r.start_time < :to
+        group by 1
+        order by 1
+    """, nativeQuery = true)
+    List<LedgerDigestRow> ledgerDigest(
+            @Param("facilityId") Long facilityId,
+            @Param("afterId") Long afterId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("tz") String tz
+    );
+
+    /**
+     * Owner ledger'ı tek sorgu: tesis + saha + rezervasyon + üyelik + kullanıcı, oyuncular json_agg ile.
+     * Tesisten left join: owner kontrolü aynı sonuçtan yapılır (ayrı facility sorgusu yok).
+     * Aralık: [from, to), iptaller dahil. allPitches=false ise sadece pitchId.
+     */
+    String LEDGER_SQL = """
+        select f.owner_user_id as "ownerUserId",
+               r.id as "id",
+               r.pitch_id as "pitchId",
+               p.name as "pitchName",
+               r.membership_id as "membershipId",
+               m.user_id as "memberUserId",
+               u.username as "memberUsername",
+               r.start_time as "startTime",
+               r.end_time as "endTime",
+               r.status as "status",
+               cast((select coalesce(json_agg(json_build_object(
+                                 'id', rp.id, 'fullName', rp.full_name, 'jerseyNo', rp.jersey_no, 'paid', rp.paid)
+                                 order by rp.id), '[]')
+                     from reservation_players rp
+                     where rp.reservation_id = r.id) as text) as "players"
+        from facilities f
+        left join (reservations r join pitches p on p.id = r.pitch_id)
+               on p.facility_id = f.id
+              and (:allPitches or p.id = :pitchId)
+              and r.start_time >= :from
+              and r.start_time < :to
+        left join memberships m on m.id = r.membership_id
+        left join app_users u on u.id = m.user_id
+        where f.id = :facilityId
+        order by r.start_time, r.id
+    """;
+
+    int LEDGER_FETCH_SIZE = 500;
+
+    @Query(value = LEDGER_SQL, nativeQuery = true)
+    List<LedgerRow> ledgerForDay(
+            @Param("facilityId") Long facilityId,
+            @Param("allPitches") boolean allPitches,
+            @Param("pitchId") long pitchId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+
+    /**
+     * ledgerForDay ile aynı sorgu, çok günlük aralık için: forward-only cursor, LEDGER_FETCH_SIZE'lık
+     * parçalarla okunur (transaction içinde tüketilmeli, kapatılmalı). Bellek aralık büyüklüğünden bağımsız.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + LEDGER_FETCH_SIZE))
+    @Query(value = LEDGER_SQL, nativeQuery = true)
+    Stream<LedgerRow> streamLedger(
+            @Param("facilityId") Long facilityId,
+            @Param("allPitches") boolean allPitches,
+            @Param("pitchId") long pitchId,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
 }
@@ -0,0 +1,108 @@
+package com.ornek.ehalisaha.ehalisahabackend.security;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.UserRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * İmzalı (HMAC-SHA256) kısa ömürlü erişim token'ı.
+ *
+ * - Login'de bir kez bcrypt yapılır, sonra token üretilir: eht.{payload}.{imza}
+ * - payload: v1|userId|role|expEpochSec|username  (username pattern'i '|' içeremez)
+ * - Doğrulama tamamen bellekte: DB yok, bcrypt yok. Principal token'dan kurulur.
+ * - app.auth.token-secret (APP_AUTH_TOKEN_SECRET) zorunlu ve tüm node'larda aynı olmalı; boşsa açılış durur.
+ *   Sadece app.auth.allow-random-secret=true iken (tek node dev / test) açılışta rastgele üretilir:
+ *   restart sonrası token'lar geçersiz olur.
+ */
+@Component
+public class AuthTokenService {
+
+    public static final String PREFIX = "eht.";
+    private static final String VERSION = "v1";
+    private static final String ALG = "HmacSHA256";
+
+    public record IssuedToken(String token, Instant expiresAt) {}
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public AuthTokenService(
+            @Value("${app.auth.token-secret:}") String secret,
+            @Value("${app.auth.token-ttl-minutes:120}") long ttlMinutes,
+            @Value("${app.auth.allow-random-secret:false}") boolean allowRandomSecret
+    ) {
+        byte[] k;
+        if (secret == null || secret.isBlank()) {
+            if (!allowRandomSecret) {
+                throw new IllegalStateException(
+                        "app.auth.token-secret (APP_AUTH_TOKEN_SECRET) is required; set app.auth.allow-random-secret=true only for single-node dev");
+            }
+            k = new byte[32];
+            new SecureRandom().nextBytes(k);
+        } else {
+            k = secret.getBytes(StandardCharsets.UTF_8);
+            if (k.length < 32) throw new IllegalArgumentException("app.auth.token-secret must be at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(k, ALG);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+    }
+
+    public IssuedToken issue(AppUserPrincipal p) {
+        Instant exp = Instant.now().plus(ttl);
+        String payload = String.join("|",
+                VERSION, String.valueOf(p.getId()), p.getRole(),
+                String.valueOf(exp.getEpochSecond()), p.getUsername());
+
+        String body = B64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        String sig = B64.encodeToString(sign(body));
+        return new IssuedToken(PREFIX + body + "." + sig, exp);
+    }
+
+    /** Geçerliyse principal, değilse null (bozuk / süresi dolmuş / imza tutmuyor). */
+    public AppUserPrincipal verify(String token) {
+        if (token == null || !token.startsWith(PREFIX)) return null;
+
+        int dot = token.indexOf('.', PREFIX.length());
+        if (dot < 0) return null;
+
+        String body = token.substring(PREFIX.length(), dot);
+        try {
+            byte[] sig = B64D.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sig, sign(body))) return null;
+
+            String[] parts = new String(B64D.decode(body), StandardCharsets.UTF_8).split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) return null;
+
+            long exp = Long.parseLong(parts[3]);
+            if (Instant.now().getEpochSecond() >= exp) return null;
+
+            // parola hash'i token'da yok: principal sadece kimlik + rol taşır
+            return new AppUserPrincipal(Long.parseLong(parts[1]), parts[4], null, UserRole.valueOf(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            return null; // base64 / sayı / enum bozuk
+        }
+    }
+
+    private byte[] sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(ALG);
+            mac.init(key);
+            return mac.doFinal(body.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC not available", ex);
+        }
+    }
+}
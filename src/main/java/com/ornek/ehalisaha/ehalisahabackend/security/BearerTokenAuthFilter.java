@@ -0,0 +1,48 @@
+package com.ornek.ehalisaha.ehalisahabackend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authorization: Bearer eht.... → {@link AuthTokenService#verify} (bellekte).
+ * Geçersiz token'da context boş kalır; korumalı endpoint'ler 401 döner.
+ * Bearer yoksa istek olduğu gibi geçer (Basic hâlâ destekleniyor).
+ *
+ * Bilerek @Component değil: SecurityConfig içinde oluşturulur, servlet filter olarak ikinci kez kaydolmasın.
+ */
+public class BearerTokenAuthFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthTokenService tokens;
+
+    public BearerTokenAuthFilter(AuthTokenService tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+
+        String h = req.getHeader(HttpHeaders.AUTHORIZATION);
+        if (h != null && h.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            AppUserPrincipal p = tokens.verify(h.substring(BEARER.length()).trim());
+            if (p != null) {
+                var auth = UsernamePasswordAuthenticationToken.authenticated(p, null, p.getAuthorities());
+                SecurityContext ctx = SecurityContextHolder.createEmptyContext();
+                ctx.setAuthentication(auth);
+                SecurityContextHolder.setContext(ctx);
+            }
+        }
+        chain.doFilter(req, res);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ornek.ehalisaha.ehalisahabackend.security;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,6 +11,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableMethodSecurity
@@ -21,13 +23,17 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthTokenService tokens) throws Exception {
 
         http.csrf(csrf -> csrf.disable());
         http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         http.authorizeHttpRequests(auth -> auth
 
+                // ✅ StreamingResponseBody'nin ASYNC dispatch'i: istek ilk dispatch'te yetkilendirildi,
+                // STATELESS olduğu için ikinci dispatch'te context yok (yanıt zaten commit edilmiş olur)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // ✅ STATIC/FRONT: tarayıcı <script>, <link> isteklerine header ekleyemez.
                 // O yüzden UI dosyaları kesinlikle permitAll olmalı.
                 .requestMatchers(
@@ -51,6 +57,7 @@ public class SecurityConfig {
                 // ✅ Role-protected API
                 .requestMatchers("/api/owner/**").hasAuthority("ROLE_OWNER")
                 .requestMatchers("/api/member/**").hasAuthority("ROLE_MEMBER")
+                .requestMatchers("/api/admin/**").hasAuthority("ROLE_ADMIN")
 
                 // ✅ Other API endpoints (including /api/me)
                 .requestMatchers("/api/**").authenticated()
@@ -59,6 +66,10 @@ public class SecurityConfig {
                 .anyRequest().permitAll()
         );
 
+        // ✅ UI: POST /api/public/login -> Bearer token, doğrulama bellekte (DB + bcrypt yok).
+        // Basic sadece geriye uyumluluk için (swagger / script); her istekte DB + bcrypt yapar.
+        http.addFilterBefore(new BearerTokenAuthFilter(tokens), BasicAuthenticationFilter.class);
+
         http.httpBasic(basic -> basic.authenticationEntryPoint((req, res, ex) -> {
             res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             res.setHeader("WWW-Authenticate", ""); // browser popup kapansın
@@ -0,0 +1,70 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * audit_logs için çok satırlı insert: satırlar diziler halinde unnest ile tek statement'a açılır.
+ *
+ * Transaction varsa ona katılır (aynı bağlantı), yoksa kendi auto-commit'iyle yazar.
+ * id'ler AuditLog entity'siyle aynı sequence'tan (nextval) alınır.
+ */
+@Component
+public class AuditBatchWriter {
+
+    public record Row(Long actorUserId, String action, String entityType, Long entityId, String detail,
+                      Instant createdAt) {}
+
+    private final JdbcTemplate jdbc;
+
+    public AuditBatchWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public int insert(List<Row> rows) {
+        if (rows.isEmpty()) return 0;
+
+        int n = rows.size();
+        Long[] actors = new Long[n];
+        String[] actions = new String[n];
+        String[] types = new String[n];
+        Long[] entityIds = new Long[n];
+        String[] details = new String[n];
+        String[] createdAt = new String[n];
+        for (int i = 0; i < n; i++) {
+            Row r = rows.get(i);
+            actors[i] = r.actorUserId();
+            actions[i] = r.action();
+            types[i] = r.entityType();
+            entityIds[i] = r.entityId();
+            details[i] = r.detail();
+            createdAt[i] = r.createdAt().toString();
+        }
+
+        Integer inserted = jdbc.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("""
+                    insert into audit_logs (id, actor_user_id, action, entity_type, entity_id, detail, created_at)
+                    select nextval('audit_logs_seq'), t.actor, t.action, t.entity_type, t.entity_id, t.detail,
+                           cast(t.created_at as timestamptz)
+                    from unnest(cast(? as bigint[]), cast(? as text[]), cast(? as text[]),
+                                cast(? as bigint[]), cast(? as text[]), cast(? as text[]))
+                         with ordinality as t(actor, action, entity_type, entity_id, detail, created_at, ord)
+                    order by t.ord
+                    """)) {
+                ps.setArray(1, con.createArrayOf("int8", actors));
+                ps.setArray(2, con.createArrayOf("text", actions));
+                ps.setArray(3, con.createArrayOf("text", types));
+                ps.setArray(4, con.createArrayOf("int8", entityIds));
+                ps.setArray(5, con.createArrayOf("text", details));
+                ps.setArray(6, con.createArrayOf("text", createdAt));
+                return ps.executeUpdate();
+            }
+        });
+        return inserted == null ? 0 : inserted;
+    }
+}
@@ -0,0 +1,88 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto;
+import com.ornek.ehalisaha.ehalisahabackend.repository.AuditLogRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Audit kayıtları sorgusu (owner: kendi yaptıkları, admin: hepsi).
+ *
+ * Yeniden eskiye keyset sayfalama (created_at, id): sayfanın son satırı sonraki sayfanın cursor'ı.
+ * Filtreye göre V6 index'lerinden birini kullanan repository sorgusu seçilir; tablo taranmaz.
+ */
+@Service
+public class AuditQueryService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    // timestamptz aralığında, açık uçlu filtreler için
+    static final Instant MIN_TIME = Instant.parse("1970-01-01T00:00:00Z");
+    static final Instant MAX_TIME = Instant.parse("9999-01-01T00:00:00Z");
+
+    /**
+     * null = filtre yok. entityType + entityId birlikte verilir.
+     * from dahil, to hariç. beforeAt + beforeId: önceki sayfanın cursor'ı (birlikte).
+     */
+    public record Query(Long actorUserId, String entityType, Long entityId,
+                        Instant from, Instant to, Instant beforeAt, Long beforeId, Integer limit) {}
+
+    /** nextBeforeAt / nextBeforeId: devamı yoksa null. */
+    public record Page(List<AuditLogDto> items, Instant nextBeforeAt, Long nextBeforeId) {}
+
+    private final AuditLogRepository repo;
+
+    public AuditQueryService(AuditLogRepository repo) {
+        this.repo = repo;
+    }
+
+    /** Owner sadece kendi aksiyonlarını görür (actor filtresi zorunlu). */
+    @Transactional(readOnly = true)
+    public Page searchForOwner(Long ownerUserId, Query q) {
+        return search(new Query(ownerUserId, q.entityType(), q.entityId(),
+                q.from(), q.to(), q.beforeAt(), q.beforeId(), q.limit()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page search(Query q) {
+        if ((q.entityType() == null) != (q.entityId() == null)) {
+            throw new IllegalArgumentException("entityType and entityId must be given together");
+        }
+        if ((q.beforeAt() == null) != (q.beforeId() == null)) {
+            throw new IllegalArgumentException("beforeAt and beforeId must be given together");
+        }
+        Instant from = q.from() != null ? q.from() : MIN_TIME;
+        Instant to = q.to() != null ? q.to() : MAX_TIME;
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+
+        int lim = (q.limit() == null || q.limit() <= 0) ? DEFAULT_LIMIT : Math.min(q.limit(), MAX_LIMIT);
+
+        // ilk sayfa: (to, 0) → created_at < to (id'ler pozitif).
+        // to'yu aşan (ya da eşit) cursor da (to, 0)'a çekilir: repository tek üst sınır olarak cursor'ı kullanır
+        boolean cursorInRange = q.beforeAt() != null && q.beforeAt().isBefore(to);
+        Instant beforeAt = cursorInRange ? q.beforeAt() : to;
+        long beforeId = cursorInRange ? q.beforeId() : 0L;
+
+        // bir fazlası: sonraki sayfa var mı?
+        Limit limit = Limit.of(lim + 1);
+        List<AuditLogDto> rows;
+        if (q.entityType() != null) {
+            rows = repo.findPageByEntity(q.entityType(), q.entityId(), q.actorUserId(), from, beforeAt, beforeId, limit);
+        } else if (q.actorUserId() != null) {
+            rows = repo.findPageByActor(q.actorUserId(), from, beforeAt, beforeId, limit);
+        } else {
+            rows = repo.findPage(from, beforeAt, beforeId, limit);
+        }
+
+        if (rows.size() <= lim) return new Page(rows, null, null);
+
+        rows = rows.subList(0, lim);
+        AuditLogDto last = rows.get(lim - 1);
+        return new Page(rows, last.createdAt(), last.id());
+    }
+}
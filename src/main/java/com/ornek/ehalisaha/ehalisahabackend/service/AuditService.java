@@ -1,27 +1,220 @@
 package com.ornek.ehalisaha.ehalisahabackend.service;
 
-import com.ornek.ehalisaha.ehalisahabackend.domain.entity.AuditLog;
-import com.ornek.ehalisaha.ehalisahabackend.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Audit kaydı: çağıranın transaction'ına satır başına insert eklemez.
+ *
+ * - OUTBOX (kritik aksiyonlar, app.audit.outbox-actions): transaction'daki kayıtlar toplanır,
+ *   commit'ten hemen önce aynı transaction'da tek insert ile yazılır. İş commit olursa audit de kesin var,
+ *   rollback olursa ikisi de yok.
+ * - ASYNC (diğerleri): commit'ten sonra sınırlı ring buffer'a konur; arka plan thread'i batch'ler halinde
+ *   çok satırlı insert yapar. Buffer doluysa offer-timeout kadar beklenir (backpressure), sonra kayıt düşer.
+ *   Node çökerse buffer'daki kayıtlar kaybolur.
+ * Transaction yoksa OUTBOX hemen yazılır, ASYNC hemen buffer'a konur.
+ */
 @Service
-public class AuditService {
-    private final AuditLogRepository repo;
+public class AuditService implements SmartLifecycle {
+
+    public enum Durability { OUTBOX, ASYNC }
+
+    private final AuditBatchWriter writer;
+    private final BlockingQueue<AuditBatchWriter.Row> buffer;
+    private final Set<String> outboxActions;
+    private final boolean asyncEnabled;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final long pollMs;
+
+    private final Counter writtenCounter;
+    private final Counter backpressureCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread flusher;
 
-    public AuditService(AuditLogRepository repo) {
-        this.repo = repo;
+    public AuditService(AuditBatchWriter writer,
+                        MeterRegistry meters,
+                        @Value("${app.audit.outbox-actions:CASH_PAID,RESERVATION_CANCEL,MEMBERSHIP_APPROVE,MEMBERSHIP_REJECT,PRICING_UPSERT}") String[] outboxActions,
+                        @Value("${app.audit.async-enabled:true}") boolean asyncEnabled,
+                        @Value("${app.audit.buffer-capacity:10000}") int bufferCapacity,
+                        @Value("${app.audit.batch-size:500}") int batchSize,
+                        @Value("${app.audit.offer-timeout-ms:5}") long offerTimeoutMs,
+                        @Value("${app.audit.poll-ms:200}") long pollMs) {
+        this.writer = writer;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.outboxActions = Set.of(outboxActions);
+        this.asyncEnabled = asyncEnabled;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.pollMs = pollMs;
+
+        Gauge.builder("ehalisaha.audit.buffer_size", buffer, Collection::size)
+                .description("Yazılmayı bekleyen audit kayıtları").register(meters);
+        this.writtenCounter = Counter.builder("ehalisaha.audit.written")
+                .description("Arka planda yazılan audit kayıtları").register(meters);
+        this.backpressureCounter = Counter.builder("ehalisaha.audit.backpressure")
+                .description("Buffer dolu bulunup beklenen kayıtlar").register(meters);
+        this.droppedCounter = Counter.builder("ehalisaha.audit.dropped")
+                .description("Buffer dolu olduğu için düşen audit kayıtları").register(meters);
+        this.failedCounter = Counter.builder("ehalisaha.audit.write_failures")
+                .description("Insert hatası yüzünden kaybolan audit kayıtları").register(meters);
+        this.batchSizes = DistributionSummary.builder("ehalisaha.audit.batch_size")
+                .description("Arka plan insert başına satır").register(meters);
     }
 
-    @Transactional
     public void log(Long actorId, String action, String entityType, Long entityId, String detail) {
-        AuditLog a = new AuditLog();
-        a.setActorUserId(actorId);
-        a.setAction(trim(action, 60));
-        a.setEntityType(trim(entityType, 60));
-        a.setEntityId(entityId);
-        a.setDetail(trim(detail, 2000));
-        repo.save(a);
+        AuditBatchWriter.Row row = new AuditBatchWriter.Row(
+                actorId, trim(action, 80), trim(entityType, 40), entityId, trim(detail, 2000), Instant.now());
+
+        Durability d = durabilityOf(row.action());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (d == Durability.OUTBOX) writer.insert(List.of(row));
+            else enqueue(row);
+            return;
+        }
+
+        TxBatch tx = (TxBatch) TransactionSynchronizationManager.getResource(this);
+        if (tx == null) {
+            tx = new TxBatch();
+            TransactionSynchronizationManager.bindResource(this, tx);
+            TransactionSynchronizationManager.registerSynchronization(tx);
+        }
+        (d == Durability.OUTBOX ? tx.outbox : tx.async).add(row);
+    }
+
+    Durability durabilityOf(String action) {
+        return !asyncEnabled || outboxActions.contains(action) ? Durability.OUTBOX : Durability.ASYNC;
+    }
+
+    /** Transaction başına toplanan kayıtlar. */
+    private final class TxBatch implements TransactionSynchronization {
+        final List<AuditBatchWriter.Row> outbox = new ArrayList<>();
+        final List<AuditBatchWriter.Row> async = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            writer.insert(outbox);
+        }
+
+        @Override
+        public void afterCommit() {
+            async.forEach(AuditService.this::enqueue);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AuditService.this);
+        }
+    }
+
+    // ---------- ring buffer ----------
+
+    private void enqueue(AuditBatchWriter.Row row) {
+        if (stopped) { // kapanıştan sonra gelen kayıt: doğrudan yaz
+            writer.insert(List.of(row));
+            return;
+        }
+        if (buffer.offer(row)) return;
+
+        backpressureCounter.increment();
+        try {
+            if (offerTimeoutMs > 0 && buffer.offer(row, offerTimeoutMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+    }
+
+    /** Buffer'dan en fazla batchSize kaydı tek insert ile yazar; yazılan (ya da kaybolan) kayıt sayısı. */
+    int flushOnce() {
+        AuditBatchWriter.Row first = buffer.poll();
+        return first == null ? 0 : flush(first);
+    }
+
+    private int flush(AuditBatchWriter.Row first) {
+        List<AuditBatchWriter.Row> batch = new ArrayList<>(Math.min(batchSize, buffer.size() + 1));
+        batch.add(first);
+        buffer.drainTo(batch, batchSize - 1);
+        try {
+            writer.insert(batch);
+            writtenCounter.increment(batch.size());
+            batchSizes.record(batch.size());
+        } catch (RuntimeException ex) {
+            failedCounter.increment(batch.size()); // DB hatası flusher thread'ini öldürmesin
+        }
+        return batch.size();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                AuditBatchWriter.Row first = buffer.poll(pollMs, TimeUnit.MILLISECONDS);
+                if (first != null) flush(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ---------- lifecycle ----------
+
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        stopped = false;
+        flusher = Thread.ofPlatform().name("audit-flush").daemon(true).start(this::flushLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        stopped = true;
+        if (flusher != null) {
+            try {
+                flusher.join(Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flusher = null;
+        while (flushOnce() > 0) {
+            // kalanları DataSource kapanmadan yaz
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Web sunucusu (graceful shutdown) durduktan sonra durur: son isteklerin kayıtları da yazılır. */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
     }
 
     private static String trim(String s, int max) {
@@ -0,0 +1,78 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.AppUser;
+import com.ornek.ehalisaha.ehalisahabackend.dto.LoginRequest;
+import com.ornek.ehalisaha.ehalisahabackend.repository.AppUserRepository;
+import com.ornek.ehalisaha.ehalisahabackend.security.AppUserPrincipal;
+import com.ornek.ehalisaha.ehalisahabackend.security.AuthTokenService;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Login: parola bir kez (bcrypt) doğrulanır, karşılığında kısa ömürlü token verilir.
+ * Sonraki istekler {@link AuthTokenService#verify} ile DB'siz doğrulanır.
+ */
+@Service
+public class AuthService {
+
+    public record LoginResult(
+            String token,
+            String tokenType,
+            Instant expiresAt,
+            Long id,
+            String username,
+            String role
+    ) {}
+
+    private final AppUserRepository repo;
+    private final PasswordEncoder encoder;
+    private final AuthTokenService tokens;
+
+    // kullanıcı yoksa da bcrypt yapılsın: cevap süresinden kullanıcı var/yok anlaşılmasın
+    private final String dummyHash;
+
+    public AuthService(AppUserRepository repo, PasswordEncoder encoder, AuthTokenService tokens) {
+        this.repo = repo;
+        this.encoder = encoder;
+        this.tokens = tokens;
+        this.dummyHash = encoder.encode("dummy-password");
+    }
+
+    @Transactional(readOnly = true)
+    public LoginResult login(LoginRequest req) {
+        AppUser u = repo.findByUsername(req.username()).orElse(null);
+
+        if (u == null) {
+            encoder.matches(req.password(), dummyHash);
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        if (!encoder.matches(req.password(), u.getPasswordHash()) || Boolean.FALSE.equals(u.getEnabled())) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+
+        return issue(u);
+    }
+
+    /**
+     * Süresi dolmadan yeni token (açık kalan owner/member sekmeleri için).
+     * Burada DB'ye bir kez bakılır: kapatılan hesap / değişen rol token'a yansısın.
+     */
+    @Transactional(readOnly = true)
+    public LoginResult refresh(AppUserPrincipal me) {
+        AppUser u = repo.findById(me.getId())
+                .filter(x -> !Boolean.FALSE.equals(x.getEnabled()))
+                .orElseThrow(() -> new BadCredentialsException("Account not available"));
+        return issue(u);
+    }
+
+    private LoginResult issue(AppUser u) {
+        AppUserPrincipal p = new AppUserPrincipal(u.getId(), u.getUsername(), null, u.getRole());
+        AuthTokenService.IssuedToken t = tokens.issue(p);
+
+        return new LoginResult(t.token(), "Bearer", t.expiresAt(), u.getId(), u.getUsername(), u.getRole().name());
+    }
+}
@@ -0,0 +1,165 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.*;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Neredeyse hiç değişmeyen katalog satırları için read-through cache
+ * (tesis, saha, aktif slotlar, süre seçenekleri, aktif fiyat).
+ *
+ * - Boyut + TTL ile sınırlı (Caffeine). Bulunamayan kayıt cache'lenmez.
+ * - Dönen entity'ler detached ve paylaşımlı: sadece okuma için. Yazma yolları repository kullanmalı.
+ * - Değişiklik yapan servisler invalidate* çağırır: hemen atılır, commit sonrası tekrar atılır
+ *   (arada eski değer yüklenmiş olabilir) ve {@link CatalogChangedEvent} ile diğer node'lara gider.
+ * - Hit/miss metrikleri: cache.gets{cache=catalog.*, result=hit|miss}.
+ */
+@Component
+public class CatalogCache {
+
+    public record PriceKey(Long pitchId, Long durationOptionId) {}
+
+    private final PitchRepository pitchRepo;
+    private final FacilityRepository facilityRepo;
+    private final FacilitySlotRepository slotRepo;
+    private final DurationOptionRepository durationRepo;
+    private final PricingRuleRepository pricingRepo;
+    private final ApplicationEventPublisher events;
+
+    private final Cache<Long, Pitch> pitches;
+    private final Cache<Long, Facility> facilities;
+    private final Cache<Long, List<Pitch>> facilityPitches;
+    private final Cache<Long, List<FacilitySlot>> slots;
+    private final Cache<Integer, DurationOption> durations;
+    private final Cache<PriceKey, PricingRule> prices;
+
+    public CatalogCache(PitchRepository pitchRepo,
+                        FacilityRepository facilityRepo,
+                        FacilitySlotRepository slotRepo,
+                        DurationOptionRepository durationRepo,
+                        PricingRuleRepository pricingRepo,
+                        ApplicationEventPublisher events,
+                        MeterRegistry meters,
+                        @Value("${app.catalog-cache.max-size:10000}") long maxSize,
+                        @Value("${app.catalog-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.pitchRepo = pitchRepo;
+        this.facilityRepo = facilityRepo;
+        this.slotRepo = slotRepo;
+        this.durationRepo = durationRepo;
+        this.pricingRepo = pricingRepo;
+        this.events = events;
+
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.pitches = build(meters, "catalog.pitches", maxSize, ttl);
+        this.facilities = build(meters, "catalog.facilities", maxSize, ttl);
+        this.facilityPitches = build(meters, "catalog.facility_pitches", maxSize, ttl);
+        this.slots = build(meters, "catalog.slots", maxSize, ttl);
+        this.durations = build(meters, "catalog.durations", maxSize, ttl);
+        this.prices = build(meters, "catalog.pricing", maxSize, ttl);
+    }
+
+    private static <K, V> Cache<K, V> build(MeterRegistry meters, String name, long maxSize, Duration ttl) {
+        Cache<K, V> c = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meters, c, name);
+    }
+
+    // ---------- okuma ----------
+
+    public Optional<Pitch> pitch(Long pitchId) {
+        return Optional.ofNullable(pitches.get(pitchId, id -> pitchRepo.findById(id).orElse(null)));
+    }
+
+    public Optional<Facility> facility(Long facilityId) {
+        return Optional.ofNullable(facilities.get(facilityId, id -> facilityRepo.findById(id).orElse(null)));
+    }
+
+    /** Tesisin aktif sahaları (id sıralı). */
+    public List<Pitch> activePitches(Long facilityId) {
+        return facilityPitches.get(facilityId,
+                id -> List.copyOf(pitchRepo.findByFacilityIdAndActiveTrueOrderByIdAsc(id)));
+    }
+
+    /** Tesisin aktif slotları (startMinute sıralı). */
+    public List<FacilitySlot> activeSlots(Long facilityId) {
+        return slots.get(facilityId,
+                id -> List.copyOf(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(id)));
+    }
+
+    public Optional<DurationOption> duration(int minutes) {
+        return Optional.ofNullable(durations.get(minutes, m -> durationRepo.findByMinutes(m).orElse(null)));
+    }
+
+    public Optional<PricingRule> activePrice(Long pitchId, Long durationOptionId) {
+        return Optional.ofNullable(prices.get(new PriceKey(pitchId, durationOptionId),
+                k -> pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(k.pitchId(), k.durationOptionId())
+                        .orElse(null)));
+    }
+
+    // ---------- invalidation ----------
+
+    /** Tesis satırı, aktif saha listesi ve slotları (ör. slot değişimi, yeni saha). */
+    public void invalidateFacility(Long facilityId) {
+        evict(facilityId, null);
+        events.publishEvent(new CatalogChangedEvent(facilityId, null));
+    }
+
+    /** Saha satırı ve o sahanın tüm fiyatları (ör. fiyat upsert). */
+    public void invalidatePitch(Long facilityId, Long pitchId) {
+        evict(facilityId, pitchId);
+        events.publishEvent(new CatalogChangedEvent(facilityId, pitchId));
+    }
+
+    public void invalidateAll() {
+        pitches.invalidateAll();
+        facilities.invalidateAll();
+        facilityPitches.invalidateAll();
+        slots.invalidateAll();
+        durations.invalidateAll();
+        prices.invalidateAll();
+    }
+
+    // commit sonrası (ya da başka node'dan gelince) tekrar at
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER) // ETag sayacından önce
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent e) {
+        evict(e.facilityId(), e.pitchId());
+    }
+
+    // event bus koptuysa arada kaçan invalidation olabilir
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER)
+    @EventListener
+    public void onResync(EventBusResyncEvent e) {
+        invalidateAll();
+    }
+
+    private void evict(Long facilityId, Long pitchId) {
+        if (facilityId != null) {
+            facilities.invalidate(facilityId);
+            facilityPitches.invalidate(facilityId);
+            slots.invalidate(facilityId);
+        }
+        if (pitchId != null) {
+            pitches.invalidate(pitchId);
+            prices.asMap().keySet().removeIf(k -> pitchId.equals(k.pitchId()));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.PricingChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public GET'ler için ETag üretimi: tesis / saha bazında değişiklik sayaçları (bellekte).
+ *
+ * - Sayaçlar yazma servislerinin yayınladığı event'lerle commit sonrası artar
+ *   (commit öncesi artsaydı client eski veriyi yeni ETag ile cache'leyebilirdi).
+ * - Aynı sebeple sayaç listener'ları en son çalışır (LOWEST_PRECEDENCE): cache / index listener'ları
+ *   CACHE_LISTENER_ORDER ile önce güncellenir, yeni ETag hiçbir zaman eski bitmap / slot ile görülmez.
+ * - Diğer node'lardaki değişiklikler PgNotifyEventBus ile aynı event olarak gelir.
+ * - Sayaçlar node'a özel olduğu için ETag'e node epoch'u eklenir; event bus koparsa
+ *   epoch değişir ve tüm ETag'ler geçersiz olur.
+ *
+ * catalog: tesis listesi | facility: slot / saha / fiyat | facilityOccupancy: tesisteki rezervasyonlar
+ * | pitch: sahanın rezervasyonları.
+ */
+@Component
+public class ChangeVersions {
+
+    /** Aynı event'i dinleyen cache / index'ler: sayaç artışından önce. */
+    public static final int CACHE_LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private volatile long epoch = newEpoch();
+
+    private final AtomicLong catalog = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicLong> facility = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> facilityOccupancy = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> pitch = new ConcurrentHashMap<>();
+
+    private static long newEpoch() {
+        return ThreadLocalRandom.current().nextLong(1L << 40);
+    }
+
+    // ---------- okuma ----------
+
+    public long catalog() {
+        return catalog.get();
+    }
+
+    public long facility(Long facilityId) {
+        return get(facility, facilityId);
+    }
+
+    public long facilityOccupancy(Long facilityId) {
+        return get(facilityOccupancy, facilityId);
+    }
+
+    public long pitch(Long pitchId) {
+        return get(pitch, pitchId);
+    }
+
+    /** "epoch-v1-v2-..." (tırnaklar WebRequest.checkNotModified tarafından eklenir). */
+    public String etag(String kind, long... versions) {
+        StringBuilder sb = new StringBuilder(kind).append('-').append(Long.toHexString(epoch));
+        for (long v : versions) sb.append('-').append(v);
+        return sb.toString();
+    }
+
+    // ---------- sayaçlar ----------
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent e) {
+        bump(pitch, e.pitchId());
+        bump(facilityOccupancy, e.facilityId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent e) {
+        catalog.incrementAndGet();
+        bump(facility, e.facilityId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent e) {
+        bump(facility, e.facilityId());
+    }
+
+    // arada kaçan event olabilir: eski ETag'lerin hepsi geçersiz
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener
+    public void onResync(EventBusResyncEvent e) {
+        epoch = newEpoch();
+    }
+
+    private static long get(ConcurrentHashMap<Long, AtomicLong> m, Long id) {
+        if (id == null) return 0;
+        AtomicLong v = m.get(id);
+        return v == null ? 0 : v.get();
+    }
+
+    private static void bump(ConcurrentHashMap<Long, AtomicLong> m, Long id) {
+        if (id == null) return;
+        m.computeIfAbsent(id, k -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -0,0 +1,224 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tesis arama index'i (bellekte): isim + adres kelimeleri üzerinde önek ve hata toleranslı (fuzzy) eşleşme.
+ *
+ * - Aktif tesisler tek sorguyla yüklenir; kelime → tesis listesi sıralı map'te (önek = subMap).
+ * - Önek sonucu azsa, uzunluğu yakın kelimelere sınırlı Levenshtein (≤1, 5+ harfte ≤2) uygulanır.
+ * - Çok kelimeli sorguda her kelime eşleşmeli (AND); isim eşleşmesi adresten yüksek puan alır.
+ * - Türkçe karakterler sadeleştirilir (ş→s, ı→i ...): "kadıköy" = "kadikoy".
+ * - {@link CatalogChangedEvent} (local / diğer node) index'i kirli işaretler; sonraki arama yeniden kurar.
+ */
+@Component
+public class FacilitySearchIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    public record Hit(Long id, String name, String address, int score) {}
+
+    private record Entry(Long id, String name, String address, String nameKey) {}
+
+    /** Değişmez snapshot: kelime → entry index'leri (artan). */
+    private record Snapshot(
+            List<Entry> entries,
+            NavigableMap<String, int[]> nameTokens,
+            NavigableMap<String, int[]> addressTokens
+    ) {}
+
+    private final FacilityRepository facilityRepo;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private volatile Snapshot snapshot;
+
+    public FacilitySearchIndex(FacilityRepository facilityRepo) {
+        this.facilityRepo = facilityRepo;
+    }
+
+    public List<Hit> search(String q, Integer limit) {
+        int lim = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        String folded = fold(q);
+        if (folded.isEmpty()) throw new IllegalArgumentException("q is required");
+        String[] terms = folded.split(" ");
+
+        Snapshot s = current();
+
+        // entry index -> toplam puan (her terim eşleşmeli)
+        Map<Integer, Integer> acc = null;
+        for (String t : terms) {
+            Map<Integer, Integer> m = matchTerm(s, t, lim);
+            if (acc == null) {
+                acc = m;
+            } else {
+                Map<Integer, Integer> next = new HashMap<>();
+                for (var e : acc.entrySet()) {
+                    Integer sc = m.get(e.getKey());
+                    if (sc != null) next.put(e.getKey(), e.getValue() + sc);
+                }
+                acc = next;
+            }
+            if (acc.isEmpty()) return List.of();
+        }
+
+        List<Hit> hits = new ArrayList<>(acc.size());
+        for (var e : acc.entrySet()) {
+            Entry en = s.entries().get(e.getKey());
+            int score = e.getValue();
+            if (en.nameKey().startsWith(folded)) score += 50; // tüm sorgu ismin başı
+            hits.add(new Hit(en.id(), en.name(), en.address(), score));
+        }
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparing(Hit::name, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(Hit::id));
+
+        return hits.size() > lim ? List.copyOf(hits.subList(0, lim)) : hits;
+    }
+
+    // ---------- eşleşme ----------
+
+    private static Map<Integer, Integer> matchTerm(Snapshot s, String t, int lim) {
+        Map<Integer, Integer> out = new HashMap<>();
+
+        prefix(s.nameTokens(), t, 100, 60, out);
+        prefix(s.addressTokens(), t, 40, 30, out);
+
+        // önek yeterince sonuç verdiyse fuzzy'ye gerek yok
+        if (out.size() < lim && t.length() >= 3) {
+            int maxDist = t.length() >= 5 ? 2 : 1;
+            fuzzy(s.nameTokens(), t, maxDist, 30, out);
+            fuzzy(s.addressTokens(), t, maxDist, 15, out);
+        }
+        return out;
+    }
+
+    private static void prefix(NavigableMap<String, int[]> tokens, String t, int exact, int partial,
+                               Map<Integer, Integer> out) {
+        for (var e : tokens.subMap(t, true, t + Character.MAX_VALUE, true).entrySet()) {
+            int sc = e.getKey().length() == t.length() ? exact : partial;
+            for (int idx : e.getValue()) out.merge(idx, sc, Math::max);
+        }
+    }
+
+    private static void fuzzy(NavigableMap<String, int[]> tokens, String t, int maxDist, int base,
+                              Map<Integer, Integer> out) {
+        for (var e : tokens.entrySet()) {
+            String k = e.getKey();
+            if (k.length() + maxDist < t.length()) continue;
+
+            // tam kelime ya da aynı uzunluktaki öneki ile (yazılmakta olan kelime)
+            int d = distance(t, k, maxDist);
+            if (k.length() > t.length()) d = Math.min(d, distance(t, k.substring(0, t.length()), maxDist));
+            if (d > maxDist) continue;
+
+            int sc = base - 10 * d;
+            for (int idx : e.getValue()) out.merge(idx, sc, Math::max);
+        }
+    }
+
+    /** Levenshtein; maxDist aşılınca erken çıkar (maxDist + 1 döner). */
+    static int distance(String a, String b, int maxDist) {
+        if (Math.abs(a.length() - b.length()) > maxDist) return maxDist + 1;
+
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > maxDist) return maxDist + 1;
+            int[] tmp = prev; prev = cur; cur = tmp;
+        }
+        return prev[b.length()];
+    }
+
+    // ---------- index kurulumu ----------
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null && !dirty.get()) return s;
+
+        synchronized (this) {
+            // kurulum sırasında gelen değişiklik tekrar dirty yapar, sonraki arama yeniden kurar
+            if (dirty.getAndSet(false) || snapshot == null) {
+                snapshot = build(facilityRepo.findSummaries(0L, true, null, Limit.unlimited()));
+            }
+            return snapshot;
+        }
+    }
+
+    private static Snapshot build(List<FacilitySummaryDto> rows) {
+        List<Entry> entries = new ArrayList<>(rows.size());
+        Map<String, List<Integer>> name = new HashMap<>();
+        Map<String, List<Integer>> address = new HashMap<>();
+
+        for (FacilitySummaryDto r : rows) {
+            int idx = entries.size();
+            String nameKey = fold(r.name());
+            entries.add(new Entry(r.id(), r.name(), r.address(), nameKey));
+            addTokens(name, nameKey, idx);
+            addTokens(address, fold(r.address()), idx);
+        }
+        return new Snapshot(List.copyOf(entries), freeze(name), freeze(address));
+    }
+
+    private static void addTokens(Map<String, List<Integer>> m, String text, int idx) {
+        if (text.isEmpty()) return;
+        for (String tok : text.split(" ")) {
+            List<Integer> l = m.computeIfAbsent(tok, k -> new ArrayList<>());
+            if (l.isEmpty() || l.get(l.size() - 1) != idx) l.add(idx);
+        }
+    }
+
+    private static NavigableMap<String, int[]> freeze(Map<String, List<Integer>> m) {
+        TreeMap<String, int[]> out = new TreeMap<>();
+        m.forEach((k, v) -> out.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+        return Collections.unmodifiableNavigableMap(out);
+    }
+
+    /**
+     * OwnerOpsService.key / Facility.nameKey ile aynı normalize (trim + lower + tek boşluk),
+     * ek olarak aksan / Türkçe karakter sadeleştirme ve noktalama → boşluk.
+     */
+    static String fold(String s) {
+        if (s == null) return "";
+        String x = s.replace('ı', 'i').replace('İ', 'i');
+        x = Normalizer.normalize(x.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "");
+        return x.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // ---------- invalidation ----------
+
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER) // ETag sayacından önce
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent e) {
+        dirty.set(true);
+    }
+
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER)
+    @EventListener
+    public void onResync(EventBusResyncEvent e) {
+        dirty.set(true);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * "Şu tesislerde bu akşam 20:00-23:00 arası boş saha var mı?" araması.
+ * Pitch başına availability çağırmak yerine tek native sorgu (bkz. ReservationRepository.findFreeSlots).
+ */
+@Service
+public class FreeSlotSearchService {
+
+    private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
+
+    static final int MAX_WINDOW_DAYS = 7;
+    static final int MAX_FACILITIES = 500;
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    public record FreeSlotDto(
+            Long facilityId,
+            String facilityName,
+            Long pitchId,
+            String pitchName,
+            Instant startTime,
+            Instant endTime,
+            BigDecimal price
+    ) {}
+
+    private final ReservationRepository reservationRepo;
+
+    public FreeSlotSearchService(ReservationRepository reservationRepo) {
+        this.reservationRepo = reservationRepo;
+    }
+
+    /**
+     * [from, to) penceresine tamamen sığan boş (pitch, başlangıç) adayları;
+     * erken başlayan önce, aynı saatte ucuz olan önce.
+     */
+    @Transactional(readOnly = true)
+    public List<FreeSlotDto> search(Instant from, Instant to, int durationMinutes,
+                                    List<Long> facilityIds, Integer limit) {
+        if (from == null || to == null) throw new IllegalArgumentException("from/to required");
+        if (!to.isAfter(from)) throw new IllegalArgumentException("to must be after from");
+        if (Duration.between(from, to).compareTo(Duration.ofDays(MAX_WINDOW_DAYS)) > 0) {
+            throw new IllegalArgumentException("Window too large (max " + MAX_WINDOW_DAYS + " days)");
+        }
+        if (durationMinutes <= 0 || durationMinutes > 24 * 60) {
+            throw new IllegalArgumentException("durationMinutes must be between 1 and 1440");
+        }
+
+        List<Long> ids = (facilityIds == null) ? List.of() : facilityIds.stream().distinct().toList();
+        if (ids.size() > MAX_FACILITIES) {
+            throw new IllegalArgumentException("Too many facilities (max " + MAX_FACILITIES + ")");
+        }
+
+        int lim = (limit == null) ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // geçmişe rezervasyon önerme
+        Instant now = Instant.now();
+        Instant start = from.isBefore(now) ? now : from;
+        if (!to.isAfter(start)) return List.of();
+
+        boolean all = ids.isEmpty();
+        // boş IN () geçersiz SQL; "hepsi" modunda liste zaten okunmuyor
+        List<Long> bind = all ? List.of(-1L) : ids;
+
+        return reservationRepo.findFreeSlots(all, bind, start, to, durationMinutes, FACILITY_TZ.getId(), lim)
+                .stream()
+                .map(r -> new FreeSlotDto(
+                        r.getFacilityId(), r.getFacilityName(),
+                        r.getPitchId(), r.getPitchName(),
+                        r.getStartTime(), r.getEndTime(),
+                        r.getPrice()
+                ))
+                .toList();
+    }
+}
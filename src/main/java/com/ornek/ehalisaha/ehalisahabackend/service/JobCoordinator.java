@@ -0,0 +1,128 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Çok node'lu kurulumda @Scheduled job'ların tick başına tek node'da çalışması.
+ *
+ * - pg_try_advisory_lock: job çalışırken başka node aynı job'a giremez (beklemez, atlar).
+ * - scheduled_job_runs: kilidi alan node minInterval içinde başka node çalıştırdıysa yine atlar
+ *   (fixedDelay'ler node'lar arasında hizalı olmadığı için sadece kilit yetmez).
+ * - Kilit, job süresince pool'dan alınan tek bağlantıda tutulur; node ölürse Postgres bırakır.
+ *
+ * Metrikler: ehalisaha.jobs.runs, ehalisaha.jobs.skipped{reason=locked|recent}, ehalisaha.jobs.lock_held.
+ */
+@Component
+public class JobCoordinator {
+
+    // advisory lock namespace (iki int'li form): "EH" + 0000
+    static final int LOCK_NAMESPACE = 0x45480000;
+
+    private final JdbcTemplate jdbc;
+    private final MeterRegistry meters;
+    private final String nodeId;
+
+    public JobCoordinator(JdbcTemplate jdbc,
+                          MeterRegistry meters,
+                          @Value("${app.node-id:}") String nodeId) {
+        this.jdbc = jdbc;
+        this.meters = meters;
+        this.nodeId = (nodeId == null || nodeId.isBlank()) ? "node-" + UUID.randomUUID() : nodeId;
+    }
+
+    /**
+     * Job'u cluster'da tek kopya olarak çalıştırır.
+     *
+     * @param minInterval son başlangıçtan bu yana en az bu kadar geçmediyse çalıştırmaz
+     *                    (genelde fixedDelay'in biraz altı)
+     * @return bu node çalıştırdıysa true
+     */
+    public boolean runExclusive(String job, Duration minInterval, Runnable task) {
+        Boolean ran = jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            if (!tryLock(con, job)) {
+                skipped(job, "locked");
+                return false;
+            }
+
+            Timer.Sample held = Timer.start(meters);
+            try {
+                if (!claim(con, job, minInterval)) {
+                    skipped(job, "recent");
+                    return false;
+                }
+
+                task.run();
+                finished(con, job);
+                Counter.builder("ehalisaha.jobs.runs").tag("job", job).register(meters).increment();
+                return true;
+            } finally {
+                unlock(con, job);
+                held.stop(Timer.builder("ehalisaha.jobs.lock_held").tag("job", job).register(meters));
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean tryLock(Connection con, String job) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select pg_try_advisory_lock(?, hashtext(?))")) {
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setString(2, job);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection con, String job) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("select pg_advisory_unlock(?, hashtext(?))")) {
+            ps.setInt(1, LOCK_NAMESPACE);
+            ps.setString(2, job);
+            ps.execute();
+        }
+    }
+
+    /** Son başlangıç minInterval'dan eskiyse (veya hiç yoksa) bu node adına "başladı" yazar. */
+    private boolean claim(Connection con, String job, Duration minInterval) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("""
+                insert into scheduled_job_runs (job_name, last_started_at, last_node)
+                values (?, now(), ?)
+                on conflict (job_name) do update
+                    set last_started_at = excluded.last_started_at,
+                        last_node = excluded.last_node
+                    where scheduled_job_runs.last_started_at <= now() - make_interval(secs => ?)
+                returning job_name
+                """)) {
+            ps.setString(1, job);
+            ps.setString(2, nodeId);
+            ps.setDouble(3, minInterval.toMillis() / 1000.0);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static void finished(Connection con, String job) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "update scheduled_job_runs set last_finished_at = now() where job_name = ?")) {
+            ps.setString(1, job);
+            ps.executeUpdate();
+        }
+    }
+
+    private void skipped(String job, String reason) {
+        Counter.builder("ehalisaha.jobs.skipped").tag("job", job).tag("reason", reason).register(meters).increment();
+    }
+}
@@ -1,48 +1,107 @@
 package com.ornek.ehalisaha.ehalisahabackend.service;
 
-import com.ornek.ehalisaha.ehalisahabackend.domain.entity.MatchVideo;
-import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
-import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
-import com.ornek.ehalisaha.ehalisahabackend.domain.enums.VideoStatus;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MatchVideoRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * Bitmiş CONFIRMED maçları COMPLETED yapar ve video kaydını yayınlar.
+ *
+ * Satır satır save yerine chunk'lar halinde set-based:
+ * - UPDATE ... RETURNING id (en fazla chunkSize satır, skip locked)
+ * - INSERT ... ON CONFLICT DO NOTHING ile match_videos
+ * Her chunk kendi transaction'ında commit edilir; uzun süre kilit tutulmaz.
+ * Bir çalıştırmada en fazla maxPerRun satır işlenir, kalanı bir sonraki tura kalır.
+ * Çok node'da tick başına tek node çalışır (JobCoordinator).
+ */
 @Component
 public class MatchCompletionScheduler {
 
+    static final String VIDEO_URL_PREFIX = "https://cdn.ehalisaha.local/videos/";
+
+    static final String JOB_NAME = "match-completion";
+
+    public record RunResult(int completed, int videosCreated, int chunks) {}
+
     private final ReservationRepository reservationRepo;
     private final MatchVideoRepository videoRepo;
+    private final TransactionTemplate tx;
+    private final JobCoordinator jobs;
+    private final int chunkSize;
+    private final int maxPerRun;
 
-    public MatchCompletionScheduler(ReservationRepository reservationRepo, MatchVideoRepository videoRepo) {
+    private final Counter completedCounter;
+    private final Counter videoCounter;
+    private final DistributionSummary perRun;
+
+    public MatchCompletionScheduler(ReservationRepository reservationRepo,
+                                    MatchVideoRepository videoRepo,
+                                    PlatformTransactionManager txManager,
+                                    JobCoordinator jobs,
+                                    MeterRegistry meters,
+                                    @Value("${app.match-completion.chunk-size:500}") int chunkSize,
+                                    @Value("${app.match-completion.max-per-run:20000}") int maxPerRun) {
         this.reservationRepo = reservationRepo;
         this.videoRepo = videoRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.jobs = jobs;
+        this.chunkSize = chunkSize;
+        this.maxPerRun = maxPerRun;
+
+        this.completedCounter = Counter.builder("ehalisaha.match_completion.completed")
+                .description("COMPLETED yapılan rezervasyonlar").register(meters);
+        this.videoCounter = Counter.builder("ehalisaha.match_completion.videos_created")
+                .description("Oluşturulan match_videos kayıtları").register(meters);
+        this.perRun = DistributionSummary.builder("ehalisaha.match_completion.rows_per_run")
+                .description("Bir çalıştırmada işlenen satır").register(meters);
     }
 
     @Scheduled(fixedDelay = 60_000) // 1 dk
-    @Transactional
-    public void completeAndPublish() {
+    public void run() {
+        jobs.runExclusive(JOB_NAME, Duration.ofSeconds(50), this::completeAndPublish);
+    }
+
+    public RunResult completeAndPublish() {
         Instant now = Instant.now();
 
-        // ✅ sadece gerekli kayıtları çek
-        List<Reservation> targets = reservationRepo.findByStatusAndEndTimeBefore(ReservationStatus.CONFIRMED, now);
+        int completed = 0;
+        int videos = 0;
+        int chunks = 0;
 
-        for (Reservation r : targets) {
-            r.setStatus(ReservationStatus.COMPLETED);
-            reservationRepo.save(r);
+        while (completed < maxPerRun) {
+            int limit = Math.min(chunkSize, maxPerRun - completed);
 
-            videoRepo.findByReservationId(r.getId()).orElseGet(() -> {
-                MatchVideo v = new MatchVideo();
-                v.setReservationId(r.getId());
-                v.setStatus(VideoStatus.PUBLISHED);
-                v.setStorageUrl("https://cdn.ehalisaha.local/videos/" + r.getId() + ".mp4");
-                return videoRepo.save(v);
+            int[] chunk = tx.execute(status -> {
+                List<Long> ids = reservationRepo.completeEndedBatch(now, limit);
+                if (ids.isEmpty()) return new int[]{0, 0};
+                int created = videoRepo.insertPublishedIfMissing(ids, VIDEO_URL_PREFIX, now);
+                return new int[]{ids.size(), created};
             });
+
+            if (chunk == null || chunk[0] == 0) break;
+
+            completed += chunk[0];
+            videos += chunk[1];
+            chunks++;
+
+            if (chunk[0] < limit) break; // son chunk
         }
+
+        completedCounter.increment(completed);
+        videoCounter.increment(videos);
+        perRun.record(completed);
+
+        return new RunResult(completed, videos, chunks);
     }
 }
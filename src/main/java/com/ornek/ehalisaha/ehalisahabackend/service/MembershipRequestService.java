@@ -5,9 +5,11 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Membership;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.MembershipRequest;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.MembershipRequestStatus;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.MembershipStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.MembershipChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRequestRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,15 +25,18 @@ public class MembershipRequestService {
     private final FacilityRepository facilityRepo;
     private final MembershipRepository membershipRepo;
     private final AuditService audit;
+    private final ApplicationEventPublisher events;
 
     public MembershipRequestService(MembershipRequestRepository reqRepo,
                                     FacilityRepository facilityRepo,
                                     MembershipRepository membershipRepo,
-                                    AuditService audit) {
+                                    AuditService audit,
+                                    ApplicationEventPublisher events) {
         this.reqRepo = reqRepo;
         this.facilityRepo = facilityRepo;
         this.membershipRepo = membershipRepo;
         this.audit = audit;
+        this.events = events;
     }
 
     public List<MembershipReqDto> listForOwner(Long ownerUserId) {
@@ -78,6 +83,8 @@ public class MembershipRequestService {
         audit.log(ownerUserId, "MEMBERSHIP_APPROVE", "MembershipRequest", requestId,
                 "facilityId=" + r.getFacilityId() + ", userId=" + r.getUserId());
 
+        events.publishEvent(new MembershipChangedEvent(
+                savedMembership.getId(), savedMembership.getFacilityId(), savedMembership.getUserId(), savedMembership.getStatus()));
         return savedMembership;
     }
 
@@ -4,10 +4,12 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Membership;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.MembershipRequest;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.MembershipRequestStatus;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.MembershipStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.MembershipChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRequestRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
@@ -19,13 +21,16 @@ public class MembershipService {
     private final MembershipRepository membershipRepo;
     private final MembershipRequestRepository reqRepo;
     private final FacilityRepository facilityRepo;
+    private final ApplicationEventPublisher events;
 
     public MembershipService(MembershipRepository membershipRepo,
                              MembershipRequestRepository reqRepo,
-                             FacilityRepository facilityRepo) {
+                             FacilityRepository facilityRepo,
+                             ApplicationEventPublisher events) {
         this.membershipRepo = membershipRepo;
         this.reqRepo = reqRepo;
         this.facilityRepo = facilityRepo;
+        this.events = events;
     }
 
     // MEMBER: create request
@@ -68,10 +73,14 @@ public class MembershipService {
                         .build());
 
         m.setStatus(MembershipStatus.ACTIVE);
-        membershipRepo.save(m);
+        Membership savedMembership = membershipRepo.save(m);
 
         req.setStatus(MembershipRequestStatus.APPROVED);
-        return reqRepo.save(req);
+        MembershipRequest saved = reqRepo.save(req);
+
+        events.publishEvent(new MembershipChangedEvent(
+                savedMembership.getId(), savedMembership.getFacilityId(), savedMembership.getUserId(), savedMembership.getStatus()));
+        return saved;
     }
 
     // OWNER: reject
@@ -0,0 +1,257 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pitch + gün bazında dakika çözünürlüklü doluluk bitmap'i (bellekte).
+ *
+ * - İlk istekte o gün için tek sorgu ile doldurulur, sonrasında DB'ye gidilmez.
+ * - Yazma tarafı (create / cancel) {@link ReservationChangedEvent} yayınlar, index commit sonrası güncellenir.
+ * - CANCELLED rezervasyonlar doluluk sayılmaz.
+ * - Diğer node'lardaki değişiklikler PgNotifyEventBus ile aynı event olarak gelir.
+ * - max-entries ile sınırlı (Caffeine): dolunca az kullanılan günler tek tek atılır, index toptan boşalmaz.
+ */
+@Component
+public class OccupancyIndex {
+
+    private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
+
+    public record DayKey(Long pitchId, LocalDate date) {}
+
+    private final ReservationRepository reservationRepo;
+    private final Cache<DayKey, DayBitmap> days;
+    // pitch bazında yazma sayacı: toplu yükleme sırasında gelen event'i yakalamak için
+    private final ConcurrentHashMap<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public OccupancyIndex(ReservationRepository reservationRepo,
+                          @Value("${app.occupancy.max-entries:20000}") int maxEntries) {
+        this.reservationRepo = reservationRepo;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .executor(Runnable::run) // eviction yazan thread'de: boyut hemen sınırda
+                .build();
+    }
+
+    /**
+     * O günün bitmap'i. Index'te yoksa DB'den yüklenir.
+     * Sorgu map kilidi dışında çalışır (aynı bin'deki diğer günleri bekletmez); yükleme sırasında
+     * event geldiyse sonuç cache'lenmez (generation kontrolü, bkz. loadMissing).
+     */
+    public DayBitmap day(Long pitchId, LocalDate date) {
+        DayKey key = new DayKey(pitchId, date);
+        DayBitmap bm = days.getIfPresent(key);
+        return bm != null ? bm : loadMissing(List.of(key)).get(key);
+    }
+
+    /**
+     * Tek pitch için [from, to] (dahil) günleri. Eksik günler tek sorguyla yüklenir.
+     */
+    public Map<LocalDate, DayBitmap> range(Long pitchId, LocalDate from, LocalDate to) {
+        return grid(List.of(pitchId), from, to).get(pitchId);
+    }
+
+    /**
+     * Birden çok pitch × [from, to] (dahil) günleri.
+     * Index'te olmayan (pitch, gün) çiftleri tek bir overlap sorgusuyla yüklenir
+     * (tek pitch: findOverlappingForPitch, çok pitch: findOverlappingForPitches).
+     */
+    public Map<Long, Map<LocalDate, DayBitmap>> grid(Collection<Long> pitchIds, LocalDate from, LocalDate to) {
+        Map<Long, Map<LocalDate, DayBitmap>> out = new LinkedHashMap<>();
+        List<DayKey> missing = new ArrayList<>();
+
+        for (Long pid : pitchIds) {
+            Map<LocalDate, DayBitmap> row = new LinkedHashMap<>();
+            for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+                DayKey k = new DayKey(pid, d);
+                DayBitmap bm = days.getIfPresent(k);
+                row.put(d, bm);
+                if (bm == null) missing.add(k);
+            }
+            out.put(pid, row);
+        }
+
+        if (!missing.isEmpty()) {
+            loadMissing(missing).forEach((k, bm) -> out.get(k.pitchId()).put(k.date(), bm));
+        }
+        return out;
+    }
+
+    public int size() {
+        return days.asMap().size();
+    }
+
+    public void invalidatePitch(Long pitchId) {
+        days.asMap().keySet().removeIf(k -> k.pitchId().equals(pitchId));
+    }
+
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER) // ETag sayacından önce
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent e) {
+        if (e.pitchId() == null || e.startTime() == null || e.endTime() == null) return;
+
+        boolean busy = e.status() != ReservationStatus.CANCELLED;
+
+        // önce sayaç: paralel toplu yükleme bunu görüp kendi sonucunu cache'lemez
+        generation(e.pitchId()).incrementAndGet();
+
+        LocalDate first = e.startTime().atZone(FACILITY_TZ).toLocalDate();
+        LocalDate last = e.endTime().minusNanos(1).atZone(FACILITY_TZ).toLocalDate();
+
+        for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            // sadece yüklü günleri güncelle; yüklü olmayan gün zaten DB'den güncel okunacak
+            final LocalDate day = d;
+            days.asMap().computeIfPresent(new DayKey(e.pitchId(), d), (k, bm) -> {
+                bm.apply(day, e.startTime(), e.endTime(), busy);
+                return bm;
+            });
+        }
+    }
+
+    // LISTEN bağlantısı koptuysa arada kaçan değişiklikler olabilir: hepsini yeniden yükle
+    @Order(ChangeVersions.CACHE_LISTENER_ORDER)
+    @EventListener
+    public void onResync(EventBusResyncEvent e) {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        days.invalidateAll();
+    }
+
+    private Map<DayKey, DayBitmap> loadMissing(List<DayKey> missing) {
+        List<Long> pitchIds = missing.stream().map(DayKey::pitchId).distinct().toList();
+        LocalDate lo = missing.stream().map(DayKey::date).min(LocalDate::compareTo).orElseThrow();
+        LocalDate hi = missing.stream().map(DayKey::date).max(LocalDate::compareTo).orElseThrow();
+
+        Map<Long, Long> genBefore = new HashMap<>();
+        for (Long pid : pitchIds) genBefore.put(pid, generation(pid).get());
+
+        Instant start = lo.atStartOfDay(FACILITY_TZ).toInstant();
+        Instant end = hi.plusDays(1).atStartOfDay(FACILITY_TZ).toInstant();
+
+        List<Reservation> rs = (pitchIds.size() == 1)
+                ? reservationRepo.findOverlappingForPitch(pitchIds.get(0), start, end, ReservationStatus.CANCELLED)
+                : reservationRepo.findOverlappingForPitches(pitchIds, start, end, ReservationStatus.CANCELLED);
+
+        Map<DayKey, DayBitmap> loaded = new LinkedHashMap<>();
+        for (DayKey k : missing) {
+            Instant ds = k.date().atStartOfDay(FACILITY_TZ).toInstant();
+            Instant de = k.date().plusDays(1).atStartOfDay(FACILITY_TZ).toInstant();
+            loaded.put(k, new DayBitmap((int) Duration.between(ds, de).toMinutes()));
+        }
+
+        for (Reservation r : rs) {
+            LocalDate first = r.getStartTime().atZone(FACILITY_TZ).toLocalDate();
+            LocalDate last = r.getEndTime().minusNanos(1).atZone(FACILITY_TZ).toLocalDate();
+            for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+                DayBitmap bm = loaded.get(new DayKey(r.getPitchId(), d));
+                if (bm != null) bm.apply(d, r.getStartTime(), r.getEndTime(), true);
+            }
+        }
+
+        // cache'e koy; arada event geldiyse geri al (bir sonraki okuma yeniden yükler)
+        Map<DayKey, DayBitmap> result = new LinkedHashMap<>();
+        for (var e : loaded.entrySet()) {
+            DayBitmap prev = days.asMap().putIfAbsent(e.getKey(), e.getValue());
+            result.put(e.getKey(), prev != null ? prev : e.getValue());
+        }
+        for (var e : loaded.entrySet()) {
+            Long pid = e.getKey().pitchId();
+            if (generation(pid).get() != genBefore.get(pid)) {
+                days.asMap().remove(e.getKey(), e.getValue());
+            }
+        }
+        return result;
+    }
+
+    private AtomicLong generation(Long pitchId) {
+        return generations.computeIfAbsent(pitchId, k -> new AtomicLong());
+    }
+
+    /**
+     * Bir günün dakika bitmap'i: bit i = günün i. dakikası dolu mu.
+     */
+    public static final class DayBitmap {
+
+        private final int minutes;
+        private final long[] words;
+
+        DayBitmap(int minutes) {
+            this.minutes = minutes;
+            this.words = new long[(minutes + 63) >>> 6];
+        }
+
+        public int minutes() {
+            return minutes;
+        }
+
+        /** [fromMinute, toMinute) aralığında dolu dakika var mı? */
+        public synchronized boolean anyBusy(int fromMinute, int toMinute) {
+            int from = Math.max(0, fromMinute);
+            int to = Math.min(minutes, toMinute);
+            if (from >= to) return false;
+
+            int wFrom = from >>> 6;
+            int wTo = (to - 1) >>> 6;
+            for (int w = wFrom; w <= wTo; w++) {
+                long mask = -1L;
+                if (w == wFrom) mask &= -1L << (from & 63);
+                if (w == wTo) mask &= -1L >>> (63 - ((to - 1) & 63));
+                if ((words[w] & mask) != 0) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Dolu aralıkları baseSlot adımlarıyla "minuteOfDay" listesine çevirir
+         * (eski /occupancy çıktısıyla aynı format).
+         */
+        public synchronized List<Integer> busyStarts(int baseSlot) {
+            int step = Math.max(1, baseSlot);
+            List<Integer> out = new ArrayList<>();
+            int m = 0;
+            while (m < minutes) {
+                if (!get(m)) {
+                    m++;
+                    continue;
+                }
+                int runStart = m;
+                while (m < minutes && get(m)) m++;
+                for (int s = runStart; s < m; s += step) out.add(s);
+            }
+            return out;
+        }
+
+        synchronized void apply(LocalDate date, Instant start, Instant end, boolean busy) {
+            Instant dayStart = date.atStartOfDay(FACILITY_TZ).toInstant();
+
+            long fromSec = Duration.between(dayStart, start).getSeconds();
+            long toSec = Duration.between(dayStart, end).getSeconds();
+
+            int from = (int) Math.max(0, Math.floorDiv(fromSec, 60));
+            int to = (int) Math.min(minutes, Math.ceilDiv(toSec, 60));
+
+            for (int m = from; m < to; m++) {
+                if (busy) words[m >>> 6] |= 1L << (m & 63);
+                else words[m >>> 6] &= ~(1L << (m & 63));
+            }
+        }
+
+        private boolean get(int m) {
+            return (words[m >>> 6] & (1L << (m & 63))) != 0;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owner'a rezervasyon bildirimi (SSE).
+ *
+ * - Owner sekmesi /api/owner/notifications/stream ile bağlanır, bağlantı ownerUserId altında tutulur.
+ * - create / cash-paid / cancel commit olunca {@link ReservationChangedEvent} ilgili owner'ın
+ *   bağlantılarına yazılır. Event owner id'sini taşıdığı için bağlantı başına DB sorgusu yok.
+ * - Commit eden thread sadece kuyruğa koyar. Her bağlantının kendi kuyruğu ve aynı anda tek yazanı var
+ *   (virtual thread): yavaş / yarı açık bir client sadece kendi kuyruğunu bekletir, diğer owner'ları değil.
+ *   Heartbeat de aynı kuyruktan gider.
+ * - Kuyruğu max-pending-per-stream'i aşan (takılmış) bağlantı kapatılır, atılan bildirim
+ *   ehalisaha.notifications.dropped'da sayılır; client yeniden bağlanınca özetini çeker.
+ * - Kopan bağlantılar gönderim / heartbeat sırasında temizlenir.
+ */
+@Component
+public class OwnerNotificationHub {
+
+    public record ReservationNotice(
+            Long reservationId,
+            Long facilityId,
+            Long pitchId,
+            Instant startTime,
+            Instant endTime,
+            String status,
+            String action
+    ) {}
+
+    private final long timeoutMs;
+    private final int maxPerOwner;
+    private final int maxPendingPerStream;
+    private final Executor sender;
+    private final Counter droppedCounter;
+    private final Map<Long, List<Stream>> streams = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OwnerNotificationHub(
+            @Value("${app.notifications.sse-timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.notifications.max-streams-per-owner:10}") int maxPerOwner,
+            @Value("${app.notifications.max-pending-per-stream:100}") int maxPendingPerStream,
+            MeterRegistry meters
+    ) {
+        this(timeoutMs, maxPerOwner, maxPendingPerStream, meters,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("owner-notify-", 0).factory()));
+    }
+
+    OwnerNotificationHub(long timeoutMs, int maxPerOwner, int maxPendingPerStream, MeterRegistry meters, Executor sender) {
+        this.timeoutMs = timeoutMs;
+        this.maxPerOwner = maxPerOwner;
+        this.maxPendingPerStream = maxPendingPerStream;
+        this.sender = sender;
+        this.droppedCounter = Counter.builder("ehalisaha.notifications.dropped")
+                .description("Kuyruğu dolu (takılmış) bağlantı yüzünden atılan bildirimler").register(meters);
+    }
+
+    /** Tek SSE bağlantısı: kendi kuyruğu, aynı anda en fazla bir gönderim. */
+    private final class Stream {
+        final Long ownerUserId;
+        final SseEmitter emitter;
+        final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+
+        Stream(Long ownerUserId, SseEmitter emitter) {
+            this.ownerUserId = ownerUserId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) return;
+            if (size.incrementAndGet() > maxPendingPerStream) {
+                droppedCounter.increment(size.getAndSet(0));
+                pending.clear();
+                close(this);
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    closed = true; // kapanıyoruz
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    if (closed || !send(this, event)) return;
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMs);
+    }
+
+    public SseEmitter subscribe(Long ownerUserId) {
+        Stream stream = new Stream(ownerUserId, newEmitter());
+        List<Stream> evicted = new ArrayList<>();
+
+        // remove() ile yarışmasın diye ekleme compute içinde
+        streams.compute(ownerUserId, (k, list) -> {
+            if (list == null) list = new CopyOnWriteArrayList<>();
+            // çok sekme açık kaldıysa en eskisini kapat
+            while (list.size() >= maxPerOwner) evicted.add(list.remove(0));
+            list.add(stream);
+            return list;
+        });
+        evicted.forEach(this::close);
+
+        Runnable remove = () -> remove(stream);
+        stream.emitter.onCompletion(remove);
+        stream.emitter.onTimeout(remove);
+        stream.emitter.onError(e -> remove.run());
+
+        // bağlantı kuruldu bilgisi (client bununla ilk özetini çeker); henüz başlatılmamış emitter'a yazım bloklamaz
+        send(stream, SseEmitter.event().name("ready").data("ok"));
+        return stream.emitter;
+    }
+
+    public int connectionCount() {
+        return streams.values().stream().mapToInt(List::size).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent e) {
+        if (e.ownerUserId() == null) return;
+
+        List<Stream> list = streams.get(e.ownerUserId());
+        if (list == null || list.isEmpty()) return;
+
+        ReservationNotice notice = new ReservationNotice(
+                e.reservationId(), e.facilityId(), e.pitchId(),
+                e.startTime(), e.endTime(), String.valueOf(e.status()), e.action()
+        );
+
+        // commit eden thread sadece kuyruğa koyar
+        for (Stream stream : list) {
+            stream.offer(SseEmitter.event()
+                    .name("reservation")
+                    .id(String.valueOf(e.reservationId()))
+                    .data(notice, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // proxy'ler boşta bağlantıyı kesmesin + ölü bağlantılar ayıklansın
+    @Scheduled(fixedDelayString = "${app.notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        streams.values().forEach(list -> list.forEach(s -> s.offer(SseEmitter.event().comment("hb"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.values().forEach(list -> list.forEach(s -> s.closed = true));
+        streams.clear();
+        if (sender instanceof ExecutorService es) es.shutdownNow();
+    }
+
+    private boolean send(Stream stream, SseEmitter.SseEventBuilder event) {
+        try {
+            stream.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // client gitmiş / emitter kapanmış: listeden çıkar (IOException sonrası kapanışı container yapar)
+            stream.closed = true;
+            remove(stream);
+            return false;
+        }
+    }
+
+    /** Listeden çıkarır ve emitter'ı kapatır. complete() takılı bir send'i bekleyebilir: çağıranı bloklamasın. */
+    private void close(Stream stream) {
+        stream.closed = true;
+        remove(stream);
+        try {
+            sender.execute(stream.emitter::complete);
+        } catch (RejectedExecutionException ex) {
+            // kapanıyoruz: container bağlantıyı zaten kapatır
+        }
+    }
+
+    private void remove(Stream stream) {
+        streams.computeIfPresent(stream.ownerUserId, (k, list) -> {
+            list.remove(stream);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
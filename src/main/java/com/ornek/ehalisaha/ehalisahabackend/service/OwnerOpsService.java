@@ -17,11 +17,14 @@ public class OwnerOpsService {
     private final FacilityRepository facilityRepo;
     private final PitchRepository pitchRepo;
     private final AuditService audit;
+    private final CatalogCache catalog;
 
-    public OwnerOpsService(FacilityRepository facilityRepo, PitchRepository pitchRepo, AuditService audit) {
+    public OwnerOpsService(FacilityRepository facilityRepo, PitchRepository pitchRepo, AuditService audit,
+                           CatalogCache catalog) {
         this.facilityRepo = facilityRepo;
         this.pitchRepo = pitchRepo;
         this.audit = audit;
+        this.catalog = catalog;
     }
     private static String key(String s) {
         if (s == null) return "";
@@ -43,6 +46,9 @@ public class OwnerOpsService {
 
         Facility saved = facilityRepo.save(f);
         audit.log(ownerUserId, "FACILITY_CREATE", "Facility", saved.getId(), "name=" + saved.getName());
+
+        // public tesis listesi değişti (ETag sayaçları)
+        catalog.invalidateFacility(saved.getId());
         return saved;
     }
 
@@ -77,6 +83,9 @@ public class OwnerOpsService {
         Pitch saved = pitchRepo.save(p);
         audit.log(ownerUserId, "PITCH_CREATE", "Pitch", saved.getId(),
                 "facilityId=" + facilityId + ", name=" + saved.getName());
+
+        // tesisin aktif saha listesi değişti
+        catalog.invalidateFacility(facilityId);
         return saved;
     }
 
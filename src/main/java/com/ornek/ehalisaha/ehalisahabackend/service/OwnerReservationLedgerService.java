@@ -4,10 +4,17 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.entity.*;
 import com.ornek.ehalisaha.ehalisahabackend.repository.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SerializationFeature;
+
+import java.io.OutputStream;
 import java.time.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OwnerReservationLedgerService {
@@ -28,106 +35,173 @@ public class OwnerReservationLedgerService {
             List<PlayerDto> players
     ) {}
 
+    /**
+     * Bildirim rozeti özeti (owner-notify.js). newByDate sadece yeni kaydı olan günleri içerir.
+     * maxId: aralıktaki en büyük rezervasyon id'si (afterId'den küçükse afterId).
+     */
+    public record LedgerDigestDto(
+            Long facilityId,
+            Long afterId,
+            LocalDate from,
+            LocalDate to,
+            long newCount,
+            LocalDate earliestNewDate,
+            long maxId,
+            Map<String, Long> newByDate
+    ) {}
+
+    static final int MAX_DIGEST_DAYS = 62;
+    static final int MAX_RANGE_DAYS = 366;
+
     private static final ZoneId IST = ZoneId.of("Europe/Istanbul");
 
+    private static final TypeReference<List<PlayerDto>> PLAYER_LIST = new TypeReference<>() {};
+
     private final ReservationRepository reservationRepo;
     private final ReservationPlayerRepository playerRepo;
     private final PitchRepository pitchRepo;
     private final FacilityRepository facilityRepo;
-    private final MembershipRepository membershipRepo;
-    private final AppUserRepository userRepo;
+    private final ObjectMapper json;
+    // aralık stream'i: satır başına flush yok (tampon dolunca yazılır), servlet stream'i kapatılmaz
+    private final ObjectWriter rowWriter;
 
     public OwnerReservationLedgerService(
             ReservationRepository reservationRepo,
             ReservationPlayerRepository playerRepo,
             PitchRepository pitchRepo,
             FacilityRepository facilityRepo,
-            MembershipRepository membershipRepo,
-            AppUserRepository userRepo
+            ObjectMapper json
     ) {
         this.reservationRepo = reservationRepo;
         this.playerRepo = playerRepo;
         this.pitchRepo = pitchRepo;
         this.facilityRepo = facilityRepo;
-        this.membershipRepo = membershipRepo;
-        this.userRepo = userRepo;
+        this.json = json;
+        this.rowWriter = json.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(StreamWriteFeature.AUTO_CLOSE_TARGET);
     }
 
+    /**
+     * Tek SQL (ReservationRepository.ledgerForDay): owner kontrolü, rezervasyonlar, üye ve oyuncular aynı sonuçtan.
+     */
     @Transactional(readOnly = true)
     public List<LedgerRowDto> listForDay(Long ownerId, Long facilityId, Long pitchId, LocalDate date) {
-        // 1) owner -> facility doğrulama
+        Instant dayStart = date.atStartOfDay(IST).toInstant();
+        Instant dayEnd = date.plusDays(1).atStartOfDay(IST).toInstant();
+
+        List<ReservationRepository.LedgerRow> rows = reservationRepo.ledgerForDay(
+                facilityId, pitchId == null, pitchId == null ? 0L : pitchId, dayStart, dayEnd);
+
+        // tesis yoksa satır yok; varsa her satırda owner
+        if (rows.isEmpty()) throw new IllegalArgumentException("Facility not found: " + facilityId);
+        if (!Objects.equals(rows.get(0).getOwnerUserId(), ownerId)) {
+            throw new SecurityException("Not your facility");
+        }
+
+        List<LedgerRowDto> out = new ArrayList<>(rows.size());
+        for (ReservationRepository.LedgerRow r : rows) {
+            if (r.getId() != null) out.add(toDto(facilityId, r)); // id null: o gün rezervasyon yok
+        }
+        return out;
+    }
+
+    /**
+     * Aralık modu kontrolleri: stream başlamadan (hata hâlâ 400 / 403 olarak dönebilsin).
+     */
+    @Transactional(readOnly = true)
+    public void checkRange(Long ownerId, Long facilityId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(MAX_RANGE_DAYS).isBefore(to.plusDays(1))) {
+            throw new IllegalArgumentException("range must be 1.." + MAX_RANGE_DAYS + " days (from <= to)");
+        }
         Facility f = facilityRepo.findById(facilityId)
                 .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + facilityId));
         if (!Objects.equals(f.getOwnerUserId(), ownerId)) {
             throw new SecurityException("Not your facility");
         }
+    }
 
-        // 2) facility'nin pitchleri
-        List<Pitch> pitches = pitchRepo.findByFacilityId(facilityId);
-        if (pitchId != null) {
-            pitches = pitches.stream().filter(p -> Objects.equals(p.getId(), pitchId)).toList();
+    /**
+     * from..to (dahil) günlerinin ledger satırları, cursor'dan okundukça JSON dizisi olarak yazılır.
+     * Satırlar listede toplanmaz: bellek aralık büyüklüğünden bağımsız. Önce checkRange çağrılır.
+     */
+    @Transactional(readOnly = true)
+    public void writeRange(Long ownerId, Long facilityId, Long pitchId, LocalDate from, LocalDate to, OutputStream out) {
+        Instant start = from.atStartOfDay(IST).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(IST).toInstant();
+
+        try (Stream<ReservationRepository.LedgerRow> rows = reservationRepo.streamLedger(
+                facilityId, pitchId == null, pitchId == null ? 0L : pitchId, start, end)) {
+            JsonGenerator gen = rowWriter.createGenerator(out);
+            gen.writeStartArray();
+
+            boolean first = true;
+            for (Iterator<ReservationRepository.LedgerRow> it = rows.iterator(); it.hasNext(); ) {
+                ReservationRepository.LedgerRow r = it.next();
+                // checkRange'den sonra tesis el değiştirdiyse hiçbir satır yazılmasın
+                if (first && !Objects.equals(r.getOwnerUserId(), ownerId)) {
+                    throw new SecurityException("Not your facility");
+                }
+                first = false;
+                if (r.getId() != null) rowWriter.writeValue(gen, toDto(facilityId, r));
+            }
+
+            gen.writeEndArray();
+            gen.close();
         }
-        if (pitches.isEmpty()) return List.of();
+    }
 
-        Map<Long, Pitch> pitchMap = pitches.stream().collect(Collectors.toMap(Pitch::getId, x -> x));
-        List<Long> pitchIds = pitches.stream().map(Pitch::getId).toList();
+    private LedgerRowDto toDto(Long facilityId, ReservationRepository.LedgerRow r) {
+        return new LedgerRowDto(
+                r.getId(),
+                facilityId,
+                r.getPitchId(),
+                r.getPitchName(),
+                r.getMembershipId(),
+                r.getMemberUserId(),
+                r.getMemberUsername(),
+                r.getStartTime(),
+                r.getEndTime(),
+                r.getStatus(),
+                json.readValue(r.getPlayers(), PLAYER_LIST)
+        );
+    }
 
-        Instant dayStart = date.atStartOfDay(IST).toInstant();
-        Instant dayEnd = date.plusDays(1).atStartOfDay(IST).toInstant();
+    /**
+     * 14 gün × listForDay taraması yerine: owner kontrolü + tek aggregate sorgu.
+     */
+    @Transactional(readOnly = true)
+    public LedgerDigestDto digest(Long ownerId, Long facilityId, Long afterId, LocalDate from, int days) {
+        if (days <= 0 || days > MAX_DIGEST_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DIGEST_DAYS);
+        }
+        long after = (afterId == null) ? 0L : Math.max(0L, afterId);
+
+        Facility f = facilityRepo.findById(facilityId)
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + facilityId));
+        if (!Objects.equals(f.getOwnerUserId(), ownerId)) {
+            throw new SecurityException("Not your facility");
+        }
 
-        // 3) reservations
-        List<Reservation> reservations = reservationRepo.findByPitchIdInAndStartTimeBetween(pitchIds, dayStart, dayEnd)
-                .stream()
-                .sorted(Comparator.comparing(Reservation::getStartTime))
-                .toList();
-
-        if (reservations.isEmpty()) return List.of();
-
-        List<Long> resIds = reservations.stream().map(Reservation::getId).toList();
-
-        // 4) players bulk
-        Map<Long, List<ReservationPlayer>> playersByResId = playerRepo.findByReservationIdIn(resIds)
-                .stream()
-                .collect(Collectors.groupingBy(ReservationPlayer::getReservationId));
-
-        // 5) membership -> user map (batch)
-        Set<Long> membershipIds = reservations.stream().map(Reservation::getMembershipId).collect(Collectors.toSet());
-        Map<Long, Membership> membershipMap = membershipRepo.findAllById(membershipIds)
-                .stream().collect(Collectors.toMap(Membership::getId, x -> x));
-
-        Set<Long> userIds = membershipMap.values().stream().map(Membership::getUserId).collect(Collectors.toSet());
-        Map<Long, AppUser> userMap = userRepo.findAllById(userIds)
-                .stream().collect(Collectors.toMap(AppUser::getId, x -> x));
-
-        // 6) DTO
-        List<LedgerRowDto> out = new ArrayList<>();
-        for (Reservation r : reservations) {
-            Pitch p = pitchMap.get(r.getPitchId());
-            Membership ms = membershipMap.get(r.getMembershipId());
-            AppUser u = (ms != null) ? userMap.get(ms.getUserId()) : null;
-
-            List<PlayerDto> ps = playersByResId.getOrDefault(r.getId(), List.of())
-                    .stream()
-                    .sorted(Comparator.comparing(ReservationPlayer::getId)) // stabil sıralama
-                    .map(pl -> new PlayerDto(pl.getId(), pl.getFullName(), pl.getJerseyNo(), pl.isPaid()))
-                    .toList();
-
-            out.add(new LedgerRowDto(
-                    r.getId(),
-                    facilityId,
-                    r.getPitchId(),
-                    p != null ? p.getName() : ("pitch#" + r.getPitchId()),
-                    r.getMembershipId(),
-                    ms != null ? ms.getUserId() : null,
-                    u != null ? u.getUsername() : null,
-                    r.getStartTime(),
-                    r.getEndTime(),
-                    String.valueOf(r.getStatus()),
-                    ps
-            ));
+        LocalDate to = from.plusDays(days - 1L);
+        Instant start = from.atStartOfDay(IST).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(IST).toInstant();
+
+        long newCount = 0;
+        long maxId = after;
+        LocalDate earliest = null;
+        Map<String, Long> newByDate = new LinkedHashMap<>();
+
+        for (ReservationRepository.LedgerDigestRow row : reservationRepo.ledgerDigest(facilityId, after, start, end, IST.getId())) {
+            if (row.getMaxId() != null && row.getMaxId() > maxId) maxId = row.getMaxId();
+            if (row.getNewCount() <= 0) continue;
+
+            newCount += row.getNewCount();
+            if (earliest == null) earliest = row.getDay(); // satırlar güne göre sıralı
+            newByDate.put(row.getDay().toString(), row.getNewCount());
         }
 
-        return out;
+        return new LedgerDigestDto(facilityId, after, from, to, newCount, earliest, maxId, newByDate);
     }
 
     @Transactional
@@ -3,101 +3,46 @@ package com.ornek.ehalisaha.ehalisahabackend.service;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.*;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.dto.OwnerReservationDto;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.*;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class OwnerReservationService {
 
     private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
 
-    public record OwnerReservationDto(
-            Long id,
-            Long facilityId,
-            Long pitchId,
-            String pitchName,
-            Instant startTime,
-            Instant endTime,
-            ReservationStatus status,
-            String totalPrice,
-            PaymentStatus paymentStatus
-    ) {}
-
     private final ReservationRepository reservationRepo;
     private final PaymentRepository paymentRepo;
     private final PitchRepository pitchRepo;
     private final FacilityRepository facilityRepo;
     private final AuditService audit;
+    private final ApplicationEventPublisher events;
 
     public OwnerReservationService(ReservationRepository reservationRepo, PaymentRepository paymentRepo,
                                    PitchRepository pitchRepo, FacilityRepository facilityRepo,
-                                   AuditService audit) {
+                                   AuditService audit, ApplicationEventPublisher events) {
         this.reservationRepo = reservationRepo;
         this.paymentRepo = paymentRepo;
         this.pitchRepo = pitchRepo;
         this.facilityRepo = facilityRepo;
         this.audit = audit;
+        this.events = events;
     }
 
     public List<OwnerReservationDto> listForOwner(Long ownerId, LocalDate date, Long facilityId, Long pitchId) {
-
-        // owner'ın facility'leri
-        List<Facility> facilities = facilityRepo.findByOwnerUserId(ownerId);
-        if (facilityId != null) {
-            facilities = facilities.stream().filter(f -> f.getId().equals(facilityId)).toList();
-        }
-        if (facilities.isEmpty()) return List.of();
-
-        List<Long> facilityIds = facilities.stream().map(Facility::getId).toList();
-
-        // owner'ın pitch'leri
-        List<Pitch> pitches = pitchRepo.findByFacilityIdIn(facilityIds);
-        if (pitchId != null) {
-            pitches = pitches.stream().filter(p -> p.getId().equals(pitchId)).toList();
-        }
-        if (pitches.isEmpty()) return List.of();
-
-        Map<Long, Pitch> pitchMap = pitches.stream().collect(Collectors.toMap(Pitch::getId, x -> x));
-        List<Long> pitchIds = pitches.stream().map(Pitch::getId).toList();
-
         Instant start = date.atStartOfDay(FACILITY_TZ).toInstant();
         Instant end = date.plusDays(1).atStartOfDay(FACILITY_TZ).toInstant();
 
-        List<Reservation> rs = reservationRepo.findOverlappingForPitches(
-                pitchIds, start, end, ReservationStatus.CANCELLED
-        );
-
-        // payment status map (tek tek find yapmayalım)
-        Map<Long, PaymentStatus> payMap = new HashMap<>();
-        for (Reservation r : rs) {
-            paymentRepo.findByReservationId(r.getId()).ifPresent(p -> payMap.put(r.getId(), p.getStatus()));
-        }
-
-        return rs.stream()
-                .sorted(Comparator.comparing(Reservation::getStartTime))
-                .map(r -> {
-                    Pitch p = pitchMap.get(r.getPitchId());
-                    Long facId = (p != null) ? p.getFacilityId() : null;
-                    String pName = (p != null) ? p.getName() : ("pitch#" + r.getPitchId());
-                    PaymentStatus ps = payMap.getOrDefault(r.getId(), PaymentStatus.INIT);
-                    return new OwnerReservationDto(
-                            r.getId(),
-                            facId,
-                            r.getPitchId(),
-                            pName,
-                            r.getStartTime(),
-                            r.getEndTime(),
-                            r.getStatus(),
-                            r.getTotalPrice() != null ? r.getTotalPrice().toPlainString() : "0",
-                            ps
-                    );
-                })
-                .toList();
+        // rezervasyon + saha + ödeme durumu tek sorgu (satır başına payment find yok)
+        return reservationRepo.findOwnerList(ownerId, facilityId, pitchId, start, end, ReservationStatus.CANCELLED);
     }
 
     @Transactional
@@ -114,14 +59,32 @@ public class OwnerReservationService {
         Payment pay = paymentRepo.findByReservationId(reservationId)
                 .orElseThrow(() -> new IllegalStateException("Payment not found"));
 
+        // iptal edilmiş rezervasyon tekrar aktif oluyor: aradaki sürede slot dolmuş olabilir
+        boolean reactivated = r.getStatus() == ReservationStatus.CANCELLED;
+        if (reactivated) {
+            List<Long> conflicts = reservationRepo
+                    .findOverlappingForPitch(r.getPitchId(), r.getStartTime(), r.getEndTime(), ReservationStatus.CANCELLED)
+                    .stream().map(Reservation::getId).filter(id -> !id.equals(reservationId)).toList();
+            if (!conflicts.isEmpty()) throw new ReservationConflictException(conflicts);
+        }
+
         pay.setStatus(PaymentStatus.PAID);
         pay.setPaidAt(Instant.now());
         paymentRepo.save(pay);
 
         r.setStatus(ReservationStatus.CONFIRMED);
-        Reservation saved = reservationRepo.save(r);
+        Reservation saved;
+        try {
+            // eşzamanlı insert kontrolü geçerse: exclusion constraint / V5 ay sınırı trigger'ı flush'ta yakalar
+            saved = reactivated ? reservationRepo.saveAndFlush(r) : reservationRepo.save(r);
+        } catch (DataIntegrityViolationException ex) {
+            if (!ReservationConflictException.isExclusionViolation(ex)) throw ex;
+            throw new ReservationConflictException(List.of(), ex);
+        }
 
         audit.log(ownerId, "CASH_PAID", "Reservation", reservationId, "confirmed");
+
+        events.publishEvent(ReservationChangedEvent.of(saved, f.getId(), f.getOwnerUserId(), "CASH_PAID"));
         return saved;
     }
 
@@ -140,6 +103,8 @@ public class OwnerReservationService {
         Reservation saved = reservationRepo.save(r);
 
         audit.log(ownerId, "RESERVATION_CANCEL", "Reservation", reservationId, "cancelled");
+
+        events.publishEvent(ReservationChangedEvent.of(saved, f.getId(), f.getOwnerUserId(), "RESERVATION_CANCEL"));
         return saved;
     }
 
@@ -5,10 +5,12 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.PricingRule;
 import com.ornek.ehalisaha.ehalisahabackend.dto.PricingRuleUpsertRequest;
+import com.ornek.ehalisaha.ehalisahabackend.event.PricingChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.DurationOptionRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.PitchRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.PricingRuleRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,17 +24,23 @@ public class PricingService {
     private final DurationOptionRepository durationRepo;
     private final PricingRuleRepository pricingRepo;
     private final AuditService audit;
+    private final ApplicationEventPublisher events;
+    private final CatalogCache catalog;
 
     public PricingService(PitchRepository pitchRepo,
                           FacilityRepository facilityRepo,
                           DurationOptionRepository durationRepo,
                           PricingRuleRepository pricingRepo,
-                          AuditService audit) {
+                          AuditService audit,
+                          ApplicationEventPublisher events,
+                          CatalogCache catalog) {
         this.pitchRepo = pitchRepo;
         this.facilityRepo = facilityRepo;
         this.durationRepo = durationRepo;
         this.pricingRepo = pricingRepo;
         this.audit = audit;
+        this.events = events;
+        this.catalog = catalog;
     }
 
     @Transactional
@@ -67,6 +75,8 @@ public class PricingService {
         audit.log(ownerUserId, "PRICING_UPSERT", "PricingRule", saved.getId(),
                 "pitchId=" + pitch.getId() + ", minutes=" + d.getMinutes() + ", price=" + saved.getPrice());
 
+        catalog.invalidatePitch(fac.getId(), pitch.getId());
+        events.publishEvent(new PricingChangedEvent(saved.getId(), fac.getId(), pitch.getId()));
         return saved;
     }
 
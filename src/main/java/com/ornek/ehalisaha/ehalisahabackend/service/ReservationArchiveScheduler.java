@@ -0,0 +1,137 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * reservations partition bakımı + arşiv (V5: aylık partition'lar, *_archive tabloları).
+ *
+ * - Gelecek aylar monthsAhead kadar önceden açılır (haftalık seri en fazla 52 hafta ileri).
+ * - Başlangıcı archiveAfterDays'ten eski COMPLETED / CANCELLED rezervasyonlar oyuncu + ödemeleriyle
+ *   chunk'lar halinde arşive taşınır; her chunk kendi transaction'ında (skip locked).
+ * - Aynı sınırı geçip hiç kapanmamış CREATED / CONFIRMED satırlar (ör. ödemesi girilmemiş nakit) de
+ *   durumu değişmeden arşive gider: tek bir satır ayının partition'ını düşürülmekten alıkoymasın.
+ *   Bunlar ayrıca sayılır (unsettled): sahibine sorulacak açık kayıtlar arşivde kalır.
+ * - Boşalan eski aylar düşürülür: sıcak tablo / index'ler geçmiş biriktikçe büyümez.
+ * - Arşivdeki satırları hiçbir okuma yolu görmez (ledger, owner listesi, digest, doluluk).
+ *   Bu yüzden after-days ledger aralık sınırından (MAX_RANGE_DAYS) büyük olmalı: son bir yıllık
+ *   herhangi bir aralık her zaman sıcak tablodan eksiksiz gelir. Daha eskisi sadece *_archive'da.
+ * Çok node'da tek node çalışır (JobCoordinator).
+ */
+@Component
+public class ReservationArchiveScheduler {
+
+    static final String JOB_NAME = "reservation-archive";
+
+    static final List<String> SETTLED = List.of(ReservationStatus.COMPLETED.name(), ReservationStatus.CANCELLED.name());
+    static final List<String> UNSETTLED = List.of(ReservationStatus.CREATED.name(), ReservationStatus.CONFIRMED.name());
+
+    /** archived: toplam taşınan (unsettled dahil). */
+    public record RunResult(int partitionsCreated, int archived, int unsettled, int chunks, int partitionsDropped) {}
+
+    private final ReservationRepository reservationRepo;
+    private final TransactionTemplate tx;
+    private final JobCoordinator jobs;
+    private final Duration archiveAfter;
+    private final int monthsAhead;
+    private final int chunkSize;
+    private final int maxPerRun;
+
+    private final Counter archivedCounter;
+    private final Counter unsettledCounter;
+    private final Counter createdCounter;
+    private final Counter droppedCounter;
+
+    public ReservationArchiveScheduler(ReservationRepository reservationRepo,
+                                       PlatformTransactionManager txManager,
+                                       JobCoordinator jobs,
+                                       MeterRegistry meters,
+                                       @Value("${app.reservation-archive.after-days:400}") int afterDays,
+                                       @Value("${app.reservation-archive.months-ahead:15}") int monthsAhead,
+                                       @Value("${app.reservation-archive.chunk-size:1000}") int chunkSize,
+                                       @Value("${app.reservation-archive.max-per-run:50000}") int maxPerRun) {
+        if (afterDays <= OwnerReservationLedgerService.MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("app.reservation-archive.after-days must be greater than "
+                    + OwnerReservationLedgerService.MAX_RANGE_DAYS + " (ledger range limit)");
+        }
+        this.reservationRepo = reservationRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.jobs = jobs;
+        this.archiveAfter = Duration.ofDays(afterDays);
+        this.monthsAhead = monthsAhead;
+        this.chunkSize = chunkSize;
+        this.maxPerRun = maxPerRun;
+
+        this.archivedCounter = Counter.builder("ehalisaha.reservation_archive.archived")
+                .description("Arşive taşınan rezervasyonlar").register(meters);
+        this.unsettledCounter = Counter.builder("ehalisaha.reservation_archive.unsettled")
+                .description("Kapanmadan (CREATED / CONFIRMED) arşive taşınan eski rezervasyonlar").register(meters);
+        this.createdCounter = Counter.builder("ehalisaha.reservation_archive.partitions_created")
+                .description("Açılan aylık partition'lar").register(meters);
+        this.droppedCounter = Counter.builder("ehalisaha.reservation_archive.partitions_dropped")
+                .description("Boşalıp düşürülen aylık partition'lar").register(meters);
+    }
+
+    @Scheduled(fixedDelay = 3_600_000) // 1 saat
+    public void run() {
+        jobs.runExclusive(JOB_NAME, Duration.ofMinutes(50), this::maintain);
+    }
+
+    public RunResult maintain() {
+        Instant now = Instant.now();
+        Instant horizon = now.atOffset(ZoneOffset.UTC).plusMonths(monthsAhead).toInstant();
+        Instant cutoff = now.minus(archiveAfter);
+
+        int created = orZero(tx.execute(s -> reservationRepo.ensurePartitions(now, horizon)));
+
+        tx.executeWithoutResult(s -> reservationRepo.ensureArchivePartitions(cutoff));
+
+        int[] chunks = {0};
+        int settled = archive(cutoff, SETTLED, maxPerRun, chunks);
+        int unsettled = archive(cutoff, UNSETTLED, maxPerRun - settled, chunks);
+        int archived = settled + unsettled;
+
+        int dropped = orZero(tx.execute(s -> reservationRepo.dropEmptyPartitions(cutoff)));
+
+        createdCounter.increment(created);
+        archivedCounter.increment(archived);
+        unsettledCounter.increment(unsettled);
+        droppedCounter.increment(dropped);
+
+        return new RunResult(created, archived, unsettled, chunks[0], dropped);
+    }
+
+    /** Verilen durumlardaki satırları budget dolana kadar chunk'lar halinde taşır. */
+    private int archive(Instant cutoff, List<String> statuses, int budget, int[] chunks) {
+        int archived = 0;
+        while (archived < budget) {
+            int limit = Math.min(chunkSize, budget - archived);
+
+            List<Long> ids = tx.execute(s -> reservationRepo.archiveEndedBatch(cutoff, statuses, limit));
+            int n = ids == null ? 0 : ids.size();
+            if (n == 0) break;
+
+            archived += n;
+            chunks[0]++;
+
+            if (n < limit) break; // son chunk
+        }
+        return archived;
+    }
+
+    private static int orZero(Integer v) {
+        return v == null ? 0 : v;
+    }
+}
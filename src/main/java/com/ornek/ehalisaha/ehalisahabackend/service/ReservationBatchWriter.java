@@ -0,0 +1,153 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationPlayerAddRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rezervasyon serisi için toplu insert: rezervasyonlar, oyuncular ve ödemeler birer statement.
+ *
+ * Entity id'leri IDENTITY olduğu için Hibernate insert'leri batch'leyemez; burada diziler
+ * unnest ile tek insert'e açılır. Çağıranın transaction'ına katılır (aynı bağlantı).
+ * Native insert olduğundan @PrePersist varsayılanları (created_at, currency, paid) burada verilir.
+ * Oyuncu / ödeme id'leri entity'lerle aynı sequence'tan (nextval) alınır; Hibernate'in 50'lik
+ * blokları ayrı nextval değerleri olduğu için çakışmaz (sadece id boşluğu kalır).
+ */
+@Component
+public class ReservationBatchWriter {
+
+    private final JdbcTemplate jdbc;
+
+    public ReservationBatchWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Aynı saha / üyelik / fiyat / durum ile rezervasyonları ekler, id'leri entity'lere yazar.
+     * no_overlap_reservations ile çakışan satır eklenmez (on conflict do nothing): id'si null kalır.
+     */
+    public void insertReservations(List<Reservation> rs) {
+        if (rs.isEmpty()) return;
+        Reservation first = rs.get(0);
+
+        String[] starts = new String[rs.size()];
+        String[] ends = new String[rs.size()];
+        for (int i = 0; i < rs.size(); i++) {
+            starts[i] = rs.get(i).getStartTime().toString();
+            ends[i] = rs.get(i).getEndTime().toString();
+        }
+        Instant now = Instant.now();
+
+        // ord: listedeki sıra (1..n). Dönen id'ler sıraya göre eşlenir: Postgres zamanı mikrosaniyeye
+        // yuvarladığı için Java tarafındaki Instant ile eşleştirme nanosaniyeli girişte kaçar.
+        Long[] ids = jdbc.execute((ConnectionCallback<Long[]>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("""
+                    with src as (
+                        select cast(t.s as timestamptz) as st, cast(t.e as timestamptz) as en, t.ord
+                        from unnest(cast(? as text[]), cast(? as text[])) with ordinality as t(s, e, ord)
+                    ), ins as (
+                        insert into reservations
+                            (pitch_id, membership_id, start_time, end_time, status, total_price, shuttle_requested, created_at)
+                        select ?, ?, src.st, src.en, ?, ?, ?, cast(? as timestamptz)
+                        from src
+                        on conflict do nothing
+                        returning id, start_time
+                    )
+                    select src.ord, ins.id
+                    from ins join src on src.st = ins.start_time
+                    """)) {
+                ps.setArray(1, con.createArrayOf("text", starts));
+                ps.setArray(2, con.createArrayOf("text", ends));
+                ps.setLong(3, first.getPitchId());
+                ps.setLong(4, first.getMembershipId());
+                ps.setString(5, first.getStatus().name());
+                ps.setBigDecimal(6, first.getTotalPrice());
+                ps.setBoolean(7, Boolean.TRUE.equals(first.getShuttleRequested()));
+                ps.setString(8, now.toString());
+
+                Long[] out = new Long[rs.size()];
+                try (ResultSet r = ps.executeQuery()) {
+                    while (r.next()) out[r.getInt(1) - 1] = r.getLong(2);
+                }
+                return out;
+            }
+        });
+
+        // start_time seri içinde tekil (haftalık): src ile aynı cast, aynı yuvarlama
+        for (int i = 0; i < rs.size(); i++) {
+            rs.get(i).setId(ids[i]);
+            rs.get(i).setCreatedAt(now);
+        }
+    }
+
+    /** Her rezervasyona aynı oyuncu listesi (rezervasyon × oyuncu, tek insert). */
+    public void insertPlayers(List<Long> reservationIds, List<ReservationPlayerAddRequest> players) {
+        if (reservationIds.isEmpty() || players == null || players.isEmpty()) return;
+
+        String[] names = new String[players.size()];
+        Integer[] jerseys = new Integer[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            names[i] = players.get(i).fullName();
+            jerseys[i] = players.get(i).jerseyNo();
+        }
+
+        jdbc.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("""
+                    insert into reservation_players (id, reservation_id, full_name, jersey_no, paid)
+                    select nextval('reservation_players_seq'), r.id, p.full_name, p.jersey_no, false
+                    from unnest(cast(? as bigint[])) as r(id)
+                    cross join unnest(cast(? as text[]), cast(? as int[])) with ordinality as p(full_name, jersey_no, ord)
+                    order by r.id, p.ord
+                    """)) {
+                ps.setArray(1, longArray(con, reservationIds));
+                ps.setArray(2, con.createArrayOf("text", names));
+                ps.setArray(3, con.createArrayOf("int4", jerseys));
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    /** Her rezervasyon için bir ödeme (kart: simüle PAID, nakit: INIT). */
+    public void insertPayments(List<Long> reservationIds, PaymentMethod method, BigDecimal amount) {
+        if (reservationIds.isEmpty()) return;
+
+        boolean card = method == PaymentMethod.CARD;
+        String now = Instant.now().toString();
+
+        jdbc.execute((ConnectionCallback<Integer>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("""
+                    insert into payments (id, reservation_id, method, status, amount, currency, provider_ref, paid_at, created_at)
+                    select nextval('payments_seq'), r.id, ?, ?, ?, 'TRY',
+                           case when ? then 'SIMULATED-' || r.id end,
+                           cast(? as timestamptz), cast(? as timestamptz)
+                    from unnest(cast(? as bigint[])) as r(id)
+                    """)) {
+                ps.setString(1, method.name());
+                ps.setString(2, (card ? PaymentStatus.PAID : PaymentStatus.INIT).name());
+                ps.setBigDecimal(3, amount);
+                ps.setBoolean(4, card);
+                ps.setString(5, card ? now : null);
+                ps.setString(6, now);
+                ps.setArray(7, longArray(con, reservationIds));
+                return ps.executeUpdate();
+            }
+        });
+    }
+
+    private static Array longArray(Connection con, List<Long> ids) throws SQLException {
+        return con.createArrayOf("int8", ids.toArray(new Long[0]));
+    }
+}
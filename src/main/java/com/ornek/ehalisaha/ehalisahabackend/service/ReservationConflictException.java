@@ -0,0 +1,37 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Saha / zaman aralığı başka bir rezervasyonla çakışıyor (no_overlap_reservations).
+ * IllegalStateException olduğu için GlobalExceptionHandler'da 409 döner; çakışan id'ler body'ye eklenir.
+ */
+public class ReservationConflictException extends IllegalStateException {
+
+    /** exclusion_violation */
+    public static final String SQLSTATE_EXCLUSION_VIOLATION = "23P01";
+
+    private final List<Long> conflictingReservationIds;
+
+    public ReservationConflictException(List<Long> conflictingReservationIds) {
+        this(conflictingReservationIds, null);
+    }
+
+    public ReservationConflictException(List<Long> conflictingReservationIds, Throwable cause) {
+        super("Reservation overlaps with existing reservation", cause);
+        this.conflictingReservationIds = List.copyOf(conflictingReservationIds);
+    }
+
+    public List<Long> getConflictingReservationIds() {
+        return conflictingReservationIds;
+    }
+
+    /** Zincirde 23P01 (exclusion constraint ihlali) var mı? */
+    public static boolean isExclusionViolation(Throwable t) {
+        for (Throwable x = t; x != null; x = x.getCause()) {
+            if (x instanceof SQLException sql && SQLSTATE_EXCLUSION_VIOLATION.equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
+}
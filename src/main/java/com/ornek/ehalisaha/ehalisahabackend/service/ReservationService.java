@@ -6,7 +6,10 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
 import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationCreateRequest;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationSeriesRequest;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,53 +19,70 @@ import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class ReservationService {
 
     private static final ZoneId FACILITY_TZ = ZoneId.of("Europe/Istanbul");
 
-    private final PitchRepository pitchRepo;
-    private final FacilityRepository facilityRepo;
-    private final FacilitySlotRepository slotRepo;
+    // çakışan satır insert ile sınıflandırma arasında iptal edildiyse tekrar deneme sayısı (toplam)
+    private static final int INSERT_ATTEMPTS = 2;
+
+    // V5 ck_res_max_duration ile aynı sınır: DB'ye gitmeden 400 (constraint ihlali 500 olurdu)
+    static final int MAX_DURATION_MINUTES = 24 * 60;
+
+    // tesis / saha / slot / süre / fiyat okumaları cache'ten (booking yolunda 5 sorgu)
+    private final CatalogCache catalog;
 
     private final MembershipRepository membershipRepo;
-    private final DurationOptionRepository durationRepo;
-    private final PricingRuleRepository pricingRepo;
     private final ReservationRepository reservationRepo;
     private final ReservationPlayerRepository playerRepo;
     private final PaymentRepository paymentRepo;
     private final AuditService audit;
+    private final ApplicationEventPublisher events;
+    private final ReservationBatchWriter batch;
 
-    public ReservationService(PitchRepository pitchRepo,
-                              FacilityRepository facilityRepo,
-                              FacilitySlotRepository slotRepo,
+    public ReservationService(CatalogCache catalog,
                               MembershipRepository membershipRepo,
-                              DurationOptionRepository durationRepo,
-                              PricingRuleRepository pricingRepo,
                               ReservationRepository reservationRepo,
                               ReservationPlayerRepository playerRepo,
                               PaymentRepository paymentRepo,
-                              AuditService audit) {
-        this.pitchRepo = pitchRepo;
-        this.facilityRepo = facilityRepo;
-        this.slotRepo = slotRepo;
+                              AuditService audit,
+                              ApplicationEventPublisher events,
+                              ReservationBatchWriter batch) {
+        this.catalog = catalog;
         this.membershipRepo = membershipRepo;
-        this.durationRepo = durationRepo;
-        this.pricingRepo = pricingRepo;
         this.reservationRepo = reservationRepo;
         this.playerRepo = playerRepo;
         this.paymentRepo = paymentRepo;
         this.audit = audit;
+        this.events = events;
+        this.batch = batch;
     }
 
+    /** Serinin tek haftası: reservationId (oluşturulduysa) ya da çakıştığı rezervasyonlar. */
+    public record SeriesOccurrence(
+            Instant startTime,
+            Instant endTime,
+            Long reservationId,
+            List<Long> conflictsWith
+    ) {}
+
+    public record SeriesResult(
+            int requested,
+            int created,
+            BigDecimal pricePerOccurrence,
+            List<SeriesOccurrence> occurrences
+    ) {}
+
     @Transactional
     public Reservation create(Long userId, ReservationCreateRequest req) {
 
-        Pitch pitch = pitchRepo.findById(req.pitchId())
+        Pitch pitch = catalog.pitch(req.pitchId())
                 .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + req.pitchId()));
 
-        Facility fac = facilityRepo.findById(pitch.getFacilityId())
+        Facility fac = catalog.facility(pitch.getFacilityId())
                 .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + pitch.getFacilityId()));
 
         Membership mem = membershipRepo.findByFacilityIdAndUserId(pitch.getFacilityId(), userId)
@@ -79,26 +99,14 @@ public class ReservationService {
         int multiplier = minutes / baseDur;
 
         // ✅ TEK TARİFE: sadece base slot (genelde 60dk) fiyatı tutulur
-        DurationOption baseOpt = durationRepo.findByMinutes(baseDur)
+        DurationOption baseOpt = catalog.duration(baseDur)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid base duration option: " + baseDur));
 
-        PricingRule pr = pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(pitch.getId(), baseOpt.getId())
+        PricingRule pr = catalog.activePrice(pitch.getId(), baseOpt.getId())
                 .orElseThrow(() -> new IllegalStateException("Pricing not set for this pitch (base duration=" + baseDur + ")"));
 
         Instant end = req.startTime().plus(minutes, ChronoUnit.MINUTES);
 
-        // ✅ BACKEND OVERLAP CHECK (UI değil, kural burada)
-        boolean overlap = reservationRepo.existsOverlappingForPitch(
-                pitch.getId(),
-                req.startTime(),
-                end,
-                ReservationStatus.CANCELLED
-        );
-
-        if (overlap) {
-            throw new IllegalStateException("Reservation overlaps with existing reservation");
-        }
-
         Reservation r = new Reservation();
         r.setPitchId(pitch.getId());
         r.setMembershipId(mem.getId());
@@ -114,20 +122,18 @@ public class ReservationService {
         else r.setStatus(ReservationStatus.CREATED);
 
 
-        Reservation saved;
-        try {
-            saved = reservationRepo.save(r);
-        } catch (DataIntegrityViolationException ex) {
-            throw new IllegalStateException("Reservation overlaps with existing reservation", ex);
-        }
+        // ✅ OVERLAP KURALI DB'de (no_overlap_reservations): önce insert, olmazsa sınıflandır
+        Reservation saved = insertOrClassify(r);
+
+        // ✅ saveAll: sequence id'li, commit'teki flush'ta tek JDBC batch
         if (req.players() != null) {
-            req.players().forEach(p -> {
+            playerRepo.saveAll(req.players().stream().map(p -> {
                 ReservationPlayer rp = new ReservationPlayer();
                 rp.setReservationId(saved.getId());
                 rp.setFullName(p.fullName());
                 rp.setJerseyNo(p.jerseyNo());
-                playerRepo.save(rp);
-            });
+                return rp;
+            }).toList());
         }
 
         Payment pay = new Payment();
@@ -153,9 +159,178 @@ public class ReservationService {
                         + ", method=" + req.paymentMethod()
                         + ", shuttle=" + saved.getShuttleRequested());
 
+        // occupancy index, owner bildirimi vb. commit sonrası
+        events.publishEvent(ReservationChangedEvent.of(saved, fac.getId(), fac.getOwnerUserId(), "RESERVATION_CREATE"));
+
         return saved;
     }
 
+    /**
+     * Haftalık seri: tüm haftalar tek seferde doğrulanır ve yazılır.
+     *
+     * - Slot / fiyat kuralı her hafta için aynı (tesis saatiyle aynı dakika) → bir kez hesaplanır.
+     * - Çakışmalar tüm ufuk için tek {@code findOverlappingForPitch} sorgusuyla, bellekte haftalara dağıtılır.
+     * - Rezervasyon / oyuncu / ödeme insert'leri {@link ReservationBatchWriter} ile birer statement.
+     * - Çakışma varsa: skipConflicts=false → hiçbir şey yazılmaz (created=0, rapor döner);
+     *   true → boş haftalar oluşturulur.
+     */
+    @Transactional
+    public SeriesResult createSeries(Long userId, ReservationSeriesRequest req) {
+
+        Pitch pitch = catalog.pitch(req.pitchId())
+                .orElseThrow(() -> new IllegalArgumentException("Pitch not found: " + req.pitchId()));
+
+        Facility fac = catalog.facility(pitch.getFacilityId())
+                .orElseThrow(() -> new IllegalArgumentException("Facility not found: " + pitch.getFacilityId()));
+
+        Membership mem = membershipRepo.findByFacilityIdAndUserId(pitch.getFacilityId(), userId)
+                .orElseThrow(() -> new SecurityException("You are not approved member of this facility"));
+
+        if (mem.getStatus() != MembershipStatus.ACTIVE) {
+            throw new SecurityException("Membership is not ACTIVE for this facility. Ask owner to approve your membership request.");
+        }
+
+        SlotPick slotPick = pickSlotOrThrow(fac.getId(), req.firstStartTime(), req.durationMinutes());
+        int minutes = slotPick.minutes();
+        int baseDur = slotPick.baseSlotMinutes();
+        int multiplier = minutes / baseDur;
+
+        DurationOption baseOpt = catalog.duration(baseDur)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid base duration option: " + baseDur));
+
+        PricingRule pr = catalog.activePrice(pitch.getId(), baseOpt.getId())
+                .orElseThrow(() -> new IllegalStateException("Pricing not set for this pitch (base duration=" + baseDur + ")"));
+
+        BigDecimal total = pr.getPrice().multiply(BigDecimal.valueOf(multiplier));
+
+        // haftalar tesis saatiyle ilerler (yaz saati olsa da 21:00 hep 21:00)
+        ZonedDateTime first = req.firstStartTime().atZone(FACILITY_TZ);
+        List<Instant> starts = new ArrayList<>(req.weeks());
+        for (int i = 0; i < req.weeks(); i++) starts.add(first.plusWeeks(i).toInstant());
+
+        Instant horizonEnd = starts.get(starts.size() - 1).plus(minutes, ChronoUnit.MINUTES);
+
+        // ✅ tüm ufuk için tek overlap sorgusu
+        List<Reservation> busy = reservationRepo.findOverlappingForPitch(
+                pitch.getId(), starts.get(0), horizonEnd, ReservationStatus.CANCELLED);
+
+        List<List<Long>> conflicts = new ArrayList<>(starts.size());
+        int conflictCount = 0;
+        for (Instant st : starts) {
+            Instant en = st.plus(minutes, ChronoUnit.MINUTES);
+            List<Long> c = busy.stream()
+                    .filter(b -> b.getStartTime().isBefore(en) && b.getEndTime().isAfter(st))
+                    .map(Reservation::getId)
+                    .toList();
+            conflicts.add(c);
+            if (!c.isEmpty()) conflictCount++;
+        }
+
+        boolean skip = Boolean.TRUE.equals(req.skipConflicts());
+        List<Reservation> toCreate = new ArrayList<>();
+        if (conflictCount == 0 || skip) {
+            ReservationStatus status = req.paymentMethod() == PaymentMethod.CARD
+                    ? ReservationStatus.CONFIRMED : ReservationStatus.CREATED;
+            for (int i = 0; i < starts.size(); i++) {
+                if (!conflicts.get(i).isEmpty()) continue;
+                Reservation r = new Reservation();
+                r.setPitchId(pitch.getId());
+                r.setMembershipId(mem.getId());
+                r.setStartTime(starts.get(i));
+                r.setEndTime(starts.get(i).plus(minutes, ChronoUnit.MINUTES));
+                r.setTotalPrice(total);
+                r.setShuttleRequested(req.shuttle() != null && req.shuttle());
+                r.setStatus(status);
+                toCreate.add(r);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            try {
+                batch.insertReservations(toCreate);
+            } catch (DataIntegrityViolationException ex) {
+                if (!ReservationConflictException.isExclusionViolation(ex)) throw ex;
+                throw new ReservationConflictException(List.of(), ex);
+            }
+
+            // ön kontrolden sonra araya giren rezervasyon: constraint o haftayı eklemedi
+            List<Reservation> lost = toCreate.stream().filter(r -> r.getId() == null).toList();
+            if (!lost.isEmpty()) {
+                if (!skip) {
+                    throw new ReservationConflictException(
+                            conflictsOf(pitch.getId(), lost.get(0).getStartTime(), lost.get(lost.size() - 1).getEndTime()));
+                }
+                for (Reservation l : lost) {
+                    conflicts.set(starts.indexOf(l.getStartTime()), conflictsOf(pitch.getId(), l.getStartTime(), l.getEndTime()));
+                }
+                toCreate.removeAll(lost);
+            }
+        }
+
+        if (!toCreate.isEmpty()) {
+            List<Long> ids = toCreate.stream().map(Reservation::getId).toList();
+            batch.insertPlayers(ids, req.players());
+            batch.insertPayments(ids, req.paymentMethod(), total);
+
+            audit.log(userId, "RESERVATION_SERIES_CREATE", "Reservation", ids.get(0),
+                    "pitchId=" + pitch.getId()
+                            + ", weeks=" + req.weeks()
+                            + ", created=" + ids.size()
+                            + ", minutes=" + minutes
+                            + ", method=" + req.paymentMethod()
+                            + ", ids=" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+            for (Reservation r : toCreate) {
+                events.publishEvent(ReservationChangedEvent.of(r, fac.getId(), fac.getOwnerUserId(), "RESERVATION_CREATE"));
+            }
+        }
+
+        List<SeriesOccurrence> occ = new ArrayList<>(starts.size());
+        int k = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            Long id = null;
+            if (k < toCreate.size() && toCreate.get(k).getStartTime().equals(starts.get(i))) {
+                id = toCreate.get(k++).getId();
+            }
+            occ.add(new SeriesOccurrence(starts.get(i), starts.get(i).plus(minutes, ChronoUnit.MINUTES), id, conflicts.get(i)));
+        }
+
+        return new SeriesResult(starts.size(), toCreate.size(), total, occ);
+    }
+
+    /**
+     * Insert-and-classify: çakışma yoksa tek statement. Satır eklenmediyse (ya da 23P01 geldiyse)
+     * çakışan rezervasyonlar okunur; çakışan kalmamışsa (arada iptal edildi) insert tekrar denenir.
+     */
+    private Reservation insertOrClassify(Reservation r) {
+        for (int attempt = 1; ; attempt++) {
+            List<Long> ids;
+            try {
+                r.setCreatedAt(Instant.now());
+                ids = reservationRepo.insertIfFree(r.getPitchId(), r.getMembershipId(), r.getStartTime(), r.getEndTime(),
+                        r.getStatus().name(), r.getTotalPrice(), Boolean.TRUE.equals(r.getShuttleRequested()),
+                        r.getCreatedAt());
+            } catch (DataIntegrityViolationException ex) {
+                if (!ReservationConflictException.isExclusionViolation(ex)) throw ex;
+                throw new ReservationConflictException(conflictsOf(r.getPitchId(), r.getStartTime(), r.getEndTime()), ex);
+            }
+            if (!ids.isEmpty()) {
+                r.setId(ids.get(0));
+                return r;
+            }
+
+            List<Long> conflicts = conflictsOf(r.getPitchId(), r.getStartTime(), r.getEndTime());
+            if (!conflicts.isEmpty() || attempt >= INSERT_ATTEMPTS) {
+                throw new ReservationConflictException(conflicts);
+            }
+        }
+    }
+
+    private List<Long> conflictsOf(Long pitchId, Instant start, Instant end) {
+        return reservationRepo.findOverlappingForPitch(pitchId, start, end, ReservationStatus.CANCELLED)
+                .stream().map(Reservation::getId).toList();
+    }
+
     private record SlotPick(int slotStartMinute, int baseSlotMinutes, int minutes) {}
 
     private static List<FacilitySlot> defaultHourlyVirtualSlots(Long facilityId) {
@@ -174,7 +349,7 @@ public class ReservationService {
     private SlotPick pickSlotOrThrow(Long facilityId, Instant startTime, Integer requestedMinutes) {
         int startMinuteOfDay = minuteOfDayFacility(startTime);
 
-        List<FacilitySlot> slots = slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(facilityId);
+        List<FacilitySlot> slots = catalog.activeSlots(facilityId);
 
         // DB’de hiç slot yoksa default “virtual”
         if (slots.isEmpty()) {
@@ -193,6 +368,9 @@ public class ReservationService {
         int finalMinutes = (requestedMinutes == null) ? baseDur : requestedMinutes;
 
         if (finalMinutes <= 0) throw new IllegalArgumentException("durationMinutes must be > 0");
+        if (finalMinutes > MAX_DURATION_MINUTES) {
+            throw new IllegalArgumentException("durationMinutes must be at most " + MAX_DURATION_MINUTES + " (one day)");
+        }
         if (finalMinutes % baseDur != 0) {
             throw new IllegalArgumentException("durationMinutes must be multiple of slot duration (" + baseDur + ")");
         }
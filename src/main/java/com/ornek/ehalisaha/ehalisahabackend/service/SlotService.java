@@ -26,14 +26,16 @@ public class SlotService {
 
     private final FacilitySlotRepository slotRepo;
     private final FacilityRepository facilityRepo;
+    private final CatalogCache catalog;
 
-    public SlotService(FacilitySlotRepository slotRepo, FacilityRepository facilityRepo) {
+    public SlotService(FacilitySlotRepository slotRepo, FacilityRepository facilityRepo, CatalogCache catalog) {
         this.slotRepo = slotRepo;
         this.facilityRepo = facilityRepo;
+        this.catalog = catalog;
     }
 
     public List<SlotDto> publicSlots(Long facilityId) {
-        List<FacilitySlot> slots = slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(facilityId);
+        List<FacilitySlot> slots = catalog.activeSlots(facilityId);
         if (!slots.isEmpty()) {
             return slots.stream()
                     .map(s -> new SlotDto(s.getId(), s.getStartMinute(), s.getDurationMinutes(), Boolean.TRUE.equals(s.getActive())))
@@ -119,6 +121,7 @@ public class SlotService {
         }
 
         slotRepo.flush();
+        catalog.invalidateFacility(facilityId);
 
         // ✅ owner ekranında kapalı slotlar da görünsün
         return ownerSlots(ownerUserId, facilityId);
@@ -0,0 +1,88 @@
+-- V2__align_with_entities.sql
+-- V1 şemasını JPA entity'leriyle hizalar (ddl-auto kapatıldı, şemayı Flyway yönetiyor).
+
+-- ======================
+-- FACILITIES & PITCHES: normalize isim anahtarı (trim + lower + tek boşluk)
+-- ======================
+ALTER TABLE facilities ADD COLUMN IF NOT EXISTS name_key VARCHAR(120) COLLATE "C";
+UPDATE facilities SET name_key = lower(regexp_replace(trim(name), '\s+', ' ', 'g')) WHERE name_key IS NULL;
+ALTER TABLE facilities ALTER COLUMN name_key SET NOT NULL;
+ALTER TABLE facilities
+    ADD CONSTRAINT uk_facilities_owner_name_key UNIQUE (owner_user_id, name_key);
+-- public listede isim öneki (name_key like 'abc%'): C collation ile btree kullanılabilir
+CREATE INDEX IF NOT EXISTS ix_facilities_name_key ON facilities(name_key);
+
+ALTER TABLE pitches ADD COLUMN IF NOT EXISTS name_key VARCHAR(120);
+UPDATE pitches SET name_key = lower(regexp_replace(trim(name), '\s+', ' ', 'g')) WHERE name_key IS NULL;
+ALTER TABLE pitches ALTER COLUMN name_key SET NOT NULL;
+ALTER TABLE pitches
+    ADD CONSTRAINT uk_pitches_facility_name_key UNIQUE (facility_id, name_key);
+
+-- ======================
+-- FACILITY SLOTS
+-- ======================
+CREATE TABLE IF NOT EXISTS facility_slots (
+    id BIGSERIAL PRIMARY KEY,
+    facility_id BIGINT NOT NULL,
+    start_minute INT NOT NULL,        -- 17:00 => 1020
+    duration_minutes INT NOT NULL,    -- 60
+    active BOOLEAN NOT NULL DEFAULT true,
+    CONSTRAINT fk_slot_fac FOREIGN KEY (facility_id) REFERENCES facilities(id) ON DELETE CASCADE,
+    CONSTRAINT uk_facility_slot UNIQUE (facility_id, start_minute, duration_minutes)
+);
+
+-- ======================
+-- RESERVATIONS
+-- ======================
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS shuttle_requested BOOLEAN NOT NULL DEFAULT false;
+
+-- Uygulama kuralı "CANCELLED dışındaki her rezervasyon" (overlap / boş slot sorguları):
+-- constraint aynı kümeyi korusun (COMPLETED da dahil).
+ALTER TABLE reservations DROP CONSTRAINT IF EXISTS no_overlap_reservations;
+ALTER TABLE reservations
+    ADD CONSTRAINT no_overlap_reservations
+    EXCLUDE USING gist (
+        pitch_id WITH =,
+        tstzrange(start_time, end_time, '[)') WITH &&
+    )
+    WHERE (status <> 'CANCELLED');
+
+ALTER TABLE reservation_players ADD COLUMN IF NOT EXISTS paid BOOLEAN NOT NULL DEFAULT false;
+
+-- ======================
+-- MATCH VIDEOS: yayın zamanı sonradan set edilebilir
+-- ======================
+ALTER TABLE match_videos ALTER COLUMN published_at DROP NOT NULL;
+
+-- ======================
+-- SEQUENCE id'ler (50'lik blok, Hibernate pooled optimizer + JDBC batch)
+-- ======================
+CREATE SEQUENCE IF NOT EXISTS reservation_players_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS audit_logs_seq START WITH 1 INCREMENT BY 50;
+
+-- mevcut satırlar varsa: pooled blok (değer - 49 .. değer) eski id'lerin üstünde başlasın
+SELECT setval('reservation_players_seq', max(id) + 50) FROM reservation_players HAVING max(id) IS NOT NULL;
+SELECT setval('payments_seq', max(id) + 50) FROM payments HAVING max(id) IS NOT NULL;
+SELECT setval('audit_logs_seq', max(id) + 50) FROM audit_logs HAVING max(id) IS NOT NULL;
+
+-- id'yi artık uygulama (Hibernate / batch writer) verir
+ALTER TABLE reservation_players ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE payments ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE audit_logs ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS reservation_players_id_seq;
+DROP SEQUENCE IF EXISTS payments_id_seq;
+DROP SEQUENCE IF EXISTS audit_logs_id_seq;
+ALTER SEQUENCE reservation_players_seq OWNED BY reservation_players.id;
+ALTER SEQUENCE payments_seq OWNED BY payments.id;
+ALTER SEQUENCE audit_logs_seq OWNED BY audit_logs.id;
+
+-- ======================
+-- SCHEDULED JOBS (JobCoordinator: node'lar arası son çalışma)
+-- ======================
+CREATE TABLE IF NOT EXISTS scheduled_job_runs (
+    job_name VARCHAR(80) PRIMARY KEY,
+    last_started_at TIMESTAMPTZ NOT NULL,
+    last_finished_at TIMESTAMPTZ,
+    last_node VARCHAR(80)
+);
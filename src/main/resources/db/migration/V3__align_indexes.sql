@@ -0,0 +1,39 @@
+-- V3__align_indexes.sql
+-- Entity'lerde (@Table indexes / uniqueConstraints) tanımlı index'ler ile şemayı hizalar.
+-- Bileşik / unique bir index'in ilk kolonu olan tek kolonlu index'ler tanımlanmaz (aynı işi görür).
+
+-- ======================
+-- UNIQUE constraint isimleri = entity isimleri
+-- ======================
+ALTER TABLE memberships RENAME CONSTRAINT uk_mem TO uk_membership_facility_user;
+ALTER TABLE membership_requests RENAME CONSTRAINT uk_mr TO uk_membership_req_facility_user;
+ALTER TABLE pricing_rules RENAME CONSTRAINT uk_pr TO uk_pricing_pitch_duration;
+ALTER TABLE duration_options RENAME CONSTRAINT duration_options_minutes_key TO uk_duration_minutes;
+ALTER TABLE payments RENAME CONSTRAINT payments_reservation_id_key TO uk_payment_reservation;
+ALTER TABLE match_videos RENAME CONSTRAINT match_videos_reservation_id_key TO uk_video_reservation;
+
+-- (facility_id, name) yerine (facility_id, name_key) (V2): büyük/küçük harf farkı da aynı isim sayılır
+ALTER TABLE pitches DROP CONSTRAINT IF EXISTS uk_pitch_fac_name;
+
+-- owner aramaları uk_facilities_owner_name_key (owner_user_id, name_key) ile
+DROP INDEX IF EXISTS idx_fac_owner;
+
+-- ======================
+-- FK / filtre index'leri
+-- ======================
+CREATE INDEX IF NOT EXISTS ix_res_membership ON reservations(membership_id);
+CREATE INDEX IF NOT EXISTS ix_res_start ON reservations(start_time);
+CREATE INDEX IF NOT EXISTS ix_res_end ON reservations(end_time);
+
+CREATE INDEX IF NOT EXISTS ix_rp_reservation ON reservation_players(reservation_id);
+
+CREATE INDEX IF NOT EXISTS ix_membership_user ON memberships(user_id);
+CREATE INDEX IF NOT EXISTS ix_membership_status ON memberships(status);
+
+CREATE INDEX IF NOT EXISTS ix_mreq_user ON membership_requests(user_id);
+
+CREATE INDEX IF NOT EXISTS ix_pricing_duration ON pricing_rules(duration_option_id);
+
+CREATE INDEX IF NOT EXISTS ix_pay_status ON payments(status);
+
+CREATE INDEX IF NOT EXISTS ix_video_status ON match_videos(status);
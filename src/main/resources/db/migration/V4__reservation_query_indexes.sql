@@ -0,0 +1,24 @@
+-- V4__reservation_query_indexes.sql
+-- ReservationRepository sorgu şekillerine göre index'ler (ReservationIndexUsageIT EXPLAIN ile doğrular).
+
+-- Overlap sorguları (findOverlappingForPitch / existsOverlappingForPitch / countOverlappingForPitch,
+-- findOverlappingForPitches, occupancy): pitch_id = ? and start_time < :end and end_time > :start
+-- and status <> :excluded.
+-- end_time > :start alttan sınırlı → sahanın geçmiş rezervasyonları taranmaz (idx_res_pitch_time'da
+-- start_time < :end tüm geçmişi tarar). exists / count için index-only: start_time, status, id INCLUDE.
+-- status JPQL'de bind parametresi: partial index (WHERE status <> 'CANCELLED') generic plan'da eşleşmez.
+CREATE INDEX IF NOT EXISTS ix_res_pitch_end
+    ON reservations (pitch_id, end_time) INCLUDE (start_time, status, id);
+
+-- ownerMaxReservationId / ownerCountReservationsAfterId (bildirim polling'i):
+-- owner'ın sahaları üzerinden r.id > :afterId and status <> :excluded → saha başına id aralığı, index-only.
+CREATE INDEX IF NOT EXISTS ix_res_pitch_id
+    ON reservations (pitch_id, id) INCLUDE (status);
+
+-- completeEndedBatch: status = 'CONFIRMED' (literal) and end_time < :now order by end_time, id limit n
+-- → partial index sıralı okunur, sort yok; ilk n satırda durur. Sadece CONFIRMED satırlar: küçük kalır.
+CREATE INDEX IF NOT EXISTS ix_res_confirmed_end
+    ON reservations (end_time, id) WHERE status = 'CONFIRMED';
+
+-- tek başına end_time aralığı arayan sorgu kalmadı (yukarıdakiler karşılıyor)
+DROP INDEX IF EXISTS ix_res_end;
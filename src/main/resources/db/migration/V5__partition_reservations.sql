@@ -0,0 +1,233 @@
+-- V5__partition_reservations.sql
+-- reservations: start_time'a göre aylık range partition (UTC ay sınırları) + soğuk arşiv tabloları.
+-- Sıcak sorgular (overlap, boş slot, ledger) birkaç günlük pencereye bakar: partition pruning ile
+-- sadece o ayların index'leri okunur; eski COMPLETED / CANCELLED satırlar ReservationArchiveScheduler
+-- ile *_archive tablolarına taşınır, boşalan eski partition'lar düşürülür.
+
+-- ======================
+-- FK'ler: partitioned tabloya FK sadece (id, start_time) üzerinden verilebilir, çocuklarda start_time yok.
+-- Rezervasyon uygulamada silinmez (sadece arşivlenir, çocuklarıyla birlikte); çocuklar aynı transaction'da yazılır.
+-- ======================
+ALTER TABLE reservation_players DROP CONSTRAINT IF EXISTS fk_rp_res;
+ALTER TABLE payments DROP CONSTRAINT IF EXISTS fk_pay_res;
+ALTER TABLE match_videos DROP CONSTRAINT IF EXISTS fk_vid_res;
+
+ALTER TABLE reservations RENAME TO reservations_unpartitioned;
+ALTER SEQUENCE reservations_id_seq OWNED BY NONE;
+
+CREATE TABLE reservations (
+    id BIGINT NOT NULL DEFAULT nextval('reservations_id_seq'),
+    pitch_id BIGINT NOT NULL,
+    membership_id BIGINT NOT NULL,
+    start_time TIMESTAMPTZ NOT NULL,
+    end_time TIMESTAMPTZ NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'CREATED',
+    total_price NUMERIC(10,2) NOT NULL DEFAULT 0,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    shuttle_requested BOOLEAN NOT NULL DEFAULT false,
+    -- PK partition key'i içermeli; id tek başına yine sequence'ten tekil
+    CONSTRAINT pk_reservations PRIMARY KEY (id, start_time),
+    CONSTRAINT fk_res_pitch FOREIGN KEY (pitch_id) REFERENCES pitches(id) ON DELETE CASCADE,
+    CONSTRAINT fk_res_mem FOREIGN KEY (membership_id) REFERENCES memberships(id) ON DELETE CASCADE,
+    CONSTRAINT ck_time CHECK (end_time > start_time),
+    -- en fazla 1 gün: satır komşu aya en fazla 1 gün taşar (overlap sorgularındaki start_time alt sınırı buna dayanır)
+    CONSTRAINT ck_res_max_duration CHECK (end_time <= start_time + interval '1 day'),
+    CONSTRAINT ck_res_status CHECK (status IN ('CREATED','CONFIRMED','CANCELLED','COMPLETED'))
+) PARTITION BY RANGE (start_time);
+
+-- Ufkun ötesindeki (ya da partition'ı henüz açılmamış) rezervasyonlar; ay açılınca oraya taşınır.
+CREATE TABLE reservations_default PARTITION OF reservations DEFAULT;
+ALTER TABLE reservations_default
+    ADD CONSTRAINT reservations_default_no_overlap
+    EXCLUDE USING gist (
+        pitch_id WITH =,
+        tstzrange(start_time, end_time, '[)') WITH &&
+    )
+    WHERE (status <> 'CANCELLED');
+
+-- ======================
+-- Aylık partition'lar: reservations_pYYYYMM = [ay başı, sonraki ay başı) UTC.
+-- Exclusion constraint partitioned tabloda tanımlanamıyor (partition key '=' ile geçmeli) → her partition'da.
+-- Tablo ayrı kurulup ATTACH edilir: parent'ta sadece SHARE UPDATE EXCLUSIVE kilit, index / FK / trigger'lar
+-- attach sırasında parent'tan gelir.
+-- ======================
+CREATE OR REPLACE FUNCTION reservations_ensure_partitions(from_ts timestamptz, to_ts timestamptz)
+RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    m timestamp := date_trunc('month', from_ts AT TIME ZONE 'UTC');
+    lo timestamptz;
+    hi timestamptz;
+    part text;
+    created int := 0;
+BEGIN
+    WHILE m <= to_ts AT TIME ZONE 'UTC' LOOP
+        part := 'reservations_p' || to_char(m, 'YYYYMM');
+        IF to_regclass(part) IS NULL THEN
+            lo := m AT TIME ZONE 'UTC';
+            hi := (m + interval '1 month') AT TIME ZONE 'UTC';
+
+            EXECUTE format('CREATE TABLE %I (LIKE reservations INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part);
+            -- default'a düşmüş satırlar yeni partition'a (attach, default'ta bu aralık kalmamasını ister)
+            EXECUTE format('WITH moved AS (DELETE FROM reservations_default WHERE start_time >= %L AND start_time < %L RETURNING *) '
+                           'INSERT INTO %I SELECT * FROM moved', lo, hi, part);
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I EXCLUDE USING gist '
+                           '(pitch_id WITH =, tstzrange(start_time, end_time, %L) WITH &&) WHERE (status <> %L)',
+                           part, part || '_no_overlap', '[)', 'CANCELLED');
+            EXECUTE format('ALTER TABLE reservations ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, lo, hi);
+            created := created + 1;
+        END IF;
+        m := m + interval '1 month';
+    END LOOP;
+    RETURN created;
+END $$;
+
+-- Tamamen bitmiş (upper bound <= before_ts) ve boşalmış ayları düşürür. Kilit alınamazsa o ay atlanır.
+CREATE OR REPLACE FUNCTION reservations_drop_empty_partitions(before_ts timestamptz)
+RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    part text;
+    hi timestamptz;
+    empty boolean;
+    dropped int := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'reservations'::regclass
+          AND c.relname ~ '^reservations_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        hi := (to_date(substr(part, 15), 'YYYYMM') + interval '1 month')::timestamp AT TIME ZONE 'UTC';
+        EXIT WHEN hi > before_ts;
+
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', part) INTO empty;
+        CONTINUE WHEN NOT empty;
+
+        BEGIN
+            PERFORM set_config('lock_timeout', '2s', true);
+            EXECUTE format('DROP TABLE %I', part);
+            dropped := dropped + 1;
+        EXCEPTION WHEN lock_not_available THEN
+            NULL; -- sonraki çalıştırmada
+        END;
+    END LOOP;
+    RETURN dropped;
+END $$;
+
+-- mevcut veri + bu aydan 15 ay ileri (haftalık seri en fazla 52 hafta)
+SELECT reservations_ensure_partitions(
+           least(coalesce(min(start_time), now()), now()),
+           greatest(coalesce(max(start_time), now()), now() + interval '15 months'))
+FROM reservations_unpartitioned;
+
+INSERT INTO reservations (id, pitch_id, membership_id, start_time, end_time, status, total_price, created_at, shuttle_requested)
+SELECT id, pitch_id, membership_id, start_time, end_time, status, total_price, created_at, shuttle_requested
+FROM reservations_unpartitioned;
+
+DROP TABLE reservations_unpartitioned;
+ALTER SEQUENCE reservations_id_seq OWNED BY reservations.id;
+
+-- ======================
+-- Index'ler (V1 / V3 / V4 ile aynı isimler; parent'ta tanımlanır, her partition'a iner)
+-- ======================
+CREATE INDEX idx_res_pitch_time ON reservations (pitch_id, start_time);
+CREATE INDEX ix_res_membership ON reservations (membership_id);
+CREATE INDEX ix_res_start ON reservations (start_time);
+CREATE INDEX ix_res_pitch_end ON reservations (pitch_id, end_time) INCLUDE (start_time, status, id);
+CREATE INDEX ix_res_pitch_id ON reservations (pitch_id, id) INCLUDE (status);
+CREATE INDEX ix_res_confirmed_end ON reservations (end_time, id) WHERE status = 'CONFIRMED';
+-- findById / ownerCountReservationsAfterId: PK (id, start_time) id ile başlıyor, ayrıca gerekmez
+
+-- ======================
+-- Ay sınırını aşan overlap: iki satır farklı partition'larda ise hiçbir exclusion constraint ikisini birden görmez.
+-- Bu sadece ayın ilk gününde başlayan ya da sonraki aya taşan satırlarda olabilir (süre <= 1 gün):
+-- onlar saha bazında advisory lock ile sıraya girip komşu ayı kontrol eder.
+-- INSERT'te satır sessizce atlanır (tüm insert yolları ON CONFLICT DO NOTHING: RETURNING boş döner),
+-- UPDATE'te (CANCELLED → aktif) exclusion_violation atılır (ReservationConflictException).
+-- ======================
+CREATE OR REPLACE FUNCTION reservations_cross_partition_overlap()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    m timestamp := date_trunc('month', NEW.start_time AT TIME ZONE 'UTC');
+    lo timestamptz := m AT TIME ZONE 'UTC';
+    hi timestamptz := (m + interval '1 month') AT TIME ZONE 'UTC';
+BEGIN
+    IF NEW.status = 'CANCELLED' THEN RETURN NEW; END IF;
+    IF TG_OP = 'UPDATE' AND OLD.status <> 'CANCELLED' THEN RETURN NEW; END IF;
+    IF NEW.start_time >= lo + interval '1 day' AND NEW.end_time <= hi THEN RETURN NEW; END IF;
+
+    -- "EH" + 0001 (JobCoordinator ile aynı namespace düzeni), ikinci anahtar saha
+    PERFORM pg_advisory_xact_lock(1162346497, (NEW.pitch_id % 2147483647)::int);
+
+    IF EXISTS (
+        SELECT 1
+        FROM reservations r
+        WHERE r.pitch_id = NEW.pitch_id
+          AND r.status <> 'CANCELLED'
+          AND r.start_time > NEW.start_time - interval '1 day'
+          AND r.start_time < NEW.end_time
+          AND r.end_time > NEW.start_time
+          AND (r.start_time < lo OR r.start_time >= hi)
+    ) THEN
+        IF TG_OP = 'INSERT' THEN
+            RETURN NULL;
+        END IF;
+        RAISE EXCEPTION 'reservation % overlaps across partition boundary', NEW.id
+            USING ERRCODE = 'exclusion_violation';
+    END IF;
+    RETURN NEW;
+END $$;
+
+CREATE TRIGGER trg_res_cross_partition_overlap
+    BEFORE INSERT OR UPDATE OF status ON reservations
+    FOR EACH ROW EXECUTE FUNCTION reservations_cross_partition_overlap();
+
+-- ======================
+-- ARŞİV (soğuk): reservations_archive yıllık partition'lı, çocuklar düz tablo.
+-- Kolon sırası kaynakla aynı (LIKE): taşıma INSERT ... SELECT * ile yapılır.
+-- ======================
+CREATE TABLE reservations_archive (LIKE reservations INCLUDING CONSTRAINTS) PARTITION BY RANGE (start_time);
+ALTER TABLE reservations_archive ADD CONSTRAINT pk_reservations_archive PRIMARY KEY (id, start_time);
+CREATE TABLE reservations_archive_default PARTITION OF reservations_archive DEFAULT;
+CREATE INDEX ix_resa_pitch_start ON reservations_archive (pitch_id, start_time);
+CREATE INDEX ix_resa_membership ON reservations_archive (membership_id);
+
+CREATE TABLE reservation_players_archive (LIKE reservation_players INCLUDING CONSTRAINTS);
+ALTER TABLE reservation_players_archive ADD CONSTRAINT pk_reservation_players_archive PRIMARY KEY (id);
+CREATE INDEX ix_rpa_reservation ON reservation_players_archive (reservation_id);
+
+CREATE TABLE payments_archive (LIKE payments INCLUDING CONSTRAINTS);
+ALTER TABLE payments_archive ADD CONSTRAINT pk_payments_archive PRIMARY KEY (id);
+CREATE INDEX ix_paya_reservation ON payments_archive (reservation_id);
+
+-- reservations_archive_yYYYY = [yıl başı, sonraki yıl başı) UTC
+CREATE OR REPLACE FUNCTION reservations_archive_ensure_partitions(from_ts timestamptz, to_ts timestamptz)
+RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    y timestamp := date_trunc('year', from_ts AT TIME ZONE 'UTC');
+    lo timestamptz;
+    hi timestamptz;
+    part text;
+    created int := 0;
+BEGIN
+    WHILE y <= to_ts AT TIME ZONE 'UTC' LOOP
+        part := 'reservations_archive_y' || to_char(y, 'YYYY');
+        IF to_regclass(part) IS NULL THEN
+            lo := y AT TIME ZONE 'UTC';
+            hi := (y + interval '1 year') AT TIME ZONE 'UTC';
+
+            EXECUTE format('CREATE TABLE %I (LIKE reservations_archive INCLUDING CONSTRAINTS)', part);
+            EXECUTE format('WITH moved AS (DELETE FROM reservations_archive_default WHERE start_time >= %L AND start_time < %L RETURNING *) '
+                           'INSERT INTO %I SELECT * FROM moved', lo, hi, part);
+            EXECUTE format('ALTER TABLE reservations_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, lo, hi);
+            created := created + 1;
+        END IF;
+        y := y + interval '1 year';
+    END LOOP;
+    RETURN created;
+END $$;
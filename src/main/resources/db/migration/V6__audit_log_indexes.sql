@@ -0,0 +1,17 @@
+-- V6__audit_log_indexes.sql
+-- AuditLogRepository sorgu şekillerine göre index'ler (audit sorgu API'si).
+-- Hepsi keyset sayfalama içindir: (created_at, id) < (:beforeAt, :beforeId) order by created_at desc, id desc limit n.
+-- Index geriye okunur, sort yok; n satırda durur.
+-- id tek başına yetmez: async yazılan kayıtların id'si flush sırasında alınır, created_at sırasıyla aynı değil.
+
+-- zaman aralığı (filtre yok)
+CREATE INDEX IF NOT EXISTS ix_audit_created
+    ON audit_logs (created_at, id);
+
+-- kullanıcının yaptıkları (owner kendi kayıtları / admin actor filtresi)
+CREATE INDEX IF NOT EXISTS ix_audit_actor_created
+    ON audit_logs (actor_user_id, created_at, id);
+
+-- tek kaydın geçmişi (ör. Reservation 123)
+CREATE INDEX IF NOT EXISTS ix_audit_entity_created
+    ON audit_logs (entity_type, entity_id, created_at, id);
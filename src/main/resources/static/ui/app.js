@@ -65,10 +65,13 @@ EH.API = {
 
     getAuthHeader() {
         const t = localStorage.getItem(this.tokenKey);
-        return t ? { Authorization: `Basic ${t}` } : {};
+        if (!t) return {};
+        // login sayfası artık token ("eht." ile başlar) saklıyor
+        return { Authorization: t.startsWith("eht.") ? `Bearer ${t}` : `Basic ${t}` };
     },
 
-    async req(method, url, body) {
+    // hata kontrolü yapılmış ham Response (header okumak gerekenler için)
+    async raw(method, url, body) {
         const headers = { ...this.getAuthHeader() };
         const opts = { method, headers };
 
@@ -86,6 +89,12 @@ EH.API = {
             throw err;
         }
 
+        return res;
+    },
+
+    async req(method, url, body) {
+        const res = await this.raw(method, url, body);
+
         if (res.status === 204) return null;
 
         const ct = res.headers.get("content-type") || "";
@@ -94,6 +103,20 @@ EH.API = {
     },
 
     get(url) { return this.req("GET", url); },
+
+    // keyset sayfalı liste: X-Next-After-Id geldikçe sonraki sayfayı da çek
+    async getAll(url) {
+        const out = [];
+        let after = null;
+        do {
+            const sep = url.includes("?") ? "&" : "?";
+            const res = await this.raw("GET", after ? `${url}${sep}afterId=${encodeURIComponent(after)}` : url);
+            out.push(...await res.json());
+            after = res.headers.get("X-Next-After-Id");
+        } while (after);
+        return out;
+    },
+
     post(url, body) { return this.req("POST", url, body); },
     put(url, body) { return this.req("PUT", url, body); },
     del(url) { return this.req("DELETE", url); }
@@ -217,7 +240,9 @@ EH.API = {
 
     getAuthHeader() {
         const t = localStorage.getItem(this.tokenKey);
-        return t ? { Authorization: `Basic ${t}` } : {};
+        if (!t) return {};
+        // login sayfası artık token ("eht." ile başlar) saklıyor
+        return { Authorization: t.startsWith("eht.") ? `Bearer ${t}` : `Basic ${t}` };
     },
 
     async req(method, url, body) {
@@ -250,6 +275,20 @@ EH.API = {
     },
 
     get(url) { return this.req("GET", url); },
+
+    // keyset sayfalı liste: X-Next-After-Id geldikçe sonraki sayfayı da çek
+    async getAll(url) {
+        const out = [];
+        let after = null;
+        do {
+            const sep = url.includes("?") ? "&" : "?";
+            const res = await this.raw("GET", after ? `${url}${sep}afterId=${encodeURIComponent(after)}` : url);
+            out.push(...await res.json());
+            after = res.headers.get("X-Next-After-Id");
+        } while (after);
+        return out;
+    },
+
     post(url, body) { return this.req("POST", url, body); },
     put(url, body) { return this.req("PUT", url, body); },
     del(url) { return this.req("DELETE", url); }
@@ -291,7 +330,7 @@ EH.guard = async (allowedRoles, redirectUrl = "/ui/choose-role.html") => {
    Public catalog
 ----------------------------- */
 EH.loadFacilities = async (selectId) => {
-    const facilities = await EH.API.get("/api/public/facilities");
+    const facilities = await EH.API.getAll("/api/public/facilities?active=true&limit=500");
     const sel = EH.$(selectId);
     if (sel) sel.innerHTML = facilities.map(f => `<option value="${f.id}">${f.name}</option>`).join("");
     return facilities;
@@ -10,6 +10,12 @@
 
     const KEY_MAIN = "eh_basic";
     const KEY_LEGACY = "eh_basic_token";
+    const KEY_EXP = "eh_token_exp";
+
+    // ✅ login token'ı: "eht." ile başlar -> Bearer. Eski kayıtlı Basic değerleri de çalışmaya devam eder.
+    const TOKEN_PREFIX = "eht.";
+    // süresine bu kadar kala yenile
+    const REFRESH_BEFORE_MS = 10 * 60 * 1000;
 
     function getStoredToken() {
         // önce main, yoksa legacy
@@ -25,8 +31,16 @@
     function clearStoredToken() {
         localStorage.removeItem(KEY_MAIN);
         localStorage.removeItem(KEY_LEGACY);
+        localStorage.removeItem(KEY_EXP);
+    }
+
+    function storeLogin(r) {
+        setStoredToken(r.token);
+        localStorage.setItem(KEY_EXP, String(Date.parse(r.expiresAt) || 0));
     }
 
+    let refreshing = null;
+
     EH.API = {
         base: "",
 
@@ -39,6 +53,45 @@
             return t;
         },
 
+        // ✅ tek bcrypt kontrolü sunucuda; sonraki istekler token ile (DB'siz doğrulama)
+        async login(username, password) {
+            const res = await fetch(this.base + "/api/public/login", {
+                method: "POST",
+                headers: { "Content-Type": "application/json" },
+                body: JSON.stringify({ username, password }),
+            });
+            if (!res.ok) {
+                let msg = "";
+                try { msg = await res.text(); } catch { msg = ""; }
+                const err = new Error(msg || `${res.status} ${res.statusText}`);
+                err.status = res.status;
+                throw err;
+            }
+            const r = await res.json();
+            storeLogin(r);
+            return r; // {token, tokenType, expiresAt, id, username, role}
+        },
+
+        // süresi yaklaşan token'ı yenile (aynı anda tek istek)
+        async ensureFresh() {
+            const t = getStoredToken();
+            if (!t || !t.startsWith(TOKEN_PREFIX)) return;
+
+            const exp = Number(localStorage.getItem(KEY_EXP) || "0");
+            if (exp - Date.now() > REFRESH_BEFORE_MS) return;
+
+            if (!refreshing) {
+                refreshing = fetch(this.base + "/api/auth/refresh", {
+                    method: "POST",
+                    headers: this.getAuthHeader(),
+                })
+                    .then(async (res) => { if (res.ok) storeLogin(await res.json()); })
+                    .catch(() => {})
+                    .finally(() => { refreshing = null; });
+            }
+            await refreshing;
+        },
+
         getToken() {
             return getStoredToken();
         },
@@ -49,10 +102,14 @@
 
         getAuthHeader() {
             const t = getStoredToken();
-            return t ? { Authorization: `Basic ${t}` } : {};
+            if (!t) return {};
+            return { Authorization: t.startsWith(TOKEN_PREFIX) ? `Bearer ${t}` : `Basic ${t}` };
         },
 
-        async req(method, url, body) {
+        // hata kontrolü yapılmış ham Response (header okumak gerekenler için)
+        async raw(method, url, body) {
+            await this.ensureFresh();
+
             // ✅ asıl hatanın temiz hali: ...spread
             const headers = { ...this.getAuthHeader() };
 
@@ -81,6 +138,12 @@
                 throw err;
             }
 
+            return res;
+        },
+
+        async req(method, url, body) {
+            const res = await this.raw(method, url, body);
+
             if (res.status === 204) return null;
 
             const ct = res.headers.get("content-type") || "";
@@ -89,6 +152,20 @@
         },
 
         get(url) { return this.req("GET", url); },
+
+        // ✅ keyset sayfalı liste: X-Next-After-Id geldikçe sonraki sayfayı da çek
+        async getAll(url) {
+            const out = [];
+            let after = null;
+            do {
+                const sep = url.includes("?") ? "&" : "?";
+                const res = await this.raw("GET", after ? `${url}${sep}afterId=${encodeURIComponent(after)}` : url);
+                out.push(...await res.json());
+                after = res.headers.get("X-Next-After-Id");
+            } while (after);
+            return out;
+        },
+
         post(url, body) { return this.req("POST", url, body); },
         put(url, body) { return this.req("PUT", url, body); },
         del(url) { return this.req("DELETE", url); },
@@ -4,7 +4,7 @@
     const EH = window.EH;   // bu block içinde, global değil
 
     EH.loadFacilities = EH.loadFacilities || (async (selectId) => {
-        const facilities = await EH.API.get("/api/public/facilities");
+        const facilities = await EH.API.getAll("/api/public/facilities?active=true&limit=500");
         const sel = EH.$(selectId);
         if (sel) sel.innerHTML = facilities.map(f => `<option value="${f.id}">${f.name}</option>`).join("");
         return facilities;
@@ -217,11 +217,9 @@
         setStatus("Kontrol ediliyor…", "mid");
         setBusy(true);
 
-        // Token kaydet
-        EH.API.setBasicAuth(u, p);
-
         try {
-            const me = await EH.getMe(); // {id, username, role}
+            // ✅ token al (parola bir kez kontrol edilir, sonraki istekler Bearer)
+            const me = await EH.API.login(u, p); // {token, expiresAt, id, username, role}
             if (!me || !me.role) throw new Error("role yok");
 
             // Role uyuşmazsa token’ı temizle
@@ -283,7 +283,7 @@
     }
 
     async function loadFacilities() {
-        state.facilities = await EH.API.get("/api/public/facilities");
+        state.facilities = await EH.API.getAll("/api/public/facilities?active=true&limit=500");
         if (!$facilitySel) return;
 
         $facilitySel.innerHTML = state.facilities.map(f => `<option value="${f.id}">${f.name}</option>`).join("");
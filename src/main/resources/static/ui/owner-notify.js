@@ -6,14 +6,17 @@
  * Instagram bildirim mantığı gibi "yeni rezervasyon sayısı" basar.
  *
  * Notlar:
- * - Mantık: localStorage'taki "seen max id" ile /reservation-ledger dönen id'leri kıyaslar.
+ * - Mantık: localStorage'taki "seen max id" sunucuya afterId olarak gider;
+ *   /reservation-ledger/digest tek aggregate sorguyla gün bazlı yeni sayısını döner.
  * - Bu script "seen" değerini ASLA arttırmaz (sadece okur). Böylece bildirim "kaybolmaz".
  * - Son tarama özetini localStorage'a yazar: en erken yeni tarih, yeni sayısı, taramada görülen max id, gün bazlı yeni sayıları.
+ * - Polling yok: /api/owner/notifications/stream (SSE) "reservation" event'i gelince özet yenilenir.
+ *   EventSource Authorization header gönderemediği için stream fetch ile okunur.
+ *   Bağlantı koparsa backoff ile yeniden bağlanır; kopukken POLL_MS ile yedek polling yapılır.
  */
 (function () {
     if (!window.EH || !EH.API) return;
 
-    const TZ = EH.TZ || "Europe/Istanbul";
     const el = (id) => document.getElementById(id);
 
     // Owner HTML'de var: <span id="resNotifBadge" ...>
@@ -29,10 +32,12 @@
     const SCAN_NEW_BY_DATE = (fid) => `eh_owner_last_scan_new_by_date_fac_${fid}`;
     const SCAN_AT = (fid) => `eh_owner_last_scan_at_fac_${fid}`;
 
-    // Performans: çok büyütme. Çoğu demo/gerçek kullanım için 14 gün yeterli.
-    // İstersen 21 yapabilirsin (daha çok istek atar).
+    // Sunucu tarafında tek sorgu; gün sayısı istek sayısını artırmaz (max 62).
     const DAYS_TO_SCAN = 14;
-    const POLL_MS = 25000;
+    const POLL_MS = 25000;          // sadece stream kopukken
+    const RECONNECT_MIN_MS = 2000;
+    const RECONNECT_MAX_MS = 60000;
+    const REFRESH_DEBOUNCE_MS = 500;
 
     function getSeenMaxIdForFacility(fid) {
         try {
@@ -60,27 +65,6 @@
         b.classList.remove("hidden");
     }
 
-    function todayStrIstanbul() {
-        const parts = new Intl.DateTimeFormat("en-CA", {
-            timeZone: TZ,
-            year: "numeric",
-            month: "2-digit",
-            day: "2-digit",
-        }).formatToParts(new Date());
-        return `${parts.find((p) => p.type === "year").value}-${parts.find((p) => p.type === "month").value}-${parts.find((p) => p.type === "day").value}`;
-    }
-
-    function addDaysISO(dateStr, days) {
-        // DST'e takılmamak için UTC öğlen
-        const [y, m, d] = dateStr.split("-").map(Number);
-        const dt = new Date(Date.UTC(y, m - 1, d, 12, 0, 0));
-        dt.setUTCDate(dt.getUTCDate() + days);
-        const yy = dt.getUTCFullYear();
-        const mm = String(dt.getUTCMonth() + 1).padStart(2, "0");
-        const dd = String(dt.getUTCDate()).padStart(2, "0");
-        return `${yy}-${mm}-${dd}`;
-    }
-
     async function getFacilityIdFromOwnerPage() {
         // owner.html'de select id="ownerFacilitySel"
         const sel = el("ownerFacilitySel");
@@ -89,9 +73,13 @@
         return fid || 0;
     }
 
-    async function fetchLedgerDay(facilityId, dateStr) {
-        const qs = new URLSearchParams({ facilityId: String(facilityId), date: dateStr });
-        return await EH.API.get(`/api/owner/reservation-ledger?${qs.toString()}`);
+    async function fetchDigest(facilityId, afterId) {
+        const qs = new URLSearchParams({
+            facilityId: String(facilityId),
+            afterId: String(afterId || 0),
+            days: String(DAYS_TO_SCAN),
+        });
+        return await EH.API.get(`/api/owner/reservation-ledger/digest?${qs.toString()}`);
     }
 
     function storeScanSummary(fid, { newCount, earliestNewDate, maxId, newByDate }) {
@@ -116,43 +104,120 @@
         }
 
         const seen = getSeenMaxIdForFacility(fid);
-        const base = todayStrIstanbul();
 
-        let newCount = 0;
-        let earliestNewDate = null;
-        let maxId = seen;
-        const newByDate = {};
+        let d;
+        try {
+            d = await fetchDigest(fid, seen);
+        } catch (e) {
+            return; // bir sonraki turda tekrar denenir; eski özet kalsın
+        }
 
-        for (let i = 0; i < DAYS_TO_SCAN; i++) {
-            const dateStr = addDaysISO(base, i);
+        const newCount = Number(d && d.newCount ? d.newCount : 0);
+        const earliestNewDate = (d && d.earliestNewDate) || null;
+        const maxId = Math.max(seen, Number(d && d.maxId ? d.maxId : 0));
+        const newByDate = (d && d.newByDate) || {};
 
-            let list = [];
-            try {
-                list = await fetchLedgerDay(fid, dateStr);
-                if (!Array.isArray(list)) list = [];
-            } catch (e) {
-                continue;
-            }
+        storeScanSummary(fid, { newCount, earliestNewDate, maxId, newByDate });
+        setBadge(newCount);
+    }
+
+    let refreshTimer = null;
+    function scheduleRefresh() {
+        // aynı anda gelen birkaç event tek digest isteğine insin
+        if (refreshTimer) return;
+        refreshTimer = setTimeout(async () => {
+            refreshTimer = null;
+            await refreshBadge();
+        }, REFRESH_DEBOUNCE_MS);
+    }
+
+    let fallbackTimer = null;
+    function startFallbackPolling() {
+        if (!fallbackTimer) fallbackTimer = setInterval(refreshBadge, POLL_MS);
+    }
+    function stopFallbackPolling() {
+        if (fallbackTimer) clearInterval(fallbackTimer);
+        fallbackTimer = null;
+    }
+
+    async function onStreamEvent(name, data) {
+        if (name === "ready") {
+            stopFallbackPolling();
+            scheduleRefresh();
+            return;
+        }
+        if (name !== "reservation") return;
+
+        let ev = null;
+        try {
+            ev = JSON.parse(data);
+        } catch {
+            ev = null;
+        }
 
-            for (const r of list) {
-                const rid = Number(r && r.id ? r.id : 0);
-                if (rid > maxId) maxId = rid;
+        const fid = await getFacilityIdFromOwnerPage();
+        if (!ev || !fid || Number(ev.facilityId) === fid) scheduleRefresh();
+    }
 
-                if (rid > seen) {
-                    newCount++;
-                    if (!earliestNewDate || dateStr < earliestNewDate) earliestNewDate = dateStr;
-                    newByDate[dateStr] = (newByDate[dateStr] || 0) + 1;
+    async function readStream() {
+        if (EH.API.ensureFresh) await EH.API.ensureFresh();
+        const res = await fetch(`${EH.API.base}/api/owner/notifications/stream`, {
+            headers: { ...EH.API.getAuthHeader(), Accept: "text/event-stream" },
+        });
+        if (!res.ok || !res.body) {
+            const err = new Error(`${res.status} ${res.statusText}`);
+            err.status = res.status;
+            throw err;
+        }
+
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buf = "";
+
+        for (;;) {
+            const { value, done } = await reader.read();
+            if (done) return;
+            buf += decoder.decode(value, { stream: true });
+
+            // SSE: event'ler boş satırla ayrılır
+            let idx;
+            while ((idx = buf.search(/\r?\n\r?\n/)) >= 0) {
+                const block = buf.slice(0, idx);
+                buf = buf.slice(idx).replace(/^\r?\n\r?\n/, "");
+
+                let name = "message";
+                const data = [];
+                for (const line of block.split(/\r?\n/)) {
+                    if (line.startsWith("event:")) name = line.slice(6).trim();
+                    else if (line.startsWith("data:")) data.push(line.slice(5).replace(/^ /, ""));
                 }
+                if (data.length) await onStreamEvent(name, data.join("\n"));
             }
         }
+    }
 
-        storeScanSummary(fid, { newCount, earliestNewDate, maxId, newByDate });
-        setBadge(newCount);
+    async function connectLoop() {
+        let delay = RECONNECT_MIN_MS;
+        for (;;) {
+            try {
+                await readStream();
+                delay = RECONNECT_MIN_MS; // sunucu timeout ile kapattı: hemen tekrar bağlan
+            } catch (e) {
+                if (e && (e.status === 401 || e.status === 403)) return; // owner değil / çıkış yapılmış
+                delay = Math.min(delay * 2, RECONNECT_MAX_MS);
+            }
+            startFallbackPolling();
+            await new Promise((r) => setTimeout(r, delay));
+        }
     }
 
     async function boot() {
         await refreshBadge();
-        setInterval(refreshBadge, POLL_MS);
+
+        const sel = el("ownerFacilitySel");
+        if (sel) sel.addEventListener("change", () => scheduleRefresh());
+
+        connectLoop();
     }
 
     boot();
@@ -50,6 +50,19 @@
         return `${parts.find((p) => p.type === "year").value}-${parts.find((p) => p.type === "month").value}-${parts.find((p) => p.type === "day").value}`;
     }
 
+    const IST_DAY_FMT = new Intl.DateTimeFormat("en-CA", {
+        timeZone: TZ,
+        year: "numeric",
+        month: "2-digit",
+        day: "2-digit",
+    });
+
+    // Instant (ISO string) -> İstanbul günü (YYYY-MM-DD)
+    function istDayOf(instantStr) {
+        const parts = IST_DAY_FMT.formatToParts(new Date(instantStr));
+        return `${parts.find((p) => p.type === "year").value}-${parts.find((p) => p.type === "month").value}-${parts.find((p) => p.type === "day").value}`;
+    }
+
     function addDaysISO(dateStr, days) {
         const [y, m, d] = dateStr.split("-").map(Number);
         const dt = new Date(Date.UTC(y, m - 1, d, 12, 0, 0));
@@ -195,6 +208,33 @@
         return arr;
     }
 
+    // ✅ Haftalık sayfa: gün başına istek yerine tek aralık isteği (from..to dahil), günlere burada bölünür
+    async function fetchLedgerRange(dates, force = false) {
+        const facilityId = Number(el("facilitySel").value || 0);
+        if (!facilityId) {
+            for (const ds of dates) state.dayCache[ds] = [];
+            return;
+        }
+        if (!force && dates.every((ds) => state.dayCache[ds])) return;
+
+        const pitchIdStr = el("pitchSel").value || "";
+        const qs = new URLSearchParams({
+            facilityId: String(facilityId),
+            from: dates[0],
+            to: dates[dates.length - 1],
+        });
+        if (pitchIdStr) qs.set("pitchId", pitchIdStr);
+
+        const list = await EH.API.get(`/api/owner/reservation-ledger?${qs.toString()}`);
+        const byDay = {};
+        for (const ds of dates) byDay[ds] = [];
+        for (const r of Array.isArray(list) ? list : []) {
+            const ds = istDayOf(r.startTime);
+            if (byDay[ds]) byDay[ds].push(r);
+        }
+        Object.assign(state.dayCache, byDay);
+    }
+
     function computeNewCountForList(list) {
         return (list || []).reduce((acc, r) => (Number(r && r.id ? r.id : 0) > state.seenThreshold ? acc + 1 : acc), 0);
     }
@@ -208,12 +248,11 @@
         const dates = [];
         for (let i = 0; i < DAYS_PER_PAGE; i++) dates.push(addDaysISO(start, i));
 
-        await Promise.all(
-            dates.map(async (ds) => {
-                const list = await fetchLedger(ds, force);
-                state.dayMeta[ds] = { total: list.length, newCount: computeNewCountForList(list) };
-            })
-        );
+        await fetchLedgerRange(dates, force);
+        for (const ds of dates) {
+            const list = state.dayCache[ds] || [];
+            state.dayMeta[ds] = { total: list.length, newCount: computeNewCountForList(list) };
+        }
 
         renderDayList(dates);
     }
@@ -15,7 +15,7 @@
         _hdr() {
             const a = this._auth || localStorage.getItem("eh_basic");
             const h = { "Content-Type": "application/json" };
-            if (a) h["Authorization"] = `Basic ${a}`;
+            if (a) h["Authorization"] = a.startsWith("eht.") ? `Bearer ${a}` : `Basic ${a}`;
             return h;
         },
         async get(url) {
@@ -0,0 +1,104 @@
+package com.ornek.ehalisaha;
+
+import com.ornek.ehalisaha.ehalisahabackend.EHalisahaApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Repository / statement bütçesi IT'lerinin ortak tabanı: tek Postgres container + seed yardımcıları.
+ *
+ * - Container JVM başına bir kez açılır (singleton); alt sınıflar veritabanını paylaşır.
+ *   Her IT kendi tesis adıyla çalışır, seed'ler tekrar çağrılabilir (find-or-create).
+ * - SeedConfig her context açılışında pricing_rules'u sildiği için fiyat her seed çağrısında kontrol edilir.
+ */
+@SpringBootTest(classes = EHalisahaApplication.class)
+abstract class AbstractPostgresIT {
+
+    static final PostgreSQLContainer<?> pg = new PostgreSQLContainer<>("postgres:17-alpine")
+            .withDatabaseName("ehalisaha")
+            .withUsername("ehalisaha")
+            .withPassword("ehalisaha");
+
+    static {
+        pg.start(); // durdurma: Testcontainers (ryuk) JVM kapanınca
+    }
+
+    @DynamicPropertySource
+    static void postgresProps(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", pg::getJdbcUrl);
+        r.add("spring.datasource.username", pg::getUsername);
+        r.add("spring.datasource.password", pg::getPassword);
+        r.add("spring.flyway.enabled", () -> true);
+    }
+
+    @Autowired protected JdbcTemplate jdbc;
+
+    protected Long userId(String username) {
+        return jdbc.queryForObject("select id from app_users where username = ?", Long.class, username);
+    }
+
+    /** owner1'in tesisi + member1 üyeliği; varsa mevcut id. */
+    protected Long seedFacility(String name) {
+        Long ownerId = userId("owner1");
+        jdbc.update("""
+                insert into facilities(owner_user_id, name, name_key) values (?, ?, lower(?))
+                on conflict (owner_user_id, name_key) do nothing
+                """, ownerId, name, name);
+        Long facilityId = jdbc.queryForObject("select id from facilities where owner_user_id = ? and name_key = lower(?)",
+                Long.class, ownerId, name);
+        jdbc.update("insert into memberships(facility_id, user_id) values (?, ?) on conflict (facility_id, user_id) do nothing",
+                facilityId, userId("member1"));
+        return facilityId;
+    }
+
+    /** Fiyatsız saha; varsa mevcut id. */
+    protected Long seedPitch(Long facilityId, String name) {
+        jdbc.update("""
+                insert into pitches(facility_id, name, name_key) values (?, ?, lower(?))
+                on conflict (facility_id, name_key) do nothing
+                """, facilityId, name, name);
+        return jdbc.queryForObject("select id from pitches where facility_id = ? and name_key = lower(?)",
+                Long.class, facilityId, name);
+    }
+
+    /** 60 dk = 100 fiyatı (yoksa). */
+    protected void ensureHourlyPricing(Long pitchId) {
+        jdbc.update("""
+                insert into pricing_rules(pitch_id, duration_option_id, price)
+                select ?, d.id, 100 from duration_options d
+                where d.minutes = 60
+                  and not exists (select 1 from pricing_rules pr where pr.pitch_id = ? and pr.duration_option_id = d.id)
+                """, pitchId, pitchId);
+    }
+
+    /** Tesis + üyelik + fiyatlı saha; pitch id döner. */
+    protected Long seedFacilityWithPitch(String facilityName, String pitchName) {
+        Long pitchId = seedPitch(seedFacility(facilityName), pitchName);
+        ensureHourlyPricing(pitchId);
+        return pitchId;
+    }
+
+    protected Long membershipId(Long facilityId) {
+        return jdbc.queryForObject("select id from memberships where facility_id = ? and user_id = ?",
+                Long.class, facilityId, userId("member1"));
+    }
+
+    /** member1 adına doğrudan rezervasyon satırı (servis kuralları atlanır). */
+    protected Long reserve(Long pitchId, Instant start, int minutes, String status) {
+        return jdbc.queryForObject("""
+                insert into reservations(pitch_id, membership_id, start_time, end_time, status, total_price)
+                select ?, m.id, ?, ?, ?, 100
+                from memberships m join pitches p on p.facility_id = m.facility_id
+                where p.id = ? and m.user_id = ?
+                returning id
+                """, Long.class, pitchId, Timestamp.from(start), Timestamp.from(start.plusSeconds(minutes * 60L)), status,
+                pitchId, userId("member1"));
+    }
+}
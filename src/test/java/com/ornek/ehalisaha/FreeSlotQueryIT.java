@@ -0,0 +1,128 @@
+package com.ornek.ehalisaha;
+
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository.FreeSlotRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReservationRepository.findFreeSlots (native CTE) gerçek Postgres'te:
+ * - tesis slotları × gün, dolu rezervasyonla çakışan adaylar elenir (iptal edilen elemez)
+ * - slotu olmayan tesiste 00:00-23:00 saatlik yedek slotlar
+ * - fiyatı tanımlı olmayan pitch hiç dönmez
+ * - İstanbul gece yarısını geçen pencere iki yerel güne yayılır
+ */
+class FreeSlotQueryIT extends AbstractPostgresIT {
+
+    private static final String TZ = "Europe/Istanbul";
+    private static final ZoneId IST = ZoneId.of(TZ);
+
+    @Autowired ReservationRepository repo;
+
+    // "Slot Arena": 18:00 / 19:00 / 20:00 (60 dk) + 21:00 (90 dk) slotları
+    private Long slotFacility;
+    private Long slotPitchBusy;
+    private Long slotPitchFree;
+    private Long slotPitchNoPrice;
+
+    // "Hourly Arena": slot tanımı yok
+    private Long hourlyFacility;
+    private Long hourlyPitch;
+
+    @BeforeEach
+    void seed() {
+        boolean fresh = jdbc.queryForList("select id from facilities where name = 'Slot Arena'", Long.class).isEmpty();
+
+        slotFacility = seedFacility("Slot Arena");
+        slotPitchBusy = seedFacilityWithPitch("Slot Arena", "Saha A");
+        slotPitchFree = seedFacilityWithPitch("Slot Arena", "Saha B");
+        slotPitchNoPrice = seedPitch(slotFacility, "Saha C"); // fiyatsız
+        hourlyFacility = seedFacility("Hourly Arena");
+        hourlyPitch = seedFacilityWithPitch("Hourly Arena", "Saha A");
+
+        if (fresh) {
+            jdbc.update("""
+                    insert into facility_slots(facility_id, start_minute, duration_minutes)
+                    values (?, 1080, 60), (?, 1140, 60), (?, 1200, 60), (?, 1260, 90)
+                    """, slotFacility, slotFacility, slotFacility, slotFacility);
+
+            // Saha A 19:30-20:30: 19:00 ve 20:00 slotlarıyla çakışır; iptal edilen 18:00 elemez
+            reserve(slotPitchBusy, local(2033, 3, 15, 19, 30), 60, "CONFIRMED");
+            reserve(slotPitchBusy, local(2033, 3, 15, 18, 0), 60, "CANCELLED");
+            // gece yarısı penceresi: 23:00 dolu
+            reserve(hourlyPitch, local(2033, 3, 15, 23, 0), 60, "CREATED");
+        }
+    }
+
+    private static Instant local(int y, int m, int d, int h, int min) {
+        return ZonedDateTime.of(y, m, d, h, min, 0, 0, IST).toInstant();
+    }
+
+    private List<FreeSlotRow> search(Long facilityId, Instant from, Instant to, int minutes) {
+        return repo.findFreeSlots(false, List.of(facilityId), from, to, minutes, TZ, 100);
+    }
+
+    private static List<Instant> startsFor(List<FreeSlotRow> rows, Long pitchId) {
+        return rows.stream().filter(r -> r.getPitchId().equals(pitchId)).map(FreeSlotRow::getStartTime).toList();
+    }
+
+    @Test
+    void facilitySlots_shouldSkipOverlappingBookings_andIgnoreCancelled() {
+        List<FreeSlotRow> rows = search(slotFacility, local(2033, 3, 15, 17, 0), local(2033, 3, 15, 23, 0), 60);
+
+        assertEquals(List.of(local(2033, 3, 15, 18, 0)), startsFor(rows, slotPitchBusy),
+                "19:00 ve 20:00 19:30-20:30 ile çakışır; iptal edilen 18:00 boş sayılır");
+        assertEquals(List.of(local(2033, 3, 15, 18, 0), local(2033, 3, 15, 19, 0), local(2033, 3, 15, 20, 0)),
+                startsFor(rows, slotPitchFree), "90 dk'lık 21:00 slotu 60 dk'lık aramaya uymaz");
+
+        FreeSlotRow first = rows.get(0);
+        assertEquals("Slot Arena", first.getFacilityName());
+        assertEquals(local(2033, 3, 15, 19, 0), first.getEndTime());
+        assertEquals(0, new BigDecimal("100").compareTo(first.getPrice()));
+    }
+
+    @Test
+    void pitchWithoutPricing_shouldNeverBeOffered() {
+        List<FreeSlotRow> rows = search(slotFacility, local(2033, 3, 15, 0, 0), local(2033, 3, 17, 0, 0), 60);
+
+        assertFalse(rows.isEmpty());
+        assertTrue(startsFor(rows, slotPitchNoPrice).isEmpty());
+    }
+
+    @Test
+    void facilityWithoutSlots_shouldFallBackToHourlySlots() {
+        List<FreeSlotRow> rows = search(hourlyFacility, local(2033, 3, 16, 0, 0), local(2033, 3, 17, 0, 0), 60);
+
+        List<Instant> starts = startsFor(rows, hourlyPitch);
+        assertEquals(24, starts.size());
+        assertEquals(local(2033, 3, 16, 0, 0), starts.get(0));
+        assertEquals(local(2033, 3, 16, 23, 0), starts.get(23));
+
+        // 120 dk: saatlik slotlar katlanır, son aday 22:00
+        List<Instant> twoHours = startsFor(search(hourlyFacility, local(2033, 3, 16, 0, 0), local(2033, 3, 17, 0, 0), 120), hourlyPitch);
+        assertEquals(23, twoHours.size());
+        assertEquals(local(2033, 3, 16, 22, 0), twoHours.get(22));
+    }
+
+    @Test
+    void windowAcrossIstanbulMidnight_shouldSpanBothLocalDays() {
+        // 15 Mart 22:00 - 16 Mart 02:00 (İstanbul) = 19:00Z - 23:00Z: UTC'de aynı gün, yerelde iki gün
+        Instant from = local(2033, 3, 15, 22, 0);
+        Instant to = local(2033, 3, 16, 2, 0);
+        assertEquals(Instant.parse("2033-03-15T19:00:00Z"), from);
+
+        List<FreeSlotRow> rows = search(hourlyFacility, from, to, 60);
+
+        assertEquals(List.of(local(2033, 3, 15, 22, 0), local(2033, 3, 16, 0, 0), local(2033, 3, 16, 1, 0)),
+                startsFor(rows, hourlyPitch), "23:00 dolu; 00:00 ve 01:00 ertesi yerel günden");
+    }
+}
@@ -0,0 +1,81 @@
+package com.ornek.ehalisaha;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statement bütçesi IT'leri için JDBC sayacı: DataSource proxy'lenir, sadece izlenen (test) thread'in
+ * prepareStatement / addBatch / executeBatch çağrıları sayılır. Async audit flush'ı başka thread'de olduğu için sayılmaz.
+ * Kullanım: {@code @Import(JdbcCounts.Config.class)}, ölçümden önce {@link #reset()}.
+ */
+final class JdbcCounts {
+
+    static volatile Thread watched;
+    static final List<String> prepared = new CopyOnWriteArrayList<>();
+    static final AtomicInteger addBatch = new AtomicInteger();
+    static final AtomicInteger executeBatch = new AtomicInteger();
+
+    private JdbcCounts() {
+    }
+
+    static void reset() {
+        prepared.clear();
+        addBatch.set(0);
+        executeBatch.set(0);
+        watched = Thread.currentThread();
+    }
+
+    static void stop() {
+        watched = null;
+    }
+
+    static long preparedMatching(String fragment) {
+        return prepared.stream().filter(s -> s.toLowerCase().contains(fragment)).count();
+    }
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String name) {
+                    return bean instanceof DataSource ds ? proxy(DataSource.class, ds) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, m, args) -> {
+                boolean mine = Thread.currentThread() == watched;
+                if (mine && type == Connection.class && m.getName().equals("prepareStatement")) {
+                    prepared.add((String) args[0]);
+                }
+                if (mine && type == PreparedStatement.class) {
+                    if (m.getName().equals("addBatch")) addBatch.incrementAndGet();
+                    if (m.getName().equals("executeBatch")) executeBatch.incrementAndGet();
+                }
+                Object out;
+                try {
+                    out = m.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+                if (out instanceof Connection c) return proxy(Connection.class, c);
+                if (out instanceof PreparedStatement ps) return proxy(PreparedStatement.class, ps);
+                return out;
+            });
+        }
+    }
+}
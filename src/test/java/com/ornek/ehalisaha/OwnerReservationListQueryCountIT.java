@@ -0,0 +1,115 @@
+package com.ornek.ehalisaha;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.dto.OwnerReservationDto;
+import com.ornek.ehalisaha.ehalisahabackend.service.OwnerReservationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Owner rezervasyon listesi: statement sayısı satır sayısıyla büyümemeli (N+1 regresyonu).
+ * Hibernate statistics ile listForOwner'ın hazırladığı statement'lar sayılır; 2 ve 40 satırlık gün karşılaştırılır.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OwnerReservationListQueryCountIT extends AbstractPostgresIT {
+
+    // Europe/Istanbul günleri; saatler UTC 06:00.. (yerel 09:00..)
+    private static final LocalDate SMALL_DAY = LocalDate.of(2031, 5, 10);
+    private static final LocalDate BUSY_DAY = LocalDate.of(2031, 5, 11);
+
+    @Autowired OwnerReservationService service;
+    @Autowired EntityManagerFactory emf;
+
+    private Long ownerId;
+
+    @BeforeEach
+    void seed() {
+        ownerId = userId("owner1");
+        if (jdbc.queryForObject("select count(*) from facilities where name = 'QC Arena'", Integer.class) > 0) return;
+
+        Long facilityId = seedFacility("QC Arena");
+        Long membershipId = membershipId(facilityId);
+        for (int i = 1; i <= 4; i++) seedPitch(facilityId, "QC " + i);
+
+        // küçük gün: 2 rezervasyon; yoğun gün: 4 saha × 10 saat = 40 (+ listede görünmeyen 1 iptal)
+        jdbc.update("""
+                insert into reservations(pitch_id, membership_id, start_time, end_time, status, total_price)
+                select p.id, ?, ts, ts + interval '1 hour',
+                       case when p.name = 'QC 1' and ts = timestamptz '2031-05-11 06:00Z' then 'CANCELLED' else 'CREATED' end,
+                       100
+                from pitches p
+                cross join generate_series(timestamptz '2031-05-11 06:00Z', timestamptz '2031-05-11 15:00Z', interval '1 hour') ts
+                where p.facility_id = ?
+                union all
+                select p.id, ?, ts, ts + interval '1 hour', 'CREATED', 100
+                from pitches p
+                cross join generate_series(timestamptz '2031-05-10 06:00Z', timestamptz '2031-05-10 07:00Z', interval '1 hour') ts
+                where p.facility_id = ? and p.name = 'QC 1'
+                """, membershipId, facilityId, membershipId, facilityId);
+        jdbc.update("""
+                insert into reservations(pitch_id, membership_id, start_time, end_time, status, total_price)
+                select p.id, ?, timestamptz '2031-05-11 06:00Z', timestamptz '2031-05-11 07:00Z', 'CREATED', 100
+                from pitches p where p.facility_id = ? and p.name = 'QC 1'
+                """, membershipId, facilityId);
+
+        // yarısının ödemesi var (PAID), diğerleri left join'de INIT görünmeli
+        jdbc.update("""
+                insert into payments(id, reservation_id, method, status, amount)
+                select nextval('payments_seq'), r.id, 'CASH', 'PAID', 100
+                from reservations r join pitches p on p.id = r.pitch_id
+                where p.facility_id = ? and r.id % 2 = 0
+                """, facilityId);
+    }
+
+    @Test
+    void listForOwner_statementCountDoesNotGrowWithRows() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        stats.clear();
+        List<OwnerReservationDto> small = service.listForOwner(ownerId, SMALL_DAY, null, null);
+        long smallStatements = stats.getPrepareStatementCount();
+
+        stats.clear();
+        List<OwnerReservationDto> busy = service.listForOwner(ownerId, BUSY_DAY, null, null);
+        long busyStatements = stats.getPrepareStatementCount();
+
+        assertEquals(2, small.size());
+        assertEquals(40, busy.size());
+        assertEquals(1, smallStatements);
+        assertEquals(smallStatements, busyStatements);
+        assertEquals(0, stats.getEntityLoadCount(), "projection: entity yüklenmemeli");
+    }
+
+    @Test
+    void listForOwner_mapsPaymentStatusAndFiltersPitch() {
+        List<OwnerReservationDto> busy = service.listForOwner(ownerId, BUSY_DAY, null, null);
+
+        assertTrue(busy.stream().noneMatch(r -> r.status() == ReservationStatus.CANCELLED));
+        for (OwnerReservationDto r : busy) {
+            assertEquals(r.id() % 2 == 0 ? PaymentStatus.PAID : PaymentStatus.INIT, r.paymentStatus());
+            assertEquals("100.00", r.totalPrice());
+            assertNotNull(r.facilityId());
+        }
+        for (int i = 1; i < busy.size(); i++) {
+            assertFalse(busy.get(i).startTime().isBefore(busy.get(i - 1).startTime()), "startTime sıralı");
+        }
+
+        Long pitchId = busy.get(0).pitchId();
+        List<OwnerReservationDto> onePitch = service.listForOwner(ownerId, BUSY_DAY, null, pitchId);
+        assertEquals(10, onePitch.size());
+        assertTrue(onePitch.stream().allMatch(r -> r.pitchId().equals(pitchId)));
+
+        assertEquals(List.of(), service.listForOwner(ownerId, BUSY_DAY, -1L, null));
+    }
+}
@@ -0,0 +1,96 @@
+package com.ornek.ehalisaha;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationCreateRequest;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationPlayerAddRequest;
+import com.ornek.ehalisaha.ehalisahabackend.service.ReservationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 14 oyunculu tek rezervasyonun statement bütçesi (batch öncesi: oyuncu başına ayrı insert + nextval).
+ *
+ * - Hibernate statistics: hazırlanan statement'lar ve entity insert'leri.
+ * - {@link JdbcCounts} (sadece test thread'i): addBatch / executeBatch ve nextval round-trip'leri.
+ * Cache'ler ve sequence havuzları ilk rezervasyonla ısınır, ölçüm sonraki rezervasyonlarda.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JdbcCounts.Config.class)
+class ReservationCreateStatementCountIT extends AbstractPostgresIT {
+
+    private static final ZoneId IST = ZoneId.of("Europe/Istanbul");
+    private static final int PLAYERS = 14;
+
+    @Autowired ReservationService service;
+    @Autowired EntityManagerFactory emf;
+
+    private Long seed() {
+        Long pitchId = seedFacilityWithPitch("Count Arena", "Saha A");
+
+        // taze sequence'ta pooled optimizer ilk blok için fazladan nextval yapar: sayım bundan bağımsız olsun.
+        // Veritabanı diğer IT'lerle ortak: sadece ileri alınır
+        for (String seq : List.of("reservation_players_seq", "payments_seq")) {
+            jdbc.queryForObject("select setval(?::regclass, greatest(1000, last_value)) from " + seq, Long.class, seq);
+        }
+        return pitchId;
+    }
+
+    private void book(Long memberId, Long pitchId, int hour) {
+        Instant start = ZonedDateTime.of(2033, 1, 10, hour, 0, 0, 0, IST).toInstant();
+        List<ReservationPlayerAddRequest> players = IntStream.rangeClosed(1, PLAYERS)
+                .mapToObj(i -> new ReservationPlayerAddRequest("Oyuncu " + i, i))
+                .toList();
+        service.create(memberId, new ReservationCreateRequest(pitchId, start, 60, PaymentMethod.CASH, players, false));
+    }
+
+    @Test
+    void create_with14Players_shouldUseFixedStatementsAndOneBatchPerTable() {
+        Long pitchId = seed();
+        Long memberId = userId("member1");
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+
+        book(memberId, pitchId, 8); // ısınma: catalog cache + ilk sequence blokları
+
+        // --- ölçüm: 2. rezervasyon ---
+        stats.clear();
+        JdbcCounts.reset();
+        book(memberId, pitchId, 9);
+
+        // üyelik select + insertIfFree + oyuncu insert'i + ödeme insert'i; oyuncu sayısından bağımsız
+        assertEquals(4, stats.getPrepareStatementCount(), "prepared: " + JdbcCounts.prepared);
+        assertEquals(PLAYERS + 1, stats.getEntityInsertCount()); // 14 oyuncu + 1 ödeme (rezervasyon native)
+        assertEquals(1, JdbcCounts.preparedMatching("insert into reservation_players"));
+        assertEquals(1, JdbcCounts.preparedMatching("insert into payments"));
+        assertEquals(0, JdbcCounts.preparedMatching("nextval"), "blok içinde: sequence round-trip yok");
+
+        // booking başına toplam JDBC statement: yukarıdaki 4 + event bus NOTIFY'ı (JdbcTemplate, Hibernate dışı)
+        assertEquals(1, JdbcCounts.preparedMatching("pg_notify"));
+        assertEquals(5, JdbcCounts.prepared.size(), "prepared: " + JdbcCounts.prepared);
+
+        // oyuncular tek batch (batch_size=50), ödeme de aynı flush'ta
+        assertEquals(PLAYERS + 1, JdbcCounts.addBatch.get());
+        assertEquals(2, JdbcCounts.executeBatch.get());
+
+        // --- nextval: 50'lik blok başına bir round-trip (3 rezervasyon = 42 oyuncu + 3 ödeme id'si) ---
+        JdbcCounts.reset();
+        for (int h = 10; h <= 12; h++) book(memberId, pitchId, h);
+
+        assertEquals(1, JdbcCounts.preparedMatching("reservation_players_seq"),
+                "4 × 14 = 56 oyuncu id'si: ısınmadaki bloktan sonra tek yeni blok");
+        assertEquals(0, JdbcCounts.preparedMatching("payments_seq"));
+        JdbcCounts.stop();
+    }
+}
@@ -0,0 +1,253 @@
+package com.ornek.ehalisaha;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ReservationRepository sorgu şekillerinin V4 index'lerini kullandığını ve V5 aylık partition'larından
+ * sadece pencerenin aylarını okuduğunu EXPLAIN ile doğrular.
+ *
+ * Spring context yok: şema Flyway ile kurulur, ~110k rezervasyon (50 saha, 1 yıl) üretilip VACUUM ANALYZE edilir.
+ * Sorgular Hibernate'in ürettiği SQL ile aynı şekilde, parametreler bind edilerek çalıştırılır.
+ * Partition'lardaki index'ler parent index adına (pg_inherits) çevrilerek kontrol edilir.
+ */
+@Testcontainers
+class ReservationIndexUsageIT {
+
+    @Container
+    static PostgreSQLContainer<?> pg = new PostgreSQLContainer<>("postgres:17-alpine")
+            .withDatabaseName("ehalisaha")
+            .withUsername("ehalisaha")
+            .withPassword("ehalisaha");
+
+    // seed: 2029-03-01 .. 2030-02-28, 4 saatte bir 1 saatlik maç; 2030 öncesi bitmiş (COMPLETED / %10 CANCELLED)
+    private static final Instant NOW = Instant.parse("2030-01-01T06:00:00Z");
+
+    @BeforeAll
+    static void schemaAndData() throws Exception {
+        Flyway.configure()
+                .dataSource(pg.getJdbcUrl(), pg.getUsername(), pg.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Connection c = connect(); Statement st = c.createStatement()) {
+            st.execute("select reservations_ensure_partitions(timestamptz '2029-03-01', timestamptz '2030-03-01')");
+            st.execute("""
+                insert into app_users(username, password_hash, role)
+                values ('ix_owner1', 'x', 'OWNER'), ('ix_owner2', 'x', 'OWNER'), ('ix_member', 'x', 'MEMBER')
+            """);
+            st.execute("""
+                insert into facilities(owner_user_id, name, name_key)
+                select (select id from app_users where username = case when g <= 5 then 'ix_owner1' else 'ix_owner2' end),
+                       'F' || g, 'f' || g
+                from generate_series(1, 10) g
+            """);
+            st.execute("""
+                insert into pitches(facility_id, name, name_key)
+                select f.id, 'P' || g, 'p' || g
+                from generate_series(1, 50) g
+                join (select id, row_number() over (order by id) as rn from facilities) f on f.rn = (g - 1) % 10 + 1
+            """);
+            st.execute("""
+                insert into memberships(facility_id, user_id)
+                select f.id, (select id from app_users where username = 'ix_member') from facilities f
+            """);
+            st.execute("""
+                insert into reservations(pitch_id, membership_id, start_time, end_time, status, total_price)
+                select p.id, m.id, ts, ts + interval '1 hour',
+                       case when ts >= timestamptz '2030-01-01' then 'CONFIRMED'
+                            when (p.id + extract(epoch from ts)::bigint / 3600) % 10 = 0 then 'CANCELLED'
+                            else 'COMPLETED' end,
+                       100
+                from pitches p
+                join memberships m on m.facility_id = p.facility_id
+                cross join generate_series(timestamptz '2029-03-01', timestamptz '2030-02-28 20:00', interval '4 hours') ts
+            """);
+            // index-only scan visibility map ister (prod'da autovacuum)
+            st.execute("vacuum analyze");
+        }
+    }
+
+    @Test
+    void overlapForPitchReadsOnlyThatMonth() throws Exception {
+        String plan = explain("""
+            select r.id, r.pitch_id, r.start_time, r.end_time, r.status
+            from reservations r
+            where r.pitch_id = ? and r.status <> ? and r.start_time < ? and r.end_time > ?
+              and r.start_time > cast(? as timestamptz) - interval '1 day'
+        """, pitchId(7), "CANCELLED", ts("2030-01-10T12:00:00Z"), ts("2030-01-10T10:00:00Z"),
+                ts("2030-01-10T10:00:00Z"));
+
+        assertUsesAnyOf(plan, "ix_res_pitch_end", "idx_res_pitch_time");
+        assertEquals(Set.of("reservations_p203001"), partitions(plan));
+    }
+
+    @Test
+    void existsOverlapAtMonthStartReadsPreviousMonthToo() throws Exception {
+        // önceki ayın son gününde başlayıp taşan satır da çakışabilir (süre <= 1 gün)
+        String plan = explain("""
+            select count(r.id) > 0
+            from reservations r
+            where r.pitch_id = ? and r.status <> ? and r.start_time < ? and r.end_time > ?
+              and r.start_time > cast(? as timestamptz) - interval '1 day'
+        """, pitchId(7), "CANCELLED", ts("2030-01-01T12:00:00Z"), ts("2030-01-01T10:00:00Z"),
+                ts("2030-01-01T10:00:00Z"));
+
+        assertUsesAnyOf(plan, "ix_res_pitch_end", "idx_res_pitch_time");
+        assertEquals(Set.of("reservations_p202912", "reservations_p203001"), partitions(plan));
+    }
+
+    @Test
+    void overlapForPitchesReadsOnlyThatMonth() throws Exception {
+        String plan = explain("""
+            select r.id, r.pitch_id, r.start_time, r.end_time, r.status
+            from reservations r
+            where r.pitch_id = any (?) and r.status <> ? and r.start_time < ? and r.end_time > ?
+              and r.start_time > cast(? as timestamptz) - interval '1 day'
+        """, pitchIds(1, 2, 3, 4, 5), "CANCELLED", ts("2030-01-17T00:00:00Z"), ts("2030-01-10T00:00:00Z"),
+                ts("2030-01-10T00:00:00Z"));
+
+        assertUsesAnyOf(plan, "ix_res_pitch_end", "idx_res_pitch_time");
+        assertEquals(Set.of("reservations_p203001"), partitions(plan));
+    }
+
+    @Test
+    void ownerPollingDoesNotScanReservations() throws Exception {
+        long afterId;
+        try (Connection c = connect(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("select max(id) - 300 from reservations")) {
+            rs.next();
+            afterId = rs.getLong(1);
+        }
+
+        String plan = explain("""
+            select count(r.id)
+            from reservations r, pitches p, facilities f
+            where r.pitch_id = p.id and p.facility_id = f.id
+              and f.owner_user_id = (select id from app_users where username = ?)
+              and r.id > ? and r.status <> ?
+        """, "ix_owner1", afterId, "CANCELLED");
+
+        assertNoSeqScanOnRows(plan);
+    }
+
+    @Test
+    void completeEndedBatchUsesPartialIndexAndSkipsFutureMonths() throws Exception {
+        String plan = explain("""
+            select x.id
+            from reservations x
+            where x.status = 'CONFIRMED' and x.end_time < ? and x.start_time < ?
+            order by x.end_time, x.id
+            limit ?
+            for update skip locked
+        """, Timestamp.from(NOW), Timestamp.from(NOW), 500);
+
+        assertUsesAnyOf(plan, "ix_res_confirmed_end");
+        assertFalse(partitions(plan).contains("reservations_p203002"), plan);
+    }
+
+    // ---------- helpers ----------
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(pg.getJdbcUrl(), pg.getUsername(), pg.getPassword());
+    }
+
+    private static String explain(String sql, Object... params) throws Exception {
+        try (Connection c = connect(); PreparedStatement ps = c.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+            StringBuilder sb = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) sb.append(rs.getString(1)).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final Pattern INDEX_IN_PLAN = Pattern.compile("(?:using|on) (\\w+)");
+    private static final Pattern SCANNED = Pattern.compile("Scan(?: Backward)?(?: using \\w+)? on (\\w+)");
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (reservations\\w*)");
+
+    /** Plandaki index'ler (partition index'i → parent index adı) en az birini içermeli; dolu partition'da seq scan olmamalı. */
+    private static void assertUsesAnyOf(String plan, String... indexes) throws Exception {
+        Set<String> used = new TreeSet<>();
+        try (Connection c = connect(); PreparedStatement ps = c.prepareStatement("""
+                select coalesce((select p.relname from pg_inherits i join pg_class p on p.oid = i.inhparent
+                                 where i.inhrelid = x.oid), x.relname)
+                from pg_class x where x.relname = ? and x.relkind in ('i', 'I')
+                """)) {
+            Matcher m = INDEX_IN_PLAN.matcher(plan);
+            while (m.find()) {
+                ps.setString(1, m.group(1));
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) used.add(rs.getString(1));
+                }
+            }
+        }
+        assertTrue(Set.of(indexes).stream().anyMatch(used::contains),
+                () -> "expected one of " + Set.of(indexes) + ", used " + used + " in plan:\n" + plan);
+        assertNoSeqScanOnRows(plan);
+    }
+
+    /** Boş partition'larda seq scan normal (planner için maliyetsiz); satırı olan reservations partition'ında olmamalı. */
+    private static void assertNoSeqScanOnRows(String plan) throws Exception {
+        try (Connection c = connect();
+             PreparedStatement ps = c.prepareStatement("select reltuples > 0 from pg_class where relname = ?")) {
+            Matcher m = SEQ_SCAN.matcher(plan);
+            while (m.find()) {
+                ps.setString(1, m.group(1));
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertFalse(rs.next() && rs.getBoolean(1), () -> "seq scan on non-empty table in plan:\n" + plan);
+                }
+            }
+        }
+    }
+
+    /** Planda taranan reservations partition'ları. */
+    private static Set<String> partitions(String plan) {
+        Set<String> out = new TreeSet<>();
+        Matcher m = SCANNED.matcher(plan);
+        while (m.find()) {
+            if (m.group(1).matches("reservations_(p\\d{6}|default)")) out.add(m.group(1));
+        }
+        return out;
+    }
+
+    private static long pitchId(int n) throws Exception {
+        try (Connection c = connect(); Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("select id from pitches where name = 'P" + n + "'")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Long[] pitchIds(int... n) throws Exception {
+        Long[] ids = new Long[n.length];
+        for (int i = 0; i < n.length; i++) ids[i] = pitchId(n[i]);
+        return ids;
+    }
+
+    private static Timestamp ts(String iso) {
+        return Timestamp.from(Instant.parse(iso));
+    }
+}
@@ -0,0 +1,124 @@
+package com.ornek.ehalisaha;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationPlayerAddRequest;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationSeriesRequest;
+import com.ornek.ehalisaha.ehalisahabackend.service.ReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Haftalık seri toplu insert'i (ReservationBatchWriter): dönen id'ler her haftaya eşlenmeli.
+ * Postgres zamanı mikrosaniyeye yuvarlar; nanosaniyeli firstStartTime'da da hiçbir hafta
+ * ödemesiz / oyuncusuz kalmamalı ya da çakışma diye raporlanmamalı.
+ * Seri başına statement sayısı hafta sayısından bağımsız ({@link JdbcCounts}).
+ */
+@Import(JdbcCounts.Config.class)
+class ReservationSeriesIT extends AbstractPostgresIT {
+
+    private static final ZoneId IST = ZoneId.of("Europe/Istanbul");
+
+    @Autowired ReservationService service;
+
+    private Long memberId;
+    private Long pitchId;
+
+    @BeforeEach
+    void seed() {
+        memberId = userId("member1");
+        pitchId = seedFacilityWithPitch("Series Arena", "Saha A");
+    }
+
+    private ReservationSeriesRequest series(Instant first, boolean skipConflicts) {
+        return series(first, 4, skipConflicts);
+    }
+
+    private ReservationSeriesRequest series(Instant first, int weeks, boolean skipConflicts) {
+        return new ReservationSeriesRequest(pitchId, first, weeks, 60, PaymentMethod.CASH,
+                List.of(new ReservationPlayerAddRequest("Ali Veli", 10), new ReservationPlayerAddRequest("Can Er", 7)),
+                false, skipConflicts);
+    }
+
+    private long paymentsFor(List<Long> ids) {
+        return jdbc.queryForObject("select count(*) from payments where reservation_id = any(?)",
+                Long.class, (Object) ids.toArray(new Long[0]));
+    }
+
+    private long playersFor(List<Long> ids) {
+        return jdbc.queryForObject("select count(*) from reservation_players where reservation_id = any(?)",
+                Long.class, (Object) ids.toArray(new Long[0]));
+    }
+
+    @Test
+    void createSeries_subMicrosecondStart_shouldMapEveryInsertedWeek() {
+        // salı 21:00 (slot başı) + 123 ns: slot eşleşir, DB mikrosaniyeye yuvarlar
+        Instant first = ZonedDateTime.of(2032, 1, 6, 21, 0, 0, 123, IST).toInstant();
+
+        ReservationService.SeriesResult res = service.createSeries(memberId, series(first, false));
+
+        List<Long> ids = res.occurrences().stream().map(ReservationService.SeriesOccurrence::reservationId).toList();
+        assertEquals(4, res.created());
+        assertTrue(ids.stream().allMatch(Objects::nonNull), "her hafta id almalı: " + ids);
+        assertTrue(res.occurrences().stream().allMatch(o -> o.conflictsWith().isEmpty()));
+        assertEquals(4, paymentsFor(ids));
+        assertEquals(8, playersFor(ids));
+    }
+
+    @Test
+    void createSeries_skipConflicts_subMicrosecondStart_shouldOnlySkipTheTakenWeek() {
+        ZonedDateTime first = ZonedDateTime.of(2032, 3, 2, 21, 0, 0, 0, IST);
+
+        // 2. hafta başka bir rezervasyonla dolu
+        Long takenId = reserve(pitchId, first.plusWeeks(1).toInstant(), 60, "CREATED");
+
+        ReservationService.SeriesResult res = service.createSeries(memberId, series(first.plusNanos(999).toInstant(), true));
+
+        assertEquals(3, res.created());
+        assertEquals(List.of(takenId), res.occurrences().get(1).conflictsWith());
+        assertNull(res.occurrences().get(1).reservationId());
+
+        List<Long> created = res.occurrences().stream()
+                .map(ReservationService.SeriesOccurrence::reservationId).filter(Objects::nonNull).toList();
+        assertEquals(3, created.size());
+        assertEquals(3, paymentsFor(created));
+        assertEquals(6, playersFor(created));
+
+        // seri ayında ödemesiz rezervasyon kalmamalı (elle eklenen dolu hafta hariç)
+        assertEquals(0, jdbc.queryForObject("""
+                select count(*) from reservations r
+                where r.pitch_id = ? and r.id <> ? and r.start_time >= ? and r.start_time < ?
+                  and not exists (select 1 from payments p where p.reservation_id = r.id)
+                """, Long.class, pitchId, takenId,
+                Timestamp.from(first.toInstant()), Timestamp.from(first.plusWeeks(4).toInstant())));
+    }
+
+    @Test
+    void createSeries_20weeks_shouldUseSameStatementsAsOneWeek() {
+        // ısınma: catalog cache (pitch / tesis / slot / fiyat)
+        service.createSeries(memberId, series(ZonedDateTime.of(2034, 1, 3, 18, 0, 0, 0, IST).toInstant(), 1, false));
+
+        JdbcCounts.reset();
+        ReservationService.SeriesResult res =
+                service.createSeries(memberId, series(ZonedDateTime.of(2034, 1, 3, 19, 0, 0, 0, IST).toInstant(), 20, false));
+        JdbcCounts.stop();
+
+        assertEquals(20, res.created());
+        // üyelik + tek overlap sorgusu + rezervasyon / oyuncu / ödeme insert'leri + tek NOTIFY
+        assertEquals(1, JdbcCounts.preparedMatching("pg_notify"), "20 event tek statement: " + JdbcCounts.prepared);
+        assertEquals(1, JdbcCounts.preparedMatching("insert into reservations"));
+        assertEquals(1, JdbcCounts.preparedMatching("insert into reservation_players"));
+        assertEquals(1, JdbcCounts.preparedMatching("insert into payments"));
+        assertEquals(6, JdbcCounts.prepared.size(), "prepared: " + JdbcCounts.prepared);
+    }
+}
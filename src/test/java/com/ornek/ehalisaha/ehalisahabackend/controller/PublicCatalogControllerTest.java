@@ -0,0 +1,111 @@
+package com.ornek.ehalisaha.ehalisahabackend.controller;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto;
+import com.ornek.ehalisaha.ehalisahabackend.repository.DurationOptionRepository;
+import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
+import com.ornek.ehalisaha.ehalisahabackend.service.CatalogCache;
+import com.ornek.ehalisaha.ehalisahabackend.service.ChangeVersions;
+import com.ornek.ehalisaha.ehalisahabackend.service.FacilitySearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Tesis listesinin keyset sayfalaması (limit+1, X-Next-After-Id),
+ * active filtresi ve isim öneki LIKE escape'i.
+ */
+class PublicCatalogControllerTest {
+
+    private final FacilityRepository facilityRepo = mock(FacilityRepository.class);
+    private final WebRequest request = mock(WebRequest.class);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final PublicCatalogController controller = new PublicCatalogController(facilityRepo,
+            mock(CatalogCache.class), mock(DurationOptionRepository.class), new ChangeVersions(),
+            mock(FacilitySearchIndex.class));
+
+    private static List<FacilitySummaryDto> rows(long fromId, int count) {
+        return LongStream.range(fromId, fromId + count)
+                .mapToObj(id -> new FacilitySummaryDto(id, "Tesis " + id, null, true))
+                .toList();
+    }
+
+    @Test
+    void facilities_moreRowsThanLimit_shouldTrimAndPointHeaderAtLastReturnedId() {
+        when(facilityRepo.findSummaries(eq(20L), isNull(), isNull(), eq(Limit.of(4)))).thenReturn(rows(21, 4));
+
+        List<FacilitySummaryDto> page = controller.facilities(20, 3, null, null, request, response);
+
+        assertEquals(List.of(21L, 22L, 23L), page.stream().map(FacilitySummaryDto::id).toList());
+        assertEquals("23", response.getHeader(PublicCatalogController.NEXT_HEADER));
+    }
+
+    @Test
+    void facilities_lastPage_shouldNotSendNextHeader() {
+        when(facilityRepo.findSummaries(anyLong(), any(), any(), any())).thenReturn(rows(41, 3));
+
+        List<FacilitySummaryDto> page = controller.facilities(40, 3, null, null, request, response);
+
+        assertEquals(3, page.size());
+        assertNull(response.getHeader(PublicCatalogController.NEXT_HEADER));
+    }
+
+    @Test
+    void facilities_shouldDefaultAndCapLimit_andClampNegativeCursor() {
+        when(facilityRepo.findSummaries(anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        controller.facilities(-5, null, null, null, request, response);
+        verify(facilityRepo).findSummaries(0L, null, null, Limit.of(PublicCatalogController.DEFAULT_LIMIT + 1));
+
+        controller.facilities(0, 10_000, null, null, request, response);
+        verify(facilityRepo).findSummaries(0L, null, null, Limit.of(PublicCatalogController.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void facilities_shouldPassActiveFilterThrough() {
+        when(facilityRepo.findSummaries(anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        controller.facilities(0, 10, true, null, request, response);
+        controller.facilities(0, 10, false, null, request, response);
+
+        verify(facilityRepo).findSummaries(0L, true, null, Limit.of(11));
+        verify(facilityRepo).findSummaries(0L, false, null, Limit.of(11));
+    }
+
+    @Test
+    void facilities_notModified_shouldSkipRepository() {
+        when(request.checkNotModified(anyString())).thenReturn(true);
+
+        assertNull(controller.facilities(0, 10, true, "arena", request, response));
+        verifyNoInteractions(facilityRepo);
+    }
+
+    @Test
+    void facilities_shouldQueryWithEscapedPrefix() {
+        when(facilityRepo.findSummaries(anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        controller.facilities(0, 10, null, "  Yıldız_Spor ", request, response);
+
+        verify(facilityRepo).findSummaries(0L, null, "yıldız\\_spor%", Limit.of(11));
+    }
+
+    @Test
+    void namePrefix_shouldNormalizeLikeNameKey_andEscapeWildcards() {
+        assertNull(PublicCatalogController.namePrefix(null));
+        assertNull(PublicCatalogController.namePrefix("   "));
+
+        assertEquals("kadikoy arena%", PublicCatalogController.namePrefix("  Kadikoy   ARENA "));
+        assertEquals("100\\%\\_saha%", PublicCatalogController.namePrefix("100%_saha"));
+        assertEquals("a\\\\b%", PublicCatalogController.namePrefix("a\\b"));
+        // önce ters bölü: eklenen escape'ler tekrar escape'lenmemeli
+        assertEquals("\\\\\\%%", PublicCatalogController.namePrefix("\\%"));
+    }
+}
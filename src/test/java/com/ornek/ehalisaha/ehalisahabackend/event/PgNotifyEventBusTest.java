@@ -0,0 +1,166 @@
+package com.ornek.ehalisaha.ehalisahabackend.event;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: DB yok. Gönderilen payload'ın başka node'da aynı event'e dönmesi,
+ * kendi mesajının / bilinmeyen tiplerin atlanması, tekrar NOTIFY edilmemesi ve
+ * transaction içindeki event'lerin commit öncesi tek statement'la gitmesi, listener hatasının
+ * dinlemeyi kesmemesi ve sığmayan event yerine resync zarfı gitmesi.
+ */
+class PgNotifyEventBusTest {
+
+    private static final ObjectMapper JSON = JsonMapper.builder().build();
+
+    private static PgNotifyEventBus bus(String node, JdbcTemplate jdbc, ApplicationEventPublisher pub) {
+        return bus(node, jdbc, pub, new SimpleMeterRegistry());
+    }
+
+    private static PgNotifyEventBus bus(String node, JdbcTemplate jdbc, ApplicationEventPublisher pub,
+                                        SimpleMeterRegistry meters) {
+        return new PgNotifyEventBus(jdbc, JSON, pub, meters, node, "jdbc:postgresql://unused", "", "", 1000, 1000);
+    }
+
+    private static final ReservationChangedEvent EVENT = new ReservationChangedEvent(
+            5L, 2L, 9L, 3L,
+            Instant.parse("2030-01-01T17:00:00Z"), Instant.parse("2030-01-01T18:00:00Z"),
+            ReservationStatus.CREATED, "RESERVATION_CREATE");
+
+    private static String sentPayload(JdbcTemplate jdbc) {
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(jdbc).query(eq("select pg_notify(?, ?)"), any(ResultSetExtractor.class), args.capture(), args.capture());
+        assertEquals(PgNotifyEventBus.CHANNEL, args.getAllValues().get(0));
+        return (String) args.getAllValues().get(1);
+    }
+
+    @Test
+    void publish_thenDispatchOnOtherNode_shouldRepublishSameEvent() {
+        JdbcTemplate jdbcA = mock(JdbcTemplate.class);
+        bus("A", jdbcA, mock(ApplicationEventPublisher.class)).publish(EVENT);
+        String payload = sentPayload(jdbcA);
+
+        ApplicationEventPublisher pubB = mock(ApplicationEventPublisher.class);
+        JdbcTemplate jdbcB = mock(JdbcTemplate.class);
+        PgNotifyEventBus b = bus("B", jdbcB, pubB);
+
+        // B'deki local yayın sırasında giden listener tekrar NOTIFY etmemeli
+        doAnswer(inv -> {
+            b.publish(inv.getArgument(0));
+            return null;
+        }).when(pubB).publishEvent(any(Object.class));
+
+        b.dispatch(payload);
+
+        verify(pubB).publishEvent(EVENT);
+        verifyNoInteractions(jdbcB);
+    }
+
+    @Test
+    void dispatch_shouldSkipOwnNode_unknownTypes_andGarbage() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        ApplicationEventPublisher pub = mock(ApplicationEventPublisher.class);
+        PgNotifyEventBus a = bus("A", jdbc, pub);
+
+        a.publish(EVENT);
+        a.dispatch(sentPayload(jdbc));
+        a.dispatch("{\"node\":\"B\",\"type\":\"SomethingElse\",\"payload\":{}}");
+        a.dispatch("not json");
+
+        verifyNoInteractions(pub);
+    }
+
+    @Test
+    void publish_inTransaction_shouldSendAllEventsInOneStatementBeforeCommit() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        PgNotifyEventBus a = bus("A", jdbc, mock(ApplicationEventPublisher.class));
+        ReservationChangedEvent second = new ReservationChangedEvent(6L, 2L, 9L, 3L,
+                Instant.parse("2030-01-08T17:00:00Z"), Instant.parse("2030-01-08T18:00:00Z"),
+                ReservationStatus.CREATED, "RESERVATION_CREATE");
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            a.publish(EVENT);
+            a.publish(second);
+            verifyNoInteractions(jdbc);
+
+            List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, syncs.size());
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+            ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+            verify(jdbc).query(eq("select pg_notify(?, p) from unnest(cast(? as text[])) p"),
+                    any(ResultSetExtractor.class), args.capture(), args.capture());
+            String[] payloads = (String[]) args.getAllValues().get(1);
+            assertEquals(2, payloads.length);
+
+            // aynı sırayla öteki node'da yeniden yayınlanır
+            ApplicationEventPublisher pubB = mock(ApplicationEventPublisher.class);
+            PgNotifyEventBus b = bus("B", mock(JdbcTemplate.class), pubB);
+            for (String p : payloads) b.dispatch(p);
+            var order = inOrder(pubB);
+            order.verify(pubB).publishEvent(EVENT);
+            order.verify(pubB).publishEvent(second);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(syncs, TransactionSynchronization.STATUS_COMMITTED);
+            assertNull(TransactionSynchronizationManager.getResource(a));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void dispatch_failingLocalListener_shouldBeCounted_andNotStopLaterEvents() {
+        JdbcTemplate jdbcA = mock(JdbcTemplate.class);
+        bus("A", jdbcA, mock(ApplicationEventPublisher.class)).publish(EVENT);
+        String payload = sentPayload(jdbcA);
+
+        ApplicationEventPublisher pub = mock(ApplicationEventPublisher.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        PgNotifyEventBus b = bus("B", mock(JdbcTemplate.class), pub, meters);
+        doThrow(new IllegalStateException("listener bug")).doNothing().when(pub).publishEvent(any(Object.class));
+
+        assertDoesNotThrow(() -> b.dispatch(payload));
+        b.dispatch(payload);
+
+        verify(pub, times(2)).publishEvent(EVENT);
+        assertEquals(1.0, meters.get("ehalisaha.events.listener_errors").counter().count());
+    }
+
+    @Test
+    void publish_oversizedEvent_shouldSendResyncEnvelope_thatOtherNodesReplayAsResync() {
+        ReservationChangedEvent huge = new ReservationChangedEvent(5L, 2L, 9L, 3L,
+                Instant.parse("2030-01-01T17:00:00Z"), Instant.parse("2030-01-01T18:00:00Z"),
+                ReservationStatus.CREATED, "X".repeat(PgNotifyEventBus.MAX_PAYLOAD_BYTES));
+        JdbcTemplate jdbcA = mock(JdbcTemplate.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        bus("A", jdbcA, mock(ApplicationEventPublisher.class), meters).publish(huge);
+
+        String payload = sentPayload(jdbcA);
+        assertTrue(payload.length() < 200, payload);
+        assertEquals(1.0, meters.get("ehalisaha.events.oversized").counter().count());
+
+        ApplicationEventPublisher pubB = mock(ApplicationEventPublisher.class);
+        bus("B", mock(JdbcTemplate.class), pubB).dispatch(payload);
+        verify(pubB).publishEvent(new EventBusResyncEvent("A"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.ornek.ehalisaha.ehalisahabackend.security;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.UserRole;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests: Spring context yok. Token doğrulaması bellekte, imza / süre kontrolü.
+ */
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private static AppUserPrincipal owner() {
+        return new AppUserPrincipal(7L, "owner1", "hash", UserRole.OWNER);
+    }
+
+    @Test
+    void issue_thenVerify_shouldRestorePrincipal() {
+        AuthTokenService svc = new AuthTokenService(SECRET, 60, false);
+
+        String token = svc.issue(owner()).token();
+        AppUserPrincipal p = svc.verify(token);
+
+        assertTrue(token.startsWith(AuthTokenService.PREFIX));
+        assertNotNull(p);
+        assertEquals(7L, p.getId());
+        assertEquals("owner1", p.getUsername());
+        assertEquals("OWNER", p.getRole());
+        assertNull(p.getPassword());
+    }
+
+    @Test
+    void verify_shouldReject_tamperedOrForeignToken() {
+        AuthTokenService svc = new AuthTokenService(SECRET, 60, false);
+        String token = svc.issue(owner()).token();
+
+        // payload'ı değiştir (rolü MEMBER'a çevirmeye çalışan biri gibi)
+        int dot = token.indexOf('.', AuthTokenService.PREFIX.length());
+        String forged = AuthTokenService.PREFIX
+                + java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1|7|MEMBER|9999999999|owner1".getBytes())
+                + token.substring(dot);
+
+        assertNull(svc.verify(forged));
+        assertNull(svc.verify(token + "x"));
+        assertNull(svc.verify("garbage"));
+        assertNull(svc.verify(null));
+
+        // başka secret ile imzalanmış
+        AuthTokenService other = new AuthTokenService("ffffffffffffffffffffffffffffffff", 60, false);
+        assertNull(other.verify(token));
+    }
+
+    @Test
+    void verify_shouldReject_expiredToken() {
+        AuthTokenService svc = new AuthTokenService(SECRET, 0, false);
+        assertNull(svc.verify(svc.issue(owner()).token()));
+    }
+
+    @Test
+    void ctor_shouldReject_shortSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new AuthTokenService("short", 60, false));
+    }
+
+    @Test
+    void ctor_shouldFailFast_onBlankSecret_unlessRandomExplicitlyAllowed() {
+        assertThrows(IllegalStateException.class, () -> new AuthTokenService("", 60, false));
+        assertThrows(IllegalStateException.class, () -> new AuthTokenService(null, 60, false));
+
+        AuthTokenService dev = new AuthTokenService("", 60, true);
+        assertNotNull(dev.verify(dev.issue(owner()).token()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.AuditLogDto;
+import com.ornek.ehalisaha.ehalisahabackend.repository.AuditLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Filtreye göre sorgu (index) seçimi + keyset cursor.
+ */
+class AuditQueryServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-10-01T10:00:00Z");
+
+    private final AuditLogRepository repo = mock(AuditLogRepository.class);
+    private final AuditQueryService service = new AuditQueryService(repo);
+
+    private static List<AuditLogDto> rows(int n) {
+        return LongStream.range(0, n)
+                .mapToObj(i -> new AuditLogDto(100 - i, 7L, "PITCH_CREATE", "Pitch", i, null, T0.minusSeconds(i)))
+                .toList();
+    }
+
+    private static AuditQueryService.Query query(Long actor, String type, Long entityId, Instant beforeAt, Long beforeId,
+                                                 Integer limit) {
+        return new AuditQueryService.Query(actor, type, entityId, null, null, beforeAt, beforeId, limit);
+    }
+
+    @Test
+    void search_firstPage_shouldFetchOneExtra_andReturnCursorOfLastRow() {
+        when(repo.findPage(any(), any(), anyLong(), any())).thenReturn(rows(4));
+
+        var page = service.search(query(null, null, null, null, null, 3));
+
+        assertEquals(3, page.items().size());
+        assertEquals(T0.minusSeconds(2), page.nextBeforeAt());
+        assertEquals(98L, page.nextBeforeId());
+        verify(repo).findPage(AuditQueryService.MIN_TIME, AuditQueryService.MAX_TIME, 0L, Limit.of(4));
+    }
+
+    @Test
+    void search_lastPage_shouldHaveNoCursor_andPassGivenCursor() {
+        when(repo.findPageByActor(eq(7L), any(), any(), anyLong(), any())).thenReturn(rows(2));
+
+        var page = service.search(query(7L, null, null, T0, 55L, 3));
+
+        assertEquals(2, page.items().size());
+        assertNull(page.nextBeforeAt());
+        assertNull(page.nextBeforeId());
+        verify(repo).findPageByActor(7L, AuditQueryService.MIN_TIME, T0, 55L, Limit.of(4));
+    }
+
+    @Test
+    void search_cursorAtOrAfterTo_shouldBeClampedToTo() {
+        when(repo.findPage(any(), any(), anyLong(), any())).thenReturn(List.of());
+        Instant to = T0.minusSeconds(60);
+
+        service.search(new AuditQueryService.Query(null, null, null, null, to, T0, 55L, 3));
+        service.search(new AuditQueryService.Query(null, null, null, null, to, to, 55L, 3));
+
+        // to hariç: cursor to'dan büyük / eşitse üst sınır (to, 0)
+        verify(repo, times(2)).findPage(AuditQueryService.MIN_TIME, to, 0L, Limit.of(4));
+
+        service.search(new AuditQueryService.Query(null, null, null, null, to, to.minusSeconds(1), 55L, 3));
+        verify(repo).findPage(AuditQueryService.MIN_TIME, to.minusSeconds(1), 55L, Limit.of(4));
+    }
+
+    @Test
+    void search_withEntity_shouldUseEntityQuery_evenWithActor() {
+        when(repo.findPageByEntity(any(), any(), any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        service.search(query(7L, "Reservation", 42L, null, null, null));
+
+        verify(repo).findPageByEntity(eq("Reservation"), eq(42L), eq(7L), any(), any(), eq(0L),
+                eq(Limit.of(AuditQueryService.DEFAULT_LIMIT + 1)));
+        verify(repo, never()).findPageByActor(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void searchForOwner_shouldForceActorToOwner() {
+        when(repo.findPageByActor(any(), any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        service.searchForOwner(5L, query(99L, null, null, null, null, 1000));
+
+        verify(repo).findPageByActor(eq(5L), any(), any(), eq(0L), eq(Limit.of(AuditQueryService.MAX_LIMIT + 1)));
+    }
+
+    @Test
+    void search_shouldRejectHalfFilters_andEmptyRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.search(query(null, "Reservation", null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.search(query(null, null, null, T0, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> service.search(
+                new AuditQueryService.Query(null, null, null, T0, T0, null, null, null)));
+        verifyNoInteractions(repo);
+    }
+}
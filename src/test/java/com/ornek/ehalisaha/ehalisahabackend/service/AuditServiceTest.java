@@ -0,0 +1,145 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok, flusher thread başlatılmaz (flushOnce elle çağrılır).
+ * Transaction, TransactionSynchronizationManager ile simüle edilir.
+ */
+class AuditServiceTest {
+
+    private final AuditBatchWriter writer = mock(AuditBatchWriter.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private AuditService service(int capacity, int batchSize) {
+        return new AuditService(writer, meters, new String[]{"CASH_PAID"}, true, capacity, batchSize, 0, 50);
+    }
+
+    @AfterEach
+    void clearTx() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AuditBatchWriter.Row> inserted(int call) {
+        ArgumentCaptor<List<AuditBatchWriter.Row>> c = ArgumentCaptor.forClass(List.class);
+        verify(writer, atLeast(call + 1)).insert(c.capture());
+        return c.getAllValues().get(call);
+    }
+
+    private static void complete(boolean commit) {
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        if (commit) {
+            syncs.forEach(s -> s.beforeCommit(false));
+            syncs.forEach(TransactionSynchronization::afterCommit);
+        }
+        int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+        syncs.forEach(s -> s.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void log_outsideTx_shouldBufferAsync_andFlushInBatches() {
+        AuditService s = service(100, 2);
+
+        s.log(1L, "FACILITY_CREATE", "Facility", 10L, "a");
+        s.log(1L, "PITCH_CREATE", "Pitch", 11L, "b");
+        s.log(1L, "PITCH_CREATE", "Pitch", 12L, "c");
+        verifyNoInteractions(writer);
+
+        assertEquals(2, s.flushOnce());
+        assertEquals(1, s.flushOnce());
+        assertEquals(0, s.flushOnce());
+
+        assertEquals(List.of(10L, 11L), inserted(0).stream().map(AuditBatchWriter.Row::entityId).toList());
+        assertEquals(3.0, meters.get("ehalisaha.audit.written").counter().count());
+    }
+
+    @Test
+    void log_inTx_shouldWriteOutboxBeforeCommit_inOneInsert_andAsyncOnlyAfterCommit() {
+        AuditService s = service(100, 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        s.log(1L, "CASH_PAID", "Reservation", 5L, "confirmed");
+        s.log(1L, "CASH_PAID", "Reservation", 6L, "confirmed");
+        s.log(1L, "RESERVATION_CREATE", "Reservation", 7L, "x");
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        verifyNoInteractions(writer);
+
+        complete(true);
+
+        // commit öncesi: sadece outbox, tek insert
+        assertEquals(List.of(5L, 6L), inserted(0).stream().map(AuditBatchWriter.Row::entityId).toList());
+        assertNull(TransactionSynchronizationManager.getResource(s));
+
+        assertEquals(1, s.flushOnce());
+        assertEquals(7L, inserted(1).get(0).entityId());
+    }
+
+    @Test
+    void log_inRolledBackTx_shouldWriteNothing() {
+        AuditService s = service(100, 10);
+        TransactionSynchronizationManager.initSynchronization();
+
+        s.log(1L, "CASH_PAID", "Reservation", 5L, "confirmed");
+        s.log(1L, "RESERVATION_CREATE", "Reservation", 7L, "x");
+        complete(false);
+
+        assertEquals(0, s.flushOnce());
+        verifyNoInteractions(writer);
+        assertNull(TransactionSynchronizationManager.getResource(s));
+    }
+
+    @Test
+    void log_whenBufferFull_shouldCountBackpressure_andDrop() {
+        AuditService s = service(2, 10);
+
+        s.log(1L, "PITCH_CREATE", "Pitch", 1L, null);
+        s.log(1L, "PITCH_CREATE", "Pitch", 2L, null);
+        s.log(1L, "PITCH_CREATE", "Pitch", 3L, null);
+
+        assertEquals(1.0, meters.get("ehalisaha.audit.backpressure").counter().count());
+        assertEquals(1.0, meters.get("ehalisaha.audit.dropped").counter().count());
+        assertEquals(2.0, meters.get("ehalisaha.audit.buffer_size").gauge().value());
+    }
+
+    @Test
+    void flush_whenInsertFails_shouldCountFailures_andKeepGoing() {
+        AuditService s = service(100, 10);
+        when(writer.insert(anyList())).thenThrow(new RuntimeException("db down")).thenReturn(1);
+
+        s.log(1L, "PITCH_CREATE", "Pitch", 1L, null);
+        s.log(1L, "PITCH_CREATE", "Pitch", 2L, null);
+        assertEquals(2, s.flushOnce());
+        s.log(1L, "PITCH_CREATE", "Pitch", 3L, null);
+        assertEquals(1, s.flushOnce());
+
+        assertEquals(2.0, meters.get("ehalisaha.audit.write_failures").counter().count());
+        assertEquals(1.0, meters.get("ehalisaha.audit.written").counter().count());
+    }
+
+    @Test
+    void asyncDisabled_shouldTreatEveryActionAsOutbox_andLongFieldsAreTrimmed() {
+        AuditService s = new AuditService(writer, meters, new String[]{}, false, 10, 10, 0, 50);
+
+        s.log(1L, "PITCH_CREATE", "x".repeat(50), 1L, "d".repeat(3000));
+
+        AuditBatchWriter.Row r = inserted(0).get(0);
+        assertEquals(40, r.entityType().length());
+        assertEquals(2000, r.detail().length());
+        assertEquals(AuditService.Durability.OUTBOX, s.durabilityOf("ANY"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.AppUser;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.UserRole;
+import com.ornek.ehalisaha.ehalisahabackend.dto.LoginRequest;
+import com.ornek.ehalisaha.ehalisahabackend.repository.AppUserRepository;
+import com.ornek.ehalisaha.ehalisahabackend.security.AuthTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Login parolayı bir kez doğrular, token verir.
+ */
+class AuthServiceTest {
+
+    private static AppUser user() {
+        AppUser u = new AppUser();
+        u.setId(3L);
+        u.setUsername("member1");
+        u.setPasswordHash("{bcrypt}x");
+        u.setRole(UserRole.MEMBER);
+        u.setEnabled(true);
+        return u;
+    }
+
+    @Test
+    void login_shouldIssueVerifiableToken() {
+        AppUserRepository repo = mock(AppUserRepository.class);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        AuthTokenService tokens = new AuthTokenService("", 30, true);
+        AuthService svc = new AuthService(repo, encoder, tokens);
+
+        when(repo.findByUsername("member1")).thenReturn(Optional.of(user()));
+        when(encoder.matches("member123", "{bcrypt}x")).thenReturn(true);
+
+        var r = svc.login(new LoginRequest("member1", "member123"));
+
+        assertEquals("Bearer", r.tokenType());
+        assertEquals("MEMBER", r.role());
+        assertEquals(3L, tokens.verify(r.token()).getId());
+    }
+
+    @Test
+    void login_shouldReject_wrongPasswordAndUnknownUser() {
+        AppUserRepository repo = mock(AppUserRepository.class);
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        AuthService svc = new AuthService(repo, encoder, new AuthTokenService("", 30, true));
+
+        when(repo.findByUsername("member1")).thenReturn(Optional.of(user()));
+        when(repo.findByUsername("nobody")).thenReturn(Optional.empty());
+        when(encoder.matches(any(), any())).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> svc.login(new LoginRequest("member1", "bad")));
+        assertThrows(BadCredentialsException.class, () -> svc.login(new LoginRequest("nobody", "bad")));
+
+        // kullanıcı yokken de parola kontrolü yapılır (süre farkı olmasın)
+        verify(encoder, times(2)).matches(eq("bad"), any());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.DurationOption;
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.PricingRule;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Read-through + explicit invalidation + metrikler.
+ */
+class CatalogCacheTest {
+
+    private final PitchRepository pitchRepo = mock(PitchRepository.class);
+    private final FacilityRepository facilityRepo = mock(FacilityRepository.class);
+    private final FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
+    private final DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
+    private final PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private CatalogCache cache() {
+        return new CatalogCache(pitchRepo, facilityRepo, slotRepo, durationRepo, pricingRepo,
+                events, meters, 100, 60);
+    }
+
+    private static Pitch pitch(Long id) {
+        Pitch p = new Pitch();
+        p.setId(id);
+        p.setFacilityId(10L);
+        return p;
+    }
+
+    @Test
+    void reads_shouldHitRepositoryOnce_andRecordHitMiss() {
+        CatalogCache c = cache();
+        when(pitchRepo.findById(1L)).thenReturn(Optional.of(pitch(1L)));
+
+        assertTrue(c.pitch(1L).isPresent());
+        assertTrue(c.pitch(1L).isPresent());
+        assertTrue(c.pitch(1L).isPresent());
+
+        verify(pitchRepo, times(1)).findById(1L);
+        assertEquals(2.0, meters.get("cache.gets").tag("cache", "catalog.pitches").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meters.get("cache.gets").tag("cache", "catalog.pitches").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void missingRows_shouldNotBeCached() {
+        CatalogCache c = cache();
+        when(durationRepo.findByMinutes(90)).thenReturn(Optional.empty());
+
+        assertTrue(c.duration(90).isEmpty());
+
+        DurationOption d = new DurationOption();
+        d.setId(3L);
+        d.setMinutes(90);
+        when(durationRepo.findByMinutes(90)).thenReturn(Optional.of(d));
+
+        assertEquals(3L, c.duration(90).orElseThrow().getId());
+    }
+
+    @Test
+    void invalidatePitch_shouldDropPitchAndItsPrices_andNotifyCluster() {
+        CatalogCache c = cache();
+        PricingRule pr = new PricingRule();
+        pr.setId(11L);
+        when(pitchRepo.findById(1L)).thenReturn(Optional.of(pitch(1L)));
+        when(pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(1L, 5L)).thenReturn(Optional.of(pr));
+        when(pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(2L, 5L)).thenReturn(Optional.of(pr));
+
+        c.pitch(1L);
+        c.activePrice(1L, 5L);
+        c.activePrice(2L, 5L);
+
+        c.invalidatePitch(10L, 1L);
+
+        c.pitch(1L);
+        c.activePrice(1L, 5L);
+        c.activePrice(2L, 5L); // başka pitch: cache'te kalmalı
+
+        verify(pitchRepo, times(2)).findById(1L);
+        verify(pricingRepo, times(2)).findByPitchIdAndDurationOptionIdAndActiveTrue(1L, 5L);
+        verify(pricingRepo, times(1)).findByPitchIdAndDurationOptionIdAndActiveTrue(2L, 5L);
+        verify(events).publishEvent(new CatalogChangedEvent(10L, 1L));
+    }
+
+    @Test
+    void remoteEvent_shouldEvictFacilitySlots() {
+        CatalogCache c = cache();
+        when(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L)).thenReturn(java.util.List.of());
+
+        c.activeSlots(10L);
+        c.onCatalogChanged(new CatalogChangedEvent(10L, null));
+        c.activeSlots(10L);
+
+        verify(slotRepo, times(2)).findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L);
+    }
+}
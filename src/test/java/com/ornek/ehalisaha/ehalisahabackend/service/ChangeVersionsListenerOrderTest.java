@@ -0,0 +1,132 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.event.TransactionalEventListenerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Spring event altyapısı gerçek (listener'lar + @Order), repo'lar mock. Aynı event'i dinleyen
+ * cache / index'ler ChangeVersions'tan önce çalışmalı: yeni ETag eski veriyle birlikte görülmesin.
+ * Bean'ler bilerek ters sırada kaydedilir (kayıt sırası sonucu belirlemesin).
+ */
+class ChangeVersionsListenerOrderTest {
+
+    private static final List<String> CALLS = new CopyOnWriteArrayList<>();
+
+    static class RecordingVersions extends ChangeVersions {
+        @Override public void onReservationChanged(ReservationChangedEvent e) { CALLS.add("versions"); super.onReservationChanged(e); }
+        @Override public void onCatalogChanged(CatalogChangedEvent e) { CALLS.add("versions"); super.onCatalogChanged(e); }
+        @Override public void onResync(EventBusResyncEvent e) { CALLS.add("versions"); super.onResync(e); }
+    }
+
+    static class RecordingOccupancy extends OccupancyIndex {
+        RecordingOccupancy() { super(mock(ReservationRepository.class), 100); }
+        @Override public void onReservationChanged(ReservationChangedEvent e) { CALLS.add("occupancy"); super.onReservationChanged(e); }
+        @Override public void onResync(EventBusResyncEvent e) { CALLS.add("occupancy"); super.onResync(e); }
+    }
+
+    static class RecordingCatalog extends CatalogCache {
+        RecordingCatalog() {
+            super(mock(PitchRepository.class), mock(FacilityRepository.class), mock(FacilitySlotRepository.class),
+                    mock(DurationOptionRepository.class), mock(PricingRuleRepository.class),
+                    mock(ApplicationEventPublisher.class), new SimpleMeterRegistry(), 100, 60);
+        }
+        @Override public void onCatalogChanged(CatalogChangedEvent e) { CALLS.add("catalog"); super.onCatalogChanged(e); }
+        @Override public void onResync(EventBusResyncEvent e) { CALLS.add("catalog"); super.onResync(e); }
+    }
+
+    static class RecordingSearch extends FacilitySearchIndex {
+        RecordingSearch() { super(mock(FacilityRepository.class)); }
+        @Override public void onCatalogChanged(CatalogChangedEvent e) { CALLS.add("search"); super.onCatalogChanged(e); }
+        @Override public void onResync(EventBusResyncEvent e) { CALLS.add("search"); super.onResync(e); }
+    }
+
+    private AnnotationConfigApplicationContext ctx;
+
+    @BeforeEach
+    void setUp() {
+        CALLS.clear();
+        ctx = new AnnotationConfigApplicationContext();
+        ctx.registerBean(TransactionalEventListenerFactory.class);
+        ctx.registerBean(RecordingVersions.class);
+        ctx.registerBean(RecordingSearch.class);
+        ctx.registerBean(RecordingCatalog.class);
+        ctx.registerBean(RecordingOccupancy.class);
+        ctx.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        ctx.close();
+    }
+
+    private static ReservationChangedEvent reservation() {
+        Instant t = Instant.parse("2030-01-01T10:00:00Z");
+        return new ReservationChangedEvent(1L, 10L, 500L, 1L, t, t.plusSeconds(3600),
+                ReservationStatus.CREATED, "RESERVATION_CREATE");
+    }
+
+    /** Commit sonrası (after-commit synchronization'ları) çalışan listener'ların sırası. */
+    private List<String> afterCommit(Object event) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        ctx.publishEvent(event);
+        assertEquals(List.of(), CALLS, "commit'ten önce çalışmamalı");
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(syncs, TransactionSynchronization.STATUS_COMMITTED);
+        return List.copyOf(CALLS);
+    }
+
+    @Test
+    void reservationChange_afterCommit_shouldUpdateOccupancyBeforeBumpingVersion() {
+        assertEquals(List.of("occupancy", "versions"), afterCommit(reservation()));
+    }
+
+    @Test
+    void catalogChange_afterCommit_shouldEvictCachesBeforeBumpingVersion() {
+        List<String> calls = afterCommit(new CatalogChangedEvent(10L, 1L));
+
+        assertEquals(3, calls.size());
+        assertEquals("versions", calls.get(2));
+    }
+
+    @Test
+    void withoutTransaction_remoteEventsAndResync_shouldKeepSameOrder() {
+        ctx.publishEvent(reservation());
+        assertEquals(List.of("occupancy", "versions"), CALLS);
+
+        CALLS.clear();
+        ctx.publishEvent(new CatalogChangedEvent(10L, null));
+        assertEquals("versions", CALLS.get(CALLS.size() - 1));
+
+        CALLS.clear();
+        ctx.publishEvent(new EventBusResyncEvent("node-a"));
+        assertEquals(4, CALLS.size());
+        assertEquals("versions", CALLS.get(3));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.EventBusResyncEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.PricingChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests: Spring context yok. Event'ler ilgili sayaçları artırmalı, ETag buna göre değişmeli.
+ */
+class ChangeVersionsTest {
+
+    private static ReservationChangedEvent reservation(Long facilityId, Long pitchId) {
+        Instant t = Instant.parse("2030-01-01T10:00:00Z");
+        return new ReservationChangedEvent(1L, facilityId, 500L, pitchId, t, t.plusSeconds(3600),
+                ReservationStatus.CREATED, "RESERVATION_CREATE");
+    }
+
+    @Test
+    void reservationChange_shouldBumpOnlyItsPitchAndFacilityOccupancy() {
+        ChangeVersions v = new ChangeVersions();
+
+        v.onReservationChanged(reservation(10L, 1L));
+
+        assertEquals(1, v.pitch(1L));
+        assertEquals(0, v.pitch(2L));
+        assertEquals(1, v.facilityOccupancy(10L));
+        assertEquals(0, v.facility(10L), "rezervasyon kataloğu değiştirmez");
+        assertEquals(0, v.catalog());
+    }
+
+    @Test
+    void catalogAndPricingChanges_shouldBumpFacility() {
+        ChangeVersions v = new ChangeVersions();
+
+        v.onCatalogChanged(new CatalogChangedEvent(10L, null));
+        v.onPricingChanged(new PricingChangedEvent(3L, 10L, 1L));
+
+        assertEquals(2, v.facility(10L));
+        assertEquals(1, v.catalog());
+        assertEquals(0, v.facility(11L));
+    }
+
+    @Test
+    void etag_shouldChange_onBumpAndResync() {
+        ChangeVersions v = new ChangeVersions();
+
+        String e1 = v.etag("pa", v.facility(10L), v.pitch(1L));
+        assertEquals(e1, v.etag("pa", v.facility(10L), v.pitch(1L)));
+
+        v.onReservationChanged(reservation(10L, 1L));
+        String e2 = v.etag("pa", v.facility(10L), v.pitch(1L));
+        assertNotEquals(e1, e2);
+
+        v.onResync(new EventBusResyncEvent("n2"));
+        assertNotEquals(e2, v.etag("pa", v.facility(10L), v.pitch(1L)));
+    }
+}
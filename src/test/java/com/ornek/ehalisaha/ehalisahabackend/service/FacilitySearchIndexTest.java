@@ -0,0 +1,75 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.dto.FacilitySummaryDto;
+import com.ornek.ehalisaha.ehalisahabackend.event.CatalogChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Önek / fuzzy / çok kelime eşleşmesi + lazy rebuild.
+ */
+class FacilitySearchIndexTest {
+
+    private static final List<FacilitySummaryDto> ROWS = List.of(
+            new FacilitySummaryDto(1L, "Arena Halı Saha", "Kadıköy, İstanbul", true),
+            new FacilitySummaryDto(2L, "Yıldız Spor", "Beşiktaş, İstanbul", true),
+            new FacilitySummaryDto(3L, "Arenapark", "Ümraniye", true),
+            new FacilitySummaryDto(4L, "Kadıköy Gol", "Moda", true)
+    );
+
+    private static FacilitySearchIndex index(FacilityRepository repo) {
+        when(repo.findSummaries(eq(0L), eq(true), isNull(), any())).thenReturn(ROWS);
+        return new FacilitySearchIndex(repo);
+    }
+
+    private static List<Long> ids(List<FacilitySearchIndex.Hit> hits) {
+        return hits.stream().map(FacilitySearchIndex.Hit::id).toList();
+    }
+
+    @Test
+    void prefix_shouldRankNameAboveAddress_andFoldTurkishChars() {
+        FacilitySearchIndex idx = index(mock(FacilityRepository.class));
+
+        assertEquals(List.of(1L, 3L), ids(idx.search("are", 10)));
+        // isim eşleşmesi (4) adres eşleşmesinden (1) önce; "kadikoy" = "Kadıköy"
+        assertEquals(List.of(4L, 1L), ids(idx.search("kadikoy", 10)));
+    }
+
+    @Test
+    void multiWord_shouldRequireAllTerms() {
+        FacilitySearchIndex idx = index(mock(FacilityRepository.class));
+
+        assertEquals(List.of(1L), ids(idx.search("arena kadık", 10)));
+        assertEquals(List.of(), idx.search("arena besiktas", 10));
+    }
+
+    @Test
+    void typo_shouldStillMatch() {
+        FacilitySearchIndex idx = index(mock(FacilityRepository.class));
+
+        assertEquals(List.of(2L), ids(idx.search("yildis", 10)));
+        assertTrue(ids(idx.search("arnea", 10)).contains(1L));
+    }
+
+    @Test
+    void index_shouldLoadOnce_andRebuildAfterCatalogChange() {
+        FacilityRepository repo = mock(FacilityRepository.class);
+        FacilitySearchIndex idx = index(repo);
+
+        idx.search("arena", 5);
+        idx.search("spor", 5);
+        verify(repo, times(1)).findSummaries(anyLong(), any(), any(), any());
+
+        idx.onCatalogChanged(new CatalogChangedEvent(9L, null));
+        idx.search("arena", 5);
+        verify(repo, times(2)).findSummaries(anyLong(), any(), any(), any());
+
+        assertThrows(IllegalArgumentException.class, () -> idx.search("  ", 5));
+    }
+}
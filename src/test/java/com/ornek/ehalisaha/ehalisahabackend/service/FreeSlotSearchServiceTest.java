@@ -0,0 +1,60 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Parametre kuralları + tek repo çağrısı.
+ */
+class FreeSlotSearchServiceTest {
+
+    private static final Instant FROM = Instant.parse("2030-01-01T17:00:00Z");
+
+    @Test
+    void search_shouldReject_tooLargeWindow() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        FreeSlotSearchService svc = new FreeSlotSearchService(repo);
+
+        Instant to = FROM.plus(Duration.ofDays(FreeSlotSearchService.MAX_WINDOW_DAYS + 1));
+        assertThrows(IllegalArgumentException.class, () -> svc.search(FROM, to, 60, null, null));
+        assertThrows(IllegalArgumentException.class, () -> svc.search(FROM, FROM, 60, null, null));
+        assertThrows(IllegalArgumentException.class, () -> svc.search(FROM, FROM.plusSeconds(3600), 0, null, null));
+
+        verifyNoInteractions(repo);
+    }
+
+    @Test
+    void search_withoutFacilities_shouldQueryAllInSinglePass() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findFreeSlots(anyBoolean(), any(), any(), any(), anyInt(), any(), anyInt())).thenReturn(List.of());
+        FreeSlotSearchService svc = new FreeSlotSearchService(repo);
+
+        Instant to = FROM.plusSeconds(3 * 3600);
+        svc.search(FROM, to, 60, List.of(), 1000);
+
+        verify(repo, times(1)).findFreeSlots(
+                eq(true), eq(List.of(-1L)), eq(FROM), eq(to), eq(60),
+                eq("Europe/Istanbul"), eq(FreeSlotSearchService.MAX_LIMIT));
+    }
+
+    @Test
+    void search_withFacilities_shouldPassDistinctIds() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findFreeSlots(anyBoolean(), any(), any(), any(), anyInt(), any(), anyInt())).thenReturn(List.of());
+        FreeSlotSearchService svc = new FreeSlotSearchService(repo);
+
+        svc.search(FROM, FROM.plusSeconds(3600), 60, List.of(3L, 1L, 3L), null);
+
+        verify(repo).findFreeSlots(
+                eq(false), eq(List.of(3L, 1L)), any(), any(), eq(60),
+                any(), eq(FreeSlotSearchService.DEFAULT_LIMIT));
+    }
+}
@@ -0,0 +1,101 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: DB yok, JDBC mock. Kilit / claim sonucuna göre job çalışmalı ya da atlanmalı.
+ */
+class JobCoordinatorTest {
+
+    private static PreparedStatement returning(boolean hasRow, boolean value) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(hasRow);
+        when(rs.getBoolean(1)).thenReturn(value);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        return ps;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JdbcTemplate jdbcWith(Connection con) {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> ((ConnectionCallback<Object>) inv.getArgument(0)).doInConnection(con));
+        return jdbc;
+    }
+
+    @Test
+    void runExclusive_shouldSkip_whenLockHeldElsewhere() throws Exception {
+        Connection con = mock(Connection.class);
+        PreparedStatement lock = returning(true, false);
+        when(con.prepareStatement(startsWith("select pg_try_advisory_lock"))).thenReturn(lock);
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        JobCoordinator jc = new JobCoordinator(jdbcWith(con), meters, "n1");
+
+        AtomicInteger runs = new AtomicInteger();
+        assertFalse(jc.runExclusive("job", Duration.ofSeconds(50), runs::incrementAndGet));
+
+        assertEquals(0, runs.get());
+        verify(con, never()).prepareStatement(startsWith("select pg_advisory_unlock"));
+        assertEquals(1.0, meters.get("ehalisaha.jobs.skipped").tag("reason", "locked").counter().count());
+    }
+
+    @Test
+    void runExclusive_shouldSkip_whenRecentlyRunOnOtherNode_andAlwaysUnlock() throws Exception {
+        Connection con = mock(Connection.class);
+        PreparedStatement lock = returning(true, true);
+        PreparedStatement claim = returning(false, false); // returning satır yok: yakın zamanda çalışmış
+        PreparedStatement unlock = mock(PreparedStatement.class);
+        when(con.prepareStatement(startsWith("select pg_try_advisory_lock"))).thenReturn(lock);
+        when(con.prepareStatement(contains("insert into scheduled_job_runs"))).thenReturn(claim);
+        when(con.prepareStatement(startsWith("select pg_advisory_unlock"))).thenReturn(unlock);
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        JobCoordinator jc = new JobCoordinator(jdbcWith(con), meters, "n1");
+
+        AtomicInteger runs = new AtomicInteger();
+        assertFalse(jc.runExclusive("job", Duration.ofSeconds(50), runs::incrementAndGet));
+
+        assertEquals(0, runs.get());
+        verify(unlock).execute();
+        assertEquals(1.0, meters.get("ehalisaha.jobs.skipped").tag("reason", "recent").counter().count());
+    }
+
+    @Test
+    void runExclusive_shouldRunTask_whenLockedAndClaimed() throws Exception {
+        Connection con = mock(Connection.class);
+        PreparedStatement lock = returning(true, true);
+        PreparedStatement claim = returning(true, false);
+        PreparedStatement finished = mock(PreparedStatement.class);
+        PreparedStatement unlock = mock(PreparedStatement.class);
+        when(con.prepareStatement(startsWith("select pg_try_advisory_lock"))).thenReturn(lock);
+        when(con.prepareStatement(contains("insert into scheduled_job_runs"))).thenReturn(claim);
+        when(con.prepareStatement(startsWith("update scheduled_job_runs"))).thenReturn(finished);
+        when(con.prepareStatement(startsWith("select pg_advisory_unlock"))).thenReturn(unlock);
+
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        JobCoordinator jc = new JobCoordinator(jdbcWith(con), meters, "n1");
+
+        AtomicInteger runs = new AtomicInteger();
+        assertTrue(jc.runExclusive("job", Duration.ofSeconds(50), runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        verify(finished).executeUpdate();
+        verify(unlock).execute();
+        assertEquals(1, meters.get("ehalisaha.jobs.lock_held").timer().count());
+    }
+}
@@ -0,0 +1,75 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.repository.MatchVideoRepository;
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Chunk döngüsü + her chunk ayrı transaction.
+ */
+class MatchCompletionSchedulerTest {
+
+    private static List<Long> ids(long from, int n) {
+        return LongStream.range(from, from + n).boxed().toList();
+    }
+
+    @Test
+    void completeAndPublish_shouldProcessChunks_untilShortChunk() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        MatchVideoRepository videoRepo = mock(MatchVideoRepository.class);
+        PlatformTransactionManager txm = mock(PlatformTransactionManager.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+        when(reservationRepo.completeEndedBatch(any(), eq(3)))
+                .thenReturn(ids(1, 3))
+                .thenReturn(ids(4, 2));
+        when(videoRepo.insertPublishedIfMissing(anyCollection(), anyString(), any()))
+                .thenReturn(3)
+                .thenReturn(1); // biri zaten vardı
+
+        MatchCompletionScheduler s = new MatchCompletionScheduler(reservationRepo, videoRepo, txm, mock(JobCoordinator.class), meters, 3, 100);
+
+        var r = s.completeAndPublish();
+
+        assertEquals(new MatchCompletionScheduler.RunResult(5, 4, 2), r);
+        verify(reservationRepo, times(2)).completeEndedBatch(any(), anyInt());
+        verify(txm, times(2)).commit(any());
+        assertEquals(5.0, meters.get("ehalisaha.match_completion.completed").counter().count());
+    }
+
+    @Test
+    void completeAndPublish_shouldStopAtMaxPerRun_andSkipVideosWhenNothingToDo() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        MatchVideoRepository videoRepo = mock(MatchVideoRepository.class);
+        PlatformTransactionManager txm = mock(PlatformTransactionManager.class);
+
+        when(reservationRepo.completeEndedBatch(any(), anyInt()))
+                .thenAnswer(inv -> ids(1, inv.getArgument(1)));
+        when(videoRepo.insertPublishedIfMissing(anyCollection(), anyString(), any()))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        MatchCompletionScheduler s = new MatchCompletionScheduler(
+                reservationRepo, videoRepo, txm, mock(JobCoordinator.class), new SimpleMeterRegistry(), 4, 10);
+
+        assertEquals(10, s.completeAndPublish().completed());
+        verify(reservationRepo).completeEndedBatch(any(), eq(2)); // son chunk sınıra göre kısaltıldı
+
+        ReservationRepository emptyRepo = mock(ReservationRepository.class);
+        when(emptyRepo.completeEndedBatch(any(), anyInt())).thenReturn(List.of());
+        MatchVideoRepository videoRepo2 = mock(MatchVideoRepository.class);
+
+        MatchCompletionScheduler idle = new MatchCompletionScheduler(
+                emptyRepo, videoRepo2, txm, mock(JobCoordinator.class), new SimpleMeterRegistry(), 4, 10);
+        assertEquals(0, idle.completeAndPublish().completed());
+        verifyNoInteractions(videoRepo2);
+    }
+}
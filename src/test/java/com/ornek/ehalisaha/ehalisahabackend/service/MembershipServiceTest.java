@@ -8,6 +8,7 @@ import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.MembershipRequestRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -28,7 +29,7 @@ class MembershipServiceTest {
         MembershipRequestRepository reqRepo = mock(MembershipRequestRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
 
-        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo);
+        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo, mock(ApplicationEventPublisher.class));
 
         when(facilityRepo.findById(10L)).thenReturn(Optional.of(new com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility()));
         when(reqRepo.findByFacilityIdAndUserId(10L, 7L)).thenReturn(Optional.of(MembershipRequest.builder()
@@ -48,7 +49,7 @@ class MembershipServiceTest {
         MembershipRequestRepository reqRepo = mock(MembershipRequestRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
 
-        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo);
+        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo, mock(ApplicationEventPublisher.class));
 
         when(facilityRepo.findById(10L)).thenReturn(Optional.of(new com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility()));
         when(reqRepo.findByFacilityIdAndUserId(10L, 7L)).thenReturn(Optional.empty());
@@ -69,7 +70,7 @@ class MembershipServiceTest {
         MembershipRequestRepository reqRepo = mock(MembershipRequestRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
 
-        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo);
+        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo, mock(ApplicationEventPublisher.class));
 
         MembershipRequest req = MembershipRequest.builder()
                 .id(5L)
@@ -105,7 +106,7 @@ class MembershipServiceTest {
         MembershipRequestRepository reqRepo = mock(MembershipRequestRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
 
-        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo);
+        MembershipService svc = new MembershipService(membershipRepo, reqRepo, facilityRepo, mock(ApplicationEventPublisher.class));
 
         when(facilityRepo.findIdsByOwnerUserId(1L)).thenReturn(List.of());
 
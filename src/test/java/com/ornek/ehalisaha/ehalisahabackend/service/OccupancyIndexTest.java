@@ -0,0 +1,176 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Reservation;
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * OccupancyIndex unit testleri: DB sadece ilk yüklemede okunmalı,
+ * create/cancel event'leri bitmap'i güncellemeli, boyut sınırı index'i toptan boşaltmamalı.
+ */
+class OccupancyIndexTest {
+
+    private static final ZoneId IST = ZoneId.of("Europe/Istanbul");
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    private static Instant at(int hour) {
+        return ZonedDateTime.of(DAY.atTime(hour, 0), IST).toInstant();
+    }
+
+    private static Reservation res(long id, Instant start, Instant end) {
+        Reservation r = new Reservation();
+        r.setId(id);
+        r.setPitchId(1L);
+        r.setStartTime(start);
+        r.setEndTime(end);
+        r.setStatus(ReservationStatus.CONFIRMED);
+        return r;
+    }
+
+    @Test
+    void day_shouldLoadOnce_andAnswerFromMemory() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findOverlappingForPitch(eq(1L), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(res(5L, at(20), at(22))));
+
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+
+        var bm = index.day(1L, DAY);
+        assertTrue(bm.anyBusy(20 * 60, 21 * 60));
+        assertTrue(bm.anyBusy(21 * 60, 22 * 60));
+        assertFalse(bm.anyBusy(22 * 60, 23 * 60), "bitiş dakikası (22:00) boş olmalı");
+        assertFalse(bm.anyBusy(19 * 60, 20 * 60));
+
+        assertEquals(List.of(1200, 1260), index.day(1L, DAY).busyStarts(60));
+
+        verify(repo, times(1)).findOverlappingForPitch(eq(1L), any(), any(), any());
+    }
+
+    @Test
+    void events_shouldMarkAndClearLoadedDays() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findOverlappingForPitch(any(), any(), any(), any())).thenReturn(List.of());
+
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+        var bm = index.day(1L, DAY);
+        assertFalse(bm.anyBusy(0, 24 * 60));
+
+        index.onReservationChanged(new ReservationChangedEvent(9L, null, null, 1L, at(18), at(19), ReservationStatus.CREATED, null));
+        assertTrue(bm.anyBusy(18 * 60, 19 * 60));
+
+        index.onReservationChanged(new ReservationChangedEvent(9L, null, null, 1L, at(18), at(19), ReservationStatus.CANCELLED, null));
+        assertFalse(bm.anyBusy(18 * 60, 19 * 60));
+
+        verify(repo, times(1)).findOverlappingForPitch(any(), any(), any(), any());
+    }
+
+    @Test
+    void event_crossingMidnight_shouldOnlyTouchItsOwnMinutes() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findOverlappingForPitch(any(), any(), any(), any())).thenReturn(List.of());
+
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+        var today = index.day(1L, DAY);
+        var tomorrow = index.day(1L, DAY.plusDays(1));
+
+        index.onReservationChanged(new ReservationChangedEvent(3L, null, null, 1L, at(23), at(23).plusSeconds(2 * 3600), ReservationStatus.CREATED, null));
+
+        assertEquals(List.of(1380), today.busyStarts(60));
+        assertEquals(List.of(0), tomorrow.busyStarts(60));
+    }
+
+    @Test
+    void range_shouldLoadAllMissingDaysWithSingleQuery() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        Reservation r = res(7L, at(20).plusSeconds(3 * 86400), at(21).plusSeconds(3 * 86400));
+        when(repo.findOverlappingForPitch(eq(1L), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(r));
+
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+
+        var week = index.range(1L, DAY, DAY.plusDays(6));
+        assertEquals(7, week.size());
+        assertTrue(week.get(DAY.plusDays(3)).anyBusy(20 * 60, 21 * 60));
+        assertFalse(week.get(DAY.plusDays(2)).anyBusy(0, 24 * 60));
+
+        // ikinci çağrı ve tekil gün okuması DB'ye gitmemeli
+        index.range(1L, DAY, DAY.plusDays(6));
+        index.day(1L, DAY.plusDays(3));
+
+        verify(repo, times(1)).findOverlappingForPitch(any(), any(), any(), any());
+        verify(repo, never()).findOverlappingForPitches(any(), any(), any(), any());
+    }
+
+    @Test
+    void grid_shouldLoadAllPitchesWithSingleQuery() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        Reservation r = res(8L, at(19), at(20));
+        r.setPitchId(2L);
+        when(repo.findOverlappingForPitches(eq(List.of(1L, 2L, 3L)), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(r));
+
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+
+        var grid = index.grid(List.of(1L, 2L, 3L), DAY, DAY);
+        assertEquals(3, grid.size());
+        assertFalse(grid.get(1L).get(DAY).anyBusy(0, 24 * 60));
+        assertEquals(List.of(1140), grid.get(2L).get(DAY).busyStarts(60));
+        assertFalse(grid.get(3L).get(DAY).anyBusy(0, 24 * 60));
+
+        index.grid(List.of(1L, 2L, 3L), DAY, DAY);
+
+        verify(repo, times(1)).findOverlappingForPitches(any(), any(), any(), any());
+        verify(repo, never()).findOverlappingForPitch(any(), any(), any(), any());
+    }
+
+    @Test
+    void day_eventDuringLoad_shouldNotBlockOrCacheStaleBitmap() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        OccupancyIndex index = new OccupancyIndex(repo, 100);
+
+        // sorgu sürerken aynı güne event gelir (sorgu map kilidi altında olsaydı computeIfPresent takılırdı)
+        when(repo.findOverlappingForPitch(any(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    index.onReservationChanged(new ReservationChangedEvent(4L, null, null, 1L, at(18), at(19),
+                            ReservationStatus.CREATED, null));
+                    return List.of();
+                })
+                .thenReturn(List.of(res(4L, at(18), at(19))));
+
+        assertFalse(index.day(1L, DAY).anyBusy(18 * 60, 19 * 60), "yükleme anındaki sonuç");
+        assertEquals(0, index.size(), "arada event geldi: sonuç cache'lenmez");
+
+        assertTrue(index.day(1L, DAY).anyBusy(18 * 60, 19 * 60));
+        assertEquals(1, index.size());
+        verify(repo, times(2)).findOverlappingForPitch(any(), any(), any(), any());
+    }
+
+    @Test
+    void day_overMaxEntries_shouldEvictSomeDays_notClearIndex() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        when(repo.findOverlappingForPitch(any(), any(), any(), any())).thenReturn(List.of());
+
+        OccupancyIndex index = new OccupancyIndex(repo, 10);
+
+        for (int i = 0; i < 30; i++) {
+            index.day(1L, DAY); // sık okunan gün
+            index.day(1L, DAY.plusDays(i + 1));
+        }
+
+        assertEquals(10, index.size());
+        index.day(1L, DAY);
+        verify(repo, times(31)).findOverlappingForPitch(any(), any(), any(), any()); // sık okunan gün tek yükleme
+    }
+}
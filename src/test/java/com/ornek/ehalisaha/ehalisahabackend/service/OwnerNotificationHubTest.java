@@ -0,0 +1,201 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests: Spring context yok. Emitter'lar yazılanı kaydeder; gönderim executor'ı elle çalıştırılır
+ * (commit eden thread'de yazım olmadığı, bağlantıların birbirini beklemediği görülsün).
+ */
+class OwnerNotificationHubTest {
+
+    private static final Long OWNER = 7L;
+
+    /** Gönderilen SSE satırlarını tutar; istenirse IOException fırlatır. */
+    static class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        volatile boolean broken;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) throw new IOException("client gitti");
+            sent.add(builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        boolean got(String fragment) {
+            return sent.stream().anyMatch(s -> s.contains(fragment));
+        }
+    }
+
+    private static final int MAX_PENDING = 3;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    private final OwnerNotificationHub hub = new OwnerNotificationHub(60_000, 2, MAX_PENDING, meters, queued::add) {
+        @Override
+        SseEmitter newEmitter() {
+            return new RecordingEmitter();
+        }
+    };
+
+    private RecordingEmitter subscribe(Long ownerId) {
+        return (RecordingEmitter) hub.subscribe(ownerId);
+    }
+
+    private void drain() {
+        while (!queued.isEmpty()) {
+            List<Runnable> tasks = List.copyOf(queued);
+            queued.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+
+    private double dropped() {
+        return meters.get("ehalisaha.notifications.dropped").counter().count();
+    }
+
+    private static ReservationChangedEvent event(Long ownerId) {
+        Instant t = Instant.parse("2030-01-01T10:00:00Z");
+        return new ReservationChangedEvent(99L, 10L, ownerId, 500L, t, t.plusSeconds(3600),
+                ReservationStatus.CREATED, "RESERVATION_CREATE");
+    }
+
+    @Test
+    void subscribe_shouldSendReady() {
+        RecordingEmitter e = subscribe(OWNER);
+
+        assertTrue(e.got("event:ready"));
+        assertEquals(1, hub.connectionCount());
+    }
+
+    @Test
+    void onReservationChanged_shouldOnlyEnqueue_andFanOutOnSenderToOwnersStreams() {
+        RecordingEmitter a = subscribe(OWNER);
+        RecordingEmitter b = subscribe(OWNER);
+        RecordingEmitter other = subscribe(8L);
+
+        hub.onReservationChanged(event(OWNER));
+
+        // commit eden thread yazmadı; her bağlantı kendi gönderim görevinde
+        assertFalse(a.got("event:reservation"));
+        assertEquals(2, queued.size());
+
+        drain();
+        assertTrue(a.got("event:reservation"));
+        assertTrue(a.got("reservationId=99"), "payload: ReservationNotice");
+        assertTrue(b.got("event:reservation"));
+        assertFalse(other.got("event:reservation"));
+    }
+
+    @Test
+    void onReservationChanged_withoutSubscribers_shouldNotEnqueue() {
+        hub.onReservationChanged(event(OWNER));
+        hub.onReservationChanged(event(null));
+
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void subscribe_overPerOwnerCap_shouldEvictOldestStream() {
+        RecordingEmitter first = subscribe(OWNER);
+        RecordingEmitter second = subscribe(OWNER);
+        RecordingEmitter third = subscribe(OWNER);
+        drain(); // complete() de gönderim tarafında (takılı bir send'i beklerse çağıran bloklanmasın)
+
+        assertTrue(first.completed);
+        assertFalse(second.completed);
+        assertEquals(2, hub.connectionCount());
+
+        hub.onReservationChanged(event(OWNER));
+        drain();
+        assertFalse(first.got("event:reservation"));
+        assertTrue(second.got("event:reservation"));
+        assertTrue(third.got("event:reservation"));
+    }
+
+    @Test
+    void send_ioException_shouldDropStream_andKeepOthers() {
+        RecordingEmitter dead = subscribe(OWNER);
+        RecordingEmitter alive = subscribe(OWNER);
+        dead.broken = true;
+
+        hub.onReservationChanged(event(OWNER));
+        drain();
+
+        assertEquals(1, hub.connectionCount());
+        assertTrue(alive.got("event:reservation"));
+
+        hub.onReservationChanged(event(OWNER));
+        drain();
+        assertEquals(2, alive.sent.stream().filter(s -> s.contains("event:reservation")).count());
+    }
+
+    @Test
+    void heartbeat_shouldRunOnSender_writeComment_andPruneDeadStreams() {
+        RecordingEmitter alive = subscribe(OWNER);
+        RecordingEmitter dead = subscribe(8L);
+        dead.broken = true;
+
+        hub.heartbeat();
+        assertEquals(2, hub.connectionCount(), "heartbeat çağıran thread'de yazmamalı");
+
+        drain();
+        assertTrue(alive.got(":hb"));
+        assertEquals(1, hub.connectionCount());
+    }
+
+    @Test
+    void stuckStream_shouldOnlyBackUpItself_thenBeClosedAndCounted() {
+        RecordingEmitter stuck = subscribe(OWNER);
+        RecordingEmitter other = subscribe(8L);
+
+        // stuck'ın gönderim görevi hiç çalışmıyor (client yazmayı bekletiyor); other'ınki çalışıyor
+        for (int i = 0; i < MAX_PENDING; i++) {
+            hub.onReservationChanged(event(OWNER));
+            hub.onReservationChanged(event(8L));
+        }
+        assertEquals(2, queued.size(), "bağlantı başına tek görev");
+        queued.get(1).run();
+        assertEquals(MAX_PENDING, other.sent.stream().filter(s -> s.contains("event:reservation")).count());
+
+        queued.clear();
+        hub.onReservationChanged(event(OWNER)); // sınırı aşar
+        assertEquals(1, hub.connectionCount(), "takılan bağlantı listeden çıkar");
+        assertEquals(MAX_PENDING + 1, dropped());
+
+        drain();
+        assertTrue(stuck.completed);
+        assertFalse(stuck.got("event:reservation"));
+    }
+
+    @Test
+    void shutdown_shouldStopFurtherSends() {
+        RecordingEmitter e = subscribe(OWNER);
+        hub.shutdown();
+
+        hub.onReservationChanged(event(OWNER));
+        drain();
+
+        assertEquals(0, hub.connectionCount());
+        assertFalse(e.got("event:reservation"));
+    }
+}
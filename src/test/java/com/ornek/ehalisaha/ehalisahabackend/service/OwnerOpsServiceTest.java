@@ -26,7 +26,7 @@ class OwnerOpsServiceTest {
         PitchRepository pitchRepo = mock(PitchRepository.class);
         AuditService audit = mock(AuditService.class);
 
-        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit);
+        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit, mock(CatalogCache.class));
 
         when(facilityRepo.existsByOwnerUserIdAndNameKey(eq(1L), anyString())).thenReturn(true);
 
@@ -43,7 +43,7 @@ class OwnerOpsServiceTest {
         PitchRepository pitchRepo = mock(PitchRepository.class);
         AuditService audit = mock(AuditService.class);
 
-        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit);
+        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit, mock(CatalogCache.class));
 
         Facility f = new Facility();
         f.setId(10L);
@@ -65,7 +65,7 @@ class OwnerOpsServiceTest {
         PitchRepository pitchRepo = mock(PitchRepository.class);
         AuditService audit = mock(AuditService.class);
 
-        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit);
+        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit, mock(CatalogCache.class));
 
         Facility f = new Facility();
         f.setId(10L);
@@ -87,7 +87,7 @@ class OwnerOpsServiceTest {
         PitchRepository pitchRepo = mock(PitchRepository.class);
         AuditService audit = mock(AuditService.class);
 
-        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit);
+        OwnerOpsService svc = new OwnerOpsService(facilityRepo, pitchRepo, audit, mock(CatalogCache.class));
 
         Facility f = new Facility();
         f.setId(10L);
@@ -0,0 +1,220 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
+import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests: Spring context yok. Digest tek aggregate sorgu, ledger tek satır-bazlı sorgu ile hesaplanmalı;
+ * aralık modu satırları stream'den okuyup doğrudan JSON dizisine yazmalı.
+ */
+class OwnerReservationLedgerServiceTest {
+
+    private static final ObjectMapper JSON = JsonMapper.builder().build();
+
+    private record LRow(Long ownerUserId, Long id, Long pitchId, String pitchName, Long membershipId,
+                        Long memberUserId, String memberUsername, Instant startTime, Instant endTime,
+                        String status, String players) implements ReservationRepository.LedgerRow {
+        public Long getOwnerUserId() { return ownerUserId; }
+        public Long getId() { return id; }
+        public Long getPitchId() { return pitchId; }
+        public String getPitchName() { return pitchName; }
+        public Long getMembershipId() { return membershipId; }
+        public Long getMemberUserId() { return memberUserId; }
+        public String getMemberUsername() { return memberUsername; }
+        public Instant getStartTime() { return startTime; }
+        public Instant getEndTime() { return endTime; }
+        public String getStatus() { return status; }
+        public String getPlayers() { return players; }
+    }
+
+    private static LRow emptyDay(Long ownerId) {
+        return new LRow(ownerId, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private record Row(LocalDate day, long newCount, Long maxId) implements ReservationRepository.LedgerDigestRow {
+        public LocalDate getDay() { return day; }
+        public long getNewCount() { return newCount; }
+        public Long getMaxId() { return maxId; }
+    }
+
+    private static Facility facility(Long id, Long ownerId) {
+        Facility f = new Facility();
+        f.setId(id);
+        f.setOwnerUserId(ownerId);
+        return f;
+    }
+
+    @Test
+    void digest_shouldThrow_whenNotYourFacility() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, mock(ReservationPlayerRepository.class), mock(PitchRepository.class),
+                facilityRepo, JSON);
+
+        when(facilityRepo.findById(5L)).thenReturn(Optional.of(facility(5L, 999L)));
+
+        assertThrows(SecurityException.class,
+                () -> svc.digest(1L, 5L, 0L, LocalDate.of(2030, 1, 1), 14));
+
+        verifyNoInteractions(reservationRepo);
+    }
+
+    @Test
+    void digest_shouldSummarizeRows_withSingleQuery() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        PitchRepository pitchRepo = mock(PitchRepository.class);
+        ReservationPlayerRepository playerRepo = mock(ReservationPlayerRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, playerRepo, pitchRepo,
+                facilityRepo, JSON);
+
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        when(facilityRepo.findById(5L)).thenReturn(Optional.of(facility(5L, 1L)));
+        when(reservationRepo.ledgerDigest(eq(5L), eq(10L), any(Instant.class), any(Instant.class), eq("Europe/Istanbul")))
+                .thenReturn(List.of(
+                        new Row(from, 0, 8L),               // eski kayıtlar
+                        new Row(from.plusDays(2), 2, 14L),
+                        new Row(from.plusDays(5), 1, 12L)
+                ));
+
+        var d = svc.digest(1L, 5L, 10L, from, 14);
+
+        assertEquals(3, d.newCount());
+        assertEquals(from.plusDays(2), d.earliestNewDate());
+        assertEquals(14L, d.maxId());
+        assertEquals(from.plusDays(13), d.to());
+        assertEquals(Map.of("2030-01-03", 2L, "2030-01-06", 1L), d.newByDate());
+
+        verify(reservationRepo, times(1)).ledgerDigest(any(), any(), any(), any(), any());
+        verifyNoInteractions(pitchRepo, playerRepo);
+    }
+
+    @Test
+    void listForDay_shouldMapRows_andParsePlayers_withSingleQuery() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        ReservationPlayerRepository playerRepo = mock(ReservationPlayerRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, playerRepo, mock(PitchRepository.class), facilityRepo, JSON);
+
+        Instant t = Instant.parse("2030-01-01T15:00:00Z");
+        when(reservationRepo.ledgerForDay(eq(5L), eq(true), eq(0L), any(), any())).thenReturn(List.of(
+                new LRow(1L, 10L, 3L, "Saha A", 7L, 20L, "member1", t, t.plusSeconds(3600), "CONFIRMED",
+                        "[{\"id\":1,\"fullName\":\"Ali\",\"jerseyNo\":9,\"paid\":true},"
+                                + "{\"id\":2,\"fullName\":\"Veli\",\"jerseyNo\":null,\"paid\":false}]"),
+                new LRow(1L, 11L, 3L, "Saha A", 7L, 20L, "member1", t.plusSeconds(3600), t.plusSeconds(7200),
+                        "CANCELLED", "[]")
+        ));
+
+        var rows = svc.listForDay(1L, 5L, null, LocalDate.of(2030, 1, 1));
+
+        assertEquals(2, rows.size());
+        var r = rows.get(0);
+        assertEquals(5L, r.facilityId());
+        assertEquals("member1", r.memberUsername());
+        assertEquals(List.of(
+                new OwnerReservationLedgerService.PlayerDto(1L, "Ali", 9, true),
+                new OwnerReservationLedgerService.PlayerDto(2L, "Veli", null, false)), r.players());
+        assertEquals(List.of(), rows.get(1).players());
+
+        verify(reservationRepo, times(1)).ledgerForDay(any(), anyBoolean(), anyLong(), any(), any());
+        verifyNoInteractions(facilityRepo, playerRepo);
+    }
+
+    @Test
+    void listForDay_emptyDay_shouldReturnEmpty_andCheckOwnerFromSameRow() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, mock(ReservationPlayerRepository.class), mock(PitchRepository.class),
+                mock(FacilityRepository.class), JSON);
+
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        when(reservationRepo.ledgerForDay(eq(5L), eq(false), eq(3L), any(), any())).thenReturn(List.of(emptyDay(1L)));
+
+        assertEquals(List.of(), svc.listForDay(1L, 5L, 3L, day));
+        assertThrows(SecurityException.class, () -> svc.listForDay(2L, 5L, 3L, day));
+
+        when(reservationRepo.ledgerForDay(eq(6L), anyBoolean(), anyLong(), any(), any())).thenReturn(List.of());
+        assertThrows(IllegalArgumentException.class, () -> svc.listForDay(1L, 6L, null, day));
+    }
+
+    @Test
+    void writeRange_shouldStreamJsonArray_overWholeRange_andSkipEmptyRow() throws Exception {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, mock(ReservationPlayerRepository.class), mock(PitchRepository.class),
+                mock(FacilityRepository.class), JSON);
+
+        Instant t = Instant.parse("2030-01-03T15:00:00Z");
+        when(reservationRepo.streamLedger(eq(5L), eq(false), eq(3L), any(), any())).thenReturn(Stream.of(
+                new LRow(1L, 10L, 3L, "Saha A", 7L, 20L, "member1", t, t.plusSeconds(3600), "CONFIRMED",
+                        "[{\"id\":1,\"fullName\":\"Ali\",\"jerseyNo\":9,\"paid\":true}]"),
+                new LRow(1L, 12L, 3L, "Saha A", 7L, 20L, "member1", t.plusSeconds(86400), t.plusSeconds(90000),
+                        "CREATED", "[]")
+        ));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        svc.writeRange(1L, 5L, 3L, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 7), out);
+
+        List<OwnerReservationLedgerService.LedgerRowDto> rows = JSON.readValue(out.toByteArray(), new TypeReference<>() {});
+        assertEquals(List.of(10L, 12L), rows.stream().map(OwnerReservationLedgerService.LedgerRowDto::id).toList());
+        assertEquals(List.of(new OwnerReservationLedgerService.PlayerDto(1L, "Ali", 9, true)), rows.get(0).players());
+        assertEquals(t, rows.get(0).startTime());
+
+        // İstanbul: 2030-01-01 00:00 .. 2030-01-08 00:00 (to dahil)
+        verify(reservationRepo).streamLedger(5L, false, 3L,
+                Instant.parse("2029-12-31T21:00:00Z"), Instant.parse("2030-01-07T21:00:00Z"));
+
+        when(reservationRepo.streamLedger(eq(5L), eq(true), eq(0L), any(), any())).thenReturn(Stream.of(emptyDay(1L)));
+        out.reset();
+        svc.writeRange(1L, 5L, null, LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 1), out);
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void checkRange_shouldRejectBadRange_andForeignFacility_beforeAnyQuery() {
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+
+        OwnerReservationLedgerService svc = new OwnerReservationLedgerService(
+                reservationRepo, mock(ReservationPlayerRepository.class), mock(PitchRepository.class),
+                facilityRepo, JSON);
+
+        LocalDate from = LocalDate.of(2030, 1, 1);
+        when(facilityRepo.findById(5L)).thenReturn(Optional.of(facility(5L, 1L)));
+
+        svc.checkRange(1L, 5L, from, from.plusDays(OwnerReservationLedgerService.MAX_RANGE_DAYS - 1));
+        assertThrows(IllegalArgumentException.class, () -> svc.checkRange(1L, 5L, from, from.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> svc.checkRange(1L, 5L, from, from.plusDays(OwnerReservationLedgerService.MAX_RANGE_DAYS)));
+        assertThrows(SecurityException.class, () -> svc.checkRange(2L, 5L, from, from));
+        assertThrows(IllegalArgumentException.class, () -> svc.checkRange(1L, 6L, from, from));
+
+        verifyNoInteractions(reservationRepo);
+    }
+}
@@ -5,11 +5,13 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Facility;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.Pitch;
 import com.ornek.ehalisaha.ehalisahabackend.domain.entity.PricingRule;
 import com.ornek.ehalisaha.ehalisahabackend.dto.PricingRuleUpsertRequest;
+import com.ornek.ehalisaha.ehalisahabackend.event.PricingChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.DurationOptionRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.FacilityRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.PitchRepository;
 import com.ornek.ehalisaha.ehalisahabackend.repository.PricingRuleRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -31,8 +33,10 @@ class PricingServiceTest {
         DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
         PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit);
+        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit, events, catalog);
 
         when(pitchRepo.findById(99L)).thenReturn(Optional.empty());
 
@@ -49,8 +53,10 @@ class PricingServiceTest {
         DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
         PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit);
+        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit, events, catalog);
 
         Pitch pitch = new Pitch();
         pitch.setId(10L);
@@ -76,8 +82,10 @@ class PricingServiceTest {
         DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
         PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit);
+        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit, events, catalog);
 
         Pitch pitch = new Pitch();
         pitch.setId(10L);
@@ -112,6 +120,8 @@ class PricingServiceTest {
         assertTrue(Boolean.TRUE.equals(saved.getActive()));
 
         verify(audit).log(eq(1L), eq("PRICING_UPSERT"), eq("PricingRule"), eq(123L), anyString());
+        verify(events).publishEvent(new PricingChangedEvent(123L, 55L, 10L));
+        verify(catalog).invalidatePitch(55L, 10L);
     }
 
     @Test
@@ -121,8 +131,10 @@ class PricingServiceTest {
         DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
         PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit);
+        PricingService svc = new PricingService(pitchRepo, facilityRepo, durationRepo, pricingRepo, audit, events, catalog);
 
         Pitch pitch = new Pitch();
         pitch.setId(10L);
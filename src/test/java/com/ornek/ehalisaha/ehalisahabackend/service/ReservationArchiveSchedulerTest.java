@@ -0,0 +1,119 @@
+package com.ornek.ehalisaha.ehalisahabackend.service;
+
+import com.ornek.ehalisaha.ehalisahabackend.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static com.ornek.ehalisaha.ehalisahabackend.service.ReservationArchiveScheduler.SETTLED;
+import static com.ornek.ehalisaha.ehalisahabackend.service.ReservationArchiveScheduler.UNSETTLED;
+
+/**
+ * Unit tests: Spring context yok. Partition ufku, arşiv chunk döngüsü, kapanmamış eski satırlar,
+ * eski ayların düşürülmesi.
+ */
+class ReservationArchiveSchedulerTest {
+
+    private static List<Long> ids(long from, int n) {
+        return LongStream.range(from, from + n).boxed().toList();
+    }
+
+    @Test
+    void maintain_shouldOpenFutureMonths_archiveInChunks_andDropEmptyMonths() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        PlatformTransactionManager txm = mock(PlatformTransactionManager.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+        when(repo.ensurePartitions(any(), any())).thenReturn(1);
+        when(repo.archiveEndedBatch(any(), eq(SETTLED), eq(3)))
+                .thenReturn(ids(1, 3))
+                .thenReturn(ids(4, 1));
+        when(repo.archiveEndedBatch(any(), eq(UNSETTLED), anyInt())).thenReturn(List.of());
+        when(repo.dropEmptyPartitions(any())).thenReturn(2);
+
+        ReservationArchiveScheduler s = new ReservationArchiveScheduler(
+                repo, txm, mock(JobCoordinator.class), meters, 400, 15, 3, 100);
+
+        Instant before = Instant.now();
+        var r = s.maintain();
+
+        assertEquals(new ReservationArchiveScheduler.RunResult(1, 4, 0, 2, 2), r);
+
+        ArgumentCaptor<Instant> from = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> to = ArgumentCaptor.forClass(Instant.class);
+        verify(repo).ensurePartitions(from.capture(), to.capture());
+        assertTrue(Duration.between(from.getValue(), to.getValue()).toDays() >= 15 * 28);
+
+        // arşiv sınırı ve düşürülecek aylar aynı cutoff: after-days kadar geri
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repo).dropEmptyPartitions(cutoff.capture());
+        verify(repo, times(2)).archiveEndedBatch(eq(cutoff.getValue()), eq(SETTLED), eq(3));
+        verify(repo).archiveEndedBatch(eq(cutoff.getValue()), eq(UNSETTLED), eq(3));
+        verify(repo).ensureArchivePartitions(cutoff.getValue());
+        assertFalse(cutoff.getValue().isAfter(before.minus(Duration.ofDays(400)).plusSeconds(5)));
+
+        verify(txm, times(6)).commit(any()); // ensure, arşiv ensure, 2 chunk, boş unsettled chunk, drop
+        assertEquals(4.0, meters.get("ehalisaha.reservation_archive.archived").counter().count());
+    }
+
+    @Test
+    void maintain_shouldStopAtMaxPerRun() {
+        ReservationRepository repo = mock(ReservationRepository.class);
+        PlatformTransactionManager txm = mock(PlatformTransactionManager.class);
+
+        when(repo.archiveEndedBatch(any(), any(), anyInt()))
+                .thenAnswer(inv -> ids(1, inv.getArgument(2)));
+
+        ReservationArchiveScheduler s = new ReservationArchiveScheduler(
+                repo, txm, mock(JobCoordinator.class), new SimpleMeterRegistry(), 400, 15, 4, 10);
+
+        assertEquals(10, s.maintain().archived());
+        verify(repo).archiveEndedBatch(any(), eq(SETTLED), eq(2)); // son chunk sınıra göre kısaltıldı
+        verify(repo, never()).archiveEndedBatch(any(), eq(UNSETTLED), anyInt()); // bütçe bitti
+        verify(repo).dropEmptyPartitions(any());
+    }
+
+    @Test
+    void maintain_staleUnsettledRows_shouldBeArchivedAfterFinalOnes_andCounted() {
+        // ödemesi hiç girilmemiş nakit (CREATED) cutoff'u geçtiyse ayını tutmasın
+        ReservationRepository repo = mock(ReservationRepository.class);
+        PlatformTransactionManager txm = mock(PlatformTransactionManager.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+        when(repo.archiveEndedBatch(any(), eq(SETTLED), anyInt())).thenReturn(ids(1, 2));
+        when(repo.archiveEndedBatch(any(), eq(UNSETTLED), anyInt())).thenReturn(ids(3, 1));
+        when(repo.dropEmptyPartitions(any())).thenReturn(1);
+
+        ReservationArchiveScheduler s = new ReservationArchiveScheduler(
+                repo, txm, mock(JobCoordinator.class), meters, 400, 15, 4, 10);
+
+        var r = s.maintain();
+
+        assertEquals(new ReservationArchiveScheduler.RunResult(0, 3, 1, 2, 1), r);
+        var order = inOrder(repo);
+        order.verify(repo).archiveEndedBatch(any(), eq(SETTLED), eq(4));
+        // kalan bütçe unsettled'a: 10 - 2
+        order.verify(repo).archiveEndedBatch(any(), eq(UNSETTLED), eq(4));
+        order.verify(repo).dropEmptyPartitions(any());
+
+        assertEquals(3.0, meters.get("ehalisaha.reservation_archive.archived").counter().count());
+        assertEquals(1.0, meters.get("ehalisaha.reservation_archive.unsettled").counter().count());
+    }
+
+    @Test
+    void ctor_shouldReject_afterDaysWithinLedgerRange() {
+        // arşivlenen satırlar ledger'da görünmez: izin verilen en uzun aralık arşive taşmamalı
+        assertThrows(IllegalArgumentException.class, () -> new ReservationArchiveScheduler(
+                mock(ReservationRepository.class), mock(PlatformTransactionManager.class), mock(JobCoordinator.class),
+                new SimpleMeterRegistry(), OwnerReservationLedgerService.MAX_RANGE_DAYS, 15, 4, 10));
+    }
+}
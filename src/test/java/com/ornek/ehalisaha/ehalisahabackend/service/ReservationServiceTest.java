@@ -6,24 +6,31 @@ import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentMethod;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.PaymentStatus;
 import com.ornek.ehalisaha.ehalisahabackend.domain.enums.ReservationStatus;
 import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationCreateRequest;
+import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationSeriesRequest;
 import com.ornek.ehalisaha.ehalisahabackend.dto.ReservationPlayerAddRequest;
+import com.ornek.ehalisaha.ehalisahabackend.event.ReservationChangedEvent;
 import com.ornek.ehalisaha.ehalisahabackend.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
  * ✅ Unit test: Spring context yok.
- * Amaç: ReservationService.create() iş kuralları doğru mu?
+ * Amaç: ReservationService.create() / createSeries() iş kuralları doğru mu?
  */
 class ReservationServiceTest {
 
@@ -40,11 +47,15 @@ class ReservationServiceTest {
         ReservationPlayerRepository playerRepo = mock(ReservationPlayerRepository.class);
         PaymentRepository paymentRepo = mock(PaymentRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+        // gerçek cache, mock repository'ler üzerinde (read-through)
+        CatalogCache catalog = new CatalogCache(pitchRepo, facilityRepo, slotRepo, durationRepo, pricingRepo,
+                events, new SimpleMeterRegistry(), 100, 60);
 
         ReservationService svc = new ReservationService(
-                pitchRepo, facilityRepo, slotRepo,
-                membershipRepo, durationRepo, pricingRepo,
-                reservationRepo, playerRepo, paymentRepo, audit
+                catalog, membershipRepo,
+                reservationRepo, playerRepo, paymentRepo, audit, events, mock(ReservationBatchWriter.class)
         );
 
         Pitch pitch = new Pitch();
@@ -78,7 +89,7 @@ class ReservationServiceTest {
         SecurityException ex = assertThrows(SecurityException.class, () -> svc.create(7L, req));
         assertTrue(ex.getMessage().toUpperCase().contains("ACTIVE"));
 
-        verifyNoInteractions(durationRepo, pricingRepo, reservationRepo, paymentRepo, audit);
+        verifyNoInteractions(durationRepo, pricingRepo, reservationRepo, paymentRepo, audit, events);
     }
 
     @Test
@@ -94,11 +105,15 @@ class ReservationServiceTest {
         ReservationPlayerRepository playerRepo = mock(ReservationPlayerRepository.class);
         PaymentRepository paymentRepo = mock(PaymentRepository.class);
         AuditService audit = mock(AuditService.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+        // gerçek cache, mock repository'ler üzerinde (read-through)
+        CatalogCache catalog = new CatalogCache(pitchRepo, facilityRepo, slotRepo, durationRepo, pricingRepo,
+                events, new SimpleMeterRegistry(), 100, 60);
 
         ReservationService svc = new ReservationService(
-                pitchRepo, facilityRepo, slotRepo,
-                membershipRepo, durationRepo, pricingRepo,
-                reservationRepo, playerRepo, paymentRepo, audit
+                catalog, membershipRepo,
+                reservationRepo, playerRepo, paymentRepo, audit, events, mock(ReservationBatchWriter.class)
         );
 
         // domain objects
@@ -108,6 +123,7 @@ class ReservationServiceTest {
 
         Facility fac = new Facility();
         fac.setId(10L);
+        fac.setOwnerUserId(500L);
 
         Membership mem = new Membership();
         mem.setId(99L);
@@ -136,12 +152,9 @@ class ReservationServiceTest {
         when(durationRepo.findByMinutes(60)).thenReturn(Optional.of(baseOpt));
         when(pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(1L, 5L)).thenReturn(Optional.of(pr));
 
-        // reservationRepo.save: id set edip geri dönelim
-        when(reservationRepo.save(any(Reservation.class))).thenAnswer(inv -> {
-            Reservation r = inv.getArgument(0);
-            r.setId(123L);
-            return r;
-        });
+        // insert-and-classify: çakışma yok → id döner
+        when(reservationRepo.insertIfFree(eq(1L), eq(99L), any(), any(), eq("CONFIRMED"),
+                eq(new BigDecimal("200")), eq(true), any())).thenReturn(List.of(123L));
 
         // request: 120 dk => 2x fiyat
         var start = ZonedDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneId.of("Europe/Istanbul")).toInstant();
@@ -164,8 +177,14 @@ class ReservationServiceTest {
         assertEquals(ReservationStatus.CONFIRMED, saved.getStatus());
         assertTrue(Boolean.TRUE.equals(saved.getShuttleRequested()));
 
-        // players kaydedildi mi?
-        verify(playerRepo, times(2)).save(any(ReservationPlayer.class));
+        // players tek saveAll ile mi kaydedildi? (flush'ta tek batch)
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ReservationPlayer>> playersCap = ArgumentCaptor.forClass(List.class);
+        verify(playerRepo).saveAll(playersCap.capture());
+        assertEquals(List.of("Ali Veli", "Mehmet Kaya"),
+                playersCap.getValue().stream().map(ReservationPlayer::getFullName).toList());
+        assertTrue(playersCap.getValue().stream().allMatch(p -> p.getReservationId() == 123L));
+        verify(playerRepo, never()).save(any(ReservationPlayer.class));
 
         // payment PAID mi?
         ArgumentCaptor<Payment> payCap = ArgumentCaptor.forClass(Payment.class);
@@ -178,5 +197,231 @@ class ReservationServiceTest {
         assertNotNull(pay.getPaidAt());
 
         verify(audit, times(1)).log(eq(7L), eq("RESERVATION_CREATE"), eq("Reservation"), eq(123L), any(String.class));
+
+        // çakışma kontrolünü constraint yapar: ön sorgu yok
+        verify(reservationRepo, never()).existsOverlappingForPitch(any(), any(), any(), any());
+        verify(reservationRepo, never()).findOverlappingForPitch(any(), any(), any(), any());
+
+        // occupancy index / owner bildirimi için event yayınlandı mı?
+        ArgumentCaptor<ReservationChangedEvent> evCap = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(events).publishEvent(evCap.capture());
+        assertEquals(123L, evCap.getValue().reservationId());
+        assertEquals(start.plusSeconds(120 * 60), evCap.getValue().endTime());
+        assertEquals(500L, evCap.getValue().ownerUserId());
+        assertEquals("RESERVATION_CREATE", evCap.getValue().action());
+    }
+
+    @Test
+    void createSeries_shouldCheckOverlapOnce_andBatchInsertFreeWeeks() {
+        PitchRepository pitchRepo = mock(PitchRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
+        MembershipRepository membershipRepo = mock(MembershipRepository.class);
+        DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
+        PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        ReservationBatchWriter batch = mock(ReservationBatchWriter.class);
+
+        CatalogCache catalog = new CatalogCache(pitchRepo, facilityRepo, slotRepo, durationRepo, pricingRepo,
+                events, new SimpleMeterRegistry(), 100, 60);
+
+        ReservationService svc = new ReservationService(
+                catalog, membershipRepo, reservationRepo,
+                mock(ReservationPlayerRepository.class), mock(PaymentRepository.class),
+                mock(AuditService.class), events, batch
+        );
+
+        Pitch pitch = new Pitch();
+        pitch.setId(1L);
+        pitch.setFacilityId(10L);
+
+        Facility fac = new Facility();
+        fac.setId(10L);
+
+        Membership mem = new Membership();
+        mem.setId(99L);
+        mem.setStatus(MembershipStatus.ACTIVE);
+
+        DurationOption baseOpt = new DurationOption();
+        baseOpt.setId(5L);
+        baseOpt.setMinutes(60);
+
+        PricingRule pr = new PricingRule();
+        pr.setPrice(new BigDecimal("100"));
+
+        when(pitchRepo.findById(1L)).thenReturn(Optional.of(pitch));
+        when(facilityRepo.findById(10L)).thenReturn(Optional.of(fac));
+        when(membershipRepo.findByFacilityIdAndUserId(10L, 7L)).thenReturn(Optional.of(mem));
+        when(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L)).thenReturn(List.of());
+        when(durationRepo.findByMinutes(60)).thenReturn(Optional.of(baseOpt));
+        when(pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(1L, 5L)).thenReturn(Optional.of(pr));
+
+        // 3. hafta (salı 21:00) dolu
+        var first = ZonedDateTime.of(2030, 1, 1, 21, 0, 0, 0, ZoneId.of("Europe/Istanbul"));
+        Reservation taken = new Reservation();
+        taken.setId(77L);
+        taken.setStartTime(first.plusWeeks(2).toInstant());
+        taken.setEndTime(first.plusWeeks(2).plusHours(1).toInstant());
+        when(reservationRepo.findOverlappingForPitch(eq(1L), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(taken));
+
+        doAnswer(inv -> {
+            List<Reservation> rs = inv.getArgument(0);
+            long id = 500;
+            for (Reservation r : rs) r.setId(id++);
+            return null;
+        }).when(batch).insertReservations(anyList());
+
+        // skipConflicts=false → hiçbir şey yazılmaz, sadece rapor
+        var strict = new ReservationSeriesRequest(1L, first.toInstant(), 4, 60, PaymentMethod.CASH,
+                List.of(new ReservationPlayerAddRequest("Ali Veli", 10)), false, false);
+        ReservationService.SeriesResult none = svc.createSeries(7L, strict);
+        assertEquals(0, none.created());
+        assertEquals(List.of(77L), none.occurrences().get(2).conflictsWith());
+        verifyNoInteractions(batch);
+
+        // skipConflicts=true → 3 hafta tek batch'te
+        var lenient = new ReservationSeriesRequest(1L, first.toInstant(), 4, 60, PaymentMethod.CASH,
+                List.of(new ReservationPlayerAddRequest("Ali Veli", 10)), false, true);
+        ReservationService.SeriesResult res = svc.createSeries(7L, lenient);
+
+        assertEquals(4, res.requested());
+        assertEquals(3, res.created());
+        assertEquals(Arrays.asList(500L, 501L, null, 502L),
+                res.occurrences().stream().map(ReservationService.SeriesOccurrence::reservationId).toList());
+        assertEquals(first.plusWeeks(3).toInstant(), res.occurrences().get(3).startTime());
+
+        verify(reservationRepo, times(2)).findOverlappingForPitch(any(), any(), any(), any());
+        verify(batch, times(1)).insertReservations(anyList());
+        verify(batch).insertPlayers(eq(List.of(500L, 501L, 502L)), any());
+        verify(batch).insertPayments(List.of(500L, 501L, 502L), PaymentMethod.CASH, new BigDecimal("100"));
+        verify(events, times(3)).publishEvent(any(ReservationChangedEvent.class));
+    }
+
+    @Test
+    void create_shouldClassifyConflict_andRetryWhenConflictVanished() {
+        PitchRepository pitchRepo = mock(PitchRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
+        MembershipRepository membershipRepo = mock(MembershipRepository.class);
+        DurationOptionRepository durationRepo = mock(DurationOptionRepository.class);
+        PricingRuleRepository pricingRepo = mock(PricingRuleRepository.class);
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        PaymentRepository paymentRepo = mock(PaymentRepository.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+        CatalogCache catalog = new CatalogCache(pitchRepo, facilityRepo, slotRepo, durationRepo, pricingRepo,
+                events, new SimpleMeterRegistry(), 100, 60);
+
+        ReservationService svc = new ReservationService(
+                catalog, membershipRepo, reservationRepo,
+                mock(ReservationPlayerRepository.class), paymentRepo,
+                mock(AuditService.class), events, mock(ReservationBatchWriter.class)
+        );
+
+        Pitch pitch = new Pitch();
+        pitch.setId(1L);
+        pitch.setFacilityId(10L);
+
+        Facility fac = new Facility();
+        fac.setId(10L);
+
+        Membership mem = new Membership();
+        mem.setId(99L);
+        mem.setStatus(MembershipStatus.ACTIVE);
+
+        DurationOption baseOpt = new DurationOption();
+        baseOpt.setId(5L);
+        baseOpt.setMinutes(60);
+
+        PricingRule pr = new PricingRule();
+        pr.setPrice(new BigDecimal("100"));
+
+        when(pitchRepo.findById(1L)).thenReturn(Optional.of(pitch));
+        when(facilityRepo.findById(10L)).thenReturn(Optional.of(fac));
+        when(membershipRepo.findByFacilityIdAndUserId(10L, 7L)).thenReturn(Optional.of(mem));
+        when(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L)).thenReturn(List.of());
+        when(durationRepo.findByMinutes(60)).thenReturn(Optional.of(baseOpt));
+        when(pricingRepo.findByPitchIdAndDurationOptionIdAndActiveTrue(1L, 5L)).thenReturn(Optional.of(pr));
+
+        var req = new ReservationCreateRequest(
+                1L,
+                ZonedDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneId.of("Europe/Istanbul")).toInstant(),
+                60,
+                PaymentMethod.CASH,
+                List.of(new ReservationPlayerAddRequest("Ali Veli", 10)),
+                false
+        );
+
+        Reservation taken = new Reservation();
+        taken.setId(77L);
+
+        // 1) constraint satırı eklemedi, çakışan rezervasyon duruyor → typed 409
+        when(reservationRepo.insertIfFree(any(), any(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(List.of());
+        when(reservationRepo.findOverlappingForPitch(eq(1L), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of(taken));
+
+        ReservationConflictException ex = assertThrows(ReservationConflictException.class, () -> svc.create(7L, req));
+        assertEquals(List.of(77L), ex.getConflictingReservationIds());
+        verifyNoInteractions(paymentRepo);
+
+        // 2) çakışan satır sınıflandırma anında yok (arada iptal) → bir kez daha denenir
+        when(reservationRepo.insertIfFree(any(), any(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(List.of(), List.of(124L));
+        when(reservationRepo.findOverlappingForPitch(eq(1L), any(), any(), eq(ReservationStatus.CANCELLED)))
+                .thenReturn(List.of());
+
+        Reservation saved = svc.create(7L, req);
+        assertEquals(124L, saved.getId());
+        verify(paymentRepo).save(any(Payment.class));
+    }
+
+    @Test
+    void createAndSeries_shouldReject_durationLongerThanOneDay_beforeTouchingDb() {
+        PitchRepository pitchRepo = mock(PitchRepository.class);
+        FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
+        MembershipRepository membershipRepo = mock(MembershipRepository.class);
+        ReservationRepository reservationRepo = mock(ReservationRepository.class);
+        ReservationBatchWriter batch = mock(ReservationBatchWriter.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+
+        CatalogCache catalog = new CatalogCache(pitchRepo, facilityRepo, slotRepo, mock(DurationOptionRepository.class),
+                mock(PricingRuleRepository.class), events, new SimpleMeterRegistry(), 100, 60);
+
+        ReservationService svc = new ReservationService(
+                catalog, membershipRepo, reservationRepo,
+                mock(ReservationPlayerRepository.class), mock(PaymentRepository.class),
+                mock(AuditService.class), events, batch
+        );
+
+        Pitch pitch = new Pitch();
+        pitch.setId(1L);
+        pitch.setFacilityId(10L);
+        Facility fac = new Facility();
+        fac.setId(10L);
+        Membership mem = new Membership();
+        mem.setId(99L);
+        mem.setStatus(MembershipStatus.ACTIVE);
+
+        when(pitchRepo.findById(1L)).thenReturn(Optional.of(pitch));
+        when(facilityRepo.findById(10L)).thenReturn(Optional.of(fac));
+        when(membershipRepo.findByFacilityIdAndUserId(10L, 7L)).thenReturn(Optional.of(mem));
+        when(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L)).thenReturn(List.of());
+
+        var start = ZonedDateTime.of(2030, 1, 1, 10, 0, 0, 0, ZoneId.of("Europe/Istanbul")).toInstant();
+        var players = List.of(new ReservationPlayerAddRequest("Ali Veli", 10));
+
+        // 25 saat: slot katı ama V5 ck_res_max_duration'ı aşar → constraint 500'ü yerine 400
+        var tooLong = new ReservationCreateRequest(1L, start, 1500, PaymentMethod.CASH, players, false);
+        var ex = assertThrows(IllegalArgumentException.class, () -> svc.create(7L, tooLong));
+        assertTrue(ex.getMessage().contains("at most " + ReservationService.MAX_DURATION_MINUTES));
+
+        var series = new ReservationSeriesRequest(1L, start, 4, 1500, PaymentMethod.CASH, players, false, true);
+        assertThrows(IllegalArgumentException.class, () -> svc.createSeries(7L, series));
+
+        verifyNoInteractions(reservationRepo, batch);
     }
 }
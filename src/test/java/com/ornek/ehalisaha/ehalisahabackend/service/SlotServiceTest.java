@@ -25,10 +25,11 @@ class SlotServiceTest {
     void publicSlots_shouldReturnDefault_23Slots_whenDbEmpty() {
         FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        SlotService svc = new SlotService(slotRepo, facilityRepo);
+        SlotService svc = new SlotService(slotRepo, facilityRepo, catalog);
 
-        when(slotRepo.findByFacilityIdAndActiveTrueOrderByStartMinuteAsc(10L)).thenReturn(List.of());
+        when(catalog.activeSlots(10L)).thenReturn(List.of());
 
         var out = svc.publicSlots(10L);
         assertEquals(23, out.size(), "Default slots: 01:00..23:00 => 23 adet");
@@ -42,8 +43,9 @@ class SlotServiceTest {
     void ownerSlots_shouldThrow_whenNotOwner() {
         FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        SlotService svc = new SlotService(slotRepo, facilityRepo);
+        SlotService svc = new SlotService(slotRepo, facilityRepo, catalog);
 
         Facility f = new Facility();
         f.setId(10L);
@@ -59,8 +61,9 @@ class SlotServiceTest {
     void ownerReplaceSlots_shouldDeactivateLeftoverSlots() {
         FacilitySlotRepository slotRepo = mock(FacilitySlotRepository.class);
         FacilityRepository facilityRepo = mock(FacilityRepository.class);
+        CatalogCache catalog = mock(CatalogCache.class);
 
-        SlotService svc = new SlotService(slotRepo, facilityRepo);
+        SlotService svc = new SlotService(slotRepo, facilityRepo, catalog);
 
         Facility f = new Facility();
         f.setId(10L);
@@ -117,5 +120,6 @@ class SlotServiceTest {
         // Burada önemli olan: pasifleştirme + save çağrısı.
         verify(slotRepo, atLeast(2)).save(any(FacilitySlot.class));
         verify(slotRepo).flush();
+        verify(catalog).invalidateFacility(10L);
     }
 }